@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# Measures time-to-first-response and RSS of the JVM and native builds.
+# Usage: scripts/startup-benchmark.sh [runs]
+# Expects target/quarkus-app/quarkus-run.jar and/or target/*-runner, and a running database.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+URL="http://localhost:${PORT}/warehouse"
+JAR="target/quarkus-app/quarkus-run.jar"
+NATIVE="$(ls target/*-runner 2>/dev/null | head -n 1 || true)"
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  if [[ -r "/proc/$1/status" ]]; then
+    awk '/VmRSS/ { print $2 }' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+measure() {
+  local label="$1"
+  shift
+  local total_ms=0 total_rss=0
+  for ((i = 1; i <= RUNS; i++)); do
+    local start pid elapsed rss
+    start="$(now_ms)"
+    QUARKUS_HTTP_PORT="${PORT}" "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${URL}"; do
+      if ! kill -0 "${pid}" 2> /dev/null; then
+        echo "${label}: process exited before answering" >&2
+        exit 1
+      fi
+      sleep 0.01
+    done
+    elapsed=$(($(now_ms) - start))
+    rss="$(rss_kb "${pid}")"
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo "${label} run ${i}: first response ${elapsed} ms, RSS $((rss / 1024)) MB"
+    total_ms=$((total_ms + elapsed))
+    total_rss=$((total_rss + rss))
+  done
+  echo "${label} average: first response $((total_ms / RUNS)) ms, RSS $((total_rss / RUNS / 1024)) MB"
+}
+
+if [[ -f "${JAR}" ]]; then
+  measure "jvm" java -jar "${JAR}"
+else
+  echo "Skipping JVM: ${JAR} not found (run ./mvnw package)"
+fi
+
+if [[ -n "${NATIVE}" ]]; then
+  measure "native" "${NATIVE}"
+else
+  echo "Skipping native: no runner found (run ./mvnw package -Dnative)"
+fi
@@ -0,0 +1,296 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Keeps the second-level entity caches of several instances consistent through PostgreSQL
+ * LISTEN/NOTIFY.
+ *
+ * <p>Write paths report the entities they changed. The ids are collected per transaction and sent
+ * as one {@code pg_notify} just before commit; PostgreSQL only delivers a notification when its
+ * transaction commits, so other instances never evict for a rolled-back write. Each instance
+ * listens on a dedicated connection, ignores its own notifications and evicts the rest from its
+ * local cache. After a lost listener connection the affected regions are evicted entirely, as
+ * notifications sent in between are gone. Cached list responses ({@link ResponseBytesCache}) of
+ * the changed entities are dropped along with them, and {@link RemoteEntitiesChanged} tells other
+ * in-memory state about the change.
+ */
+@ApplicationScoped
+public class CacheInvalidationBus {
+
+  private static final Logger LOGGER = Logger.getLogger(CacheInvalidationBus.class.getName());
+
+  static final String CHANNEL = "entity_cache_invalidation";
+
+  // Evicts the whole region, for bulk writes whose ids are not known
+  static final String ALL = "*";
+
+  // PostgreSQL rejects payloads of 8000 bytes and more
+  static final int MAX_PAYLOAD = 7900;
+
+  private static final Map<String, Class<?>> ENTITIES =
+      Map.of(
+          Store.class.getSimpleName(), Store.class,
+          Product.class.getSimpleName(), Product.class,
+          DbWarehouse.class.getSimpleName(), DbWarehouse.class);
+
+  private static final Object PENDING_KEY = CacheInvalidationBus.class;
+
+  @ConfigProperty(name = "app.cache-invalidation.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+  Optional<String> jdbcUrl;
+
+  @ConfigProperty(name = "quarkus.datasource.username")
+  Optional<String> username;
+
+  @ConfigProperty(name = "quarkus.datasource.password")
+  Optional<String> password;
+
+  @Inject EntityManager entityManager;
+  @Inject EntityManagerFactory entityManagerFactory;
+  @Inject TransactionSynchronizationRegistry txRegistry;
+  @Inject ResponseBytesCache responseCache;
+  @Inject Event<RemoteEntitiesChanged> remoteChanges;
+
+  final String nodeId = UUID.randomUUID().toString();
+
+  private volatile boolean running;
+  private Thread listener;
+
+  public void entityChanged(Class<?> entityClass, Object id) {
+    entitiesChanged(entityClass, List.of(id));
+  }
+
+  public void regionChanged(Class<?> entityClass) {
+    entitiesChanged(entityClass, List.of(ALL));
+  }
+
+  public void entitiesChanged(Class<?> entityClass, Collection<?> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    // Cached list responses of this instance go whether or not other instances are told
+    responseCache.invalidateAfterCompletion(entityClass);
+    if (!enabled) {
+      return;
+    }
+    if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      Map<String, Set<String>> changes = new TreeMap<>();
+      add(changes, entityClass, ids);
+      QuarkusTransaction.requiringNew().run(() -> send(changes));
+      return;
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Set<String>> pending =
+        (Map<String, Set<String>>) txRegistry.getResource(PENDING_KEY);
+    if (pending == null) {
+      Map<String, Set<String>> changes = new TreeMap<>();
+      txRegistry.putResource(PENDING_KEY, changes);
+      txRegistry.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+              send(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {}
+          });
+      pending = changes;
+    }
+    add(pending, entityClass, ids);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled || jdbcUrl.isEmpty()) {
+      return;
+    }
+    running = true;
+    listener = new Thread(this::listen, "cache-invalidation-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    running = false;
+    if (listener != null) {
+      listener.interrupt();
+    }
+  }
+
+  private void send(Map<String, Set<String>> changes) {
+    List<String> payloads = encode(nodeId, changes);
+    entityManager
+        .unwrap(Session.class)
+        .doWork(
+            connection -> {
+              try (PreparedStatement statement =
+                  connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                for (String payload : payloads) {
+                  statement.setString(1, CHANNEL);
+                  statement.setString(2, payload);
+                  statement.execute();
+                }
+              }
+            });
+  }
+
+  private void listen() {
+    boolean reconnect = false;
+    while (running) {
+      try (Connection connection =
+          DriverManager.getConnection(
+              jdbcUrl.get(), username.orElse(null), password.orElse(null))) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        if (reconnect) {
+          ENTITIES.values().forEach(cache()::evict);
+          responseCache.invalidateAll();
+          ENTITIES.values().forEach(entityClass -> fireRemoteChange(entityClass, List.of()));
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(1000);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              apply(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          LOGGER.warn("Cache invalidation listener lost its connection, reconnecting", e);
+          reconnect = true;
+          pause();
+        }
+      }
+    }
+  }
+
+  // Payload: "<node id>|Store:1,2;Product:*"
+  void apply(String payload) {
+    int separator = payload.indexOf('|');
+    if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+      return;
+    }
+    Cache cache = cache();
+    for (String entry : payload.substring(separator + 1).split(";")) {
+      String[] parts = entry.split(":", 2);
+      Class<?> entityClass = ENTITIES.get(parts[0]);
+      if (entityClass == null || parts.length < 2) {
+        continue;
+      }
+      responseCache.invalidate(entityClass);
+      List<Long> ids = new ArrayList<>();
+      boolean all = false;
+      for (String id : parts[1].split(",")) {
+        if (ALL.equals(id)) {
+          cache.evict(entityClass);
+          all = true;
+        } else {
+          cache.evict(entityClass, Long.valueOf(id));
+          ids.add(Long.valueOf(id));
+        }
+      }
+      fireRemoteChange(entityClass, all ? List.of() : ids);
+    }
+  }
+
+  private void fireRemoteChange(Class<?> entityClass, List<Long> ids) {
+    try {
+      remoteChanges.fire(new RemoteEntitiesChanged(entityClass, ids));
+    } catch (RuntimeException e) {
+      // The caches are already evicted; a failing observer must not stop the listener
+      LOGGER.error("Failed to process a remote change of " + entityClass.getSimpleName(), e);
+    }
+  }
+
+  static List<String> encode(String nodeId, Map<String, Set<String>> changes) {
+    List<String> payloads = new ArrayList<>();
+    StringBuilder payload = new StringBuilder(nodeId).append('|');
+    int emptyLength = payload.length();
+    for (Map.Entry<String, Set<String>> entity : changes.entrySet()) {
+      String prefix = entity.getKey() + ":";
+      boolean inEntry = false;
+      for (String id : entity.getValue()) {
+        int needed = (inEntry ? 1 : prefix.length() + 1) + id.length();
+        if (payload.length() + needed > MAX_PAYLOAD && payload.length() > emptyLength) {
+          payloads.add(payload.toString());
+          payload.setLength(emptyLength);
+          inEntry = false;
+        }
+        if (inEntry) {
+          payload.append(',');
+        } else {
+          if (payload.length() > emptyLength) {
+            payload.append(';');
+          }
+          payload.append(prefix);
+          inEntry = true;
+        }
+        payload.append(id);
+      }
+    }
+    if (payload.length() > emptyLength) {
+      payloads.add(payload.toString());
+    }
+    return payloads;
+  }
+
+  private static void add(
+      Map<String, Set<String>> changes, Class<?> entityClass, Collection<?> ids) {
+    Set<String> entityIds =
+        changes.computeIfAbsent(entityClass.getSimpleName(), k -> new LinkedHashSet<>());
+    ids.forEach(id -> entityIds.add(String.valueOf(id)));
+  }
+
+  private Cache cache() {
+    return entityManagerFactory.getCache();
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
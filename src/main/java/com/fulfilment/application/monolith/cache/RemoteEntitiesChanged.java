@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.cache;
+
+import java.util.List;
+
+/**
+ * Fired by {@link CacheInvalidationBus} on its listener thread for every change another instance
+ * reported, once the local cache entries are evicted. Lets in-memory state other than the caches
+ * follow writes made elsewhere.
+ */
+public class RemoteEntitiesChanged {
+
+  public final Class<?> entityClass;
+
+  // ids of the changed entities; empty when every entity of the class may have changed (a bulk
+  // write, or notifications lost while the listener was reconnecting)
+  public final List<Long> ids;
+
+  public RemoteEntitiesChanged(Class<?> entityClass, List<Long> ids) {
+    this.entityClass = entityClass;
+    this.ids = ids;
+  }
+
+  public boolean allChanged() {
+    return ids.isEmpty();
+  }
+}
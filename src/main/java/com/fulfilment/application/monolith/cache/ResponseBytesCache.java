@@ -0,0 +1,251 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Serialised list responses per collection, media type and content encoding, held in direct
+ * buffers so a hit is written to the socket without touching the database, Jackson or the heap.
+ *
+ * <p>Every collection has a generation that each write moves on once its transaction completes
+ * (see {@link CacheInvalidationBus}, which also forwards the writes of other instances). A render
+ * takes the generation before it reads and is only stored if the generation has not moved since,
+ * so a render racing a write can never be cached. Renders that start within the settle time of a
+ * write are served but not stored, as a read replica may not have applied the write yet.
+ *
+ * <p>Renders below {@code app.compression.min-bytes} are not worth compressing and are stored in
+ * the identity encoding under the gzip variant as well.
+ */
+@ApplicationScoped
+public class ResponseBytesCache {
+
+  public static final String IDENTITY = "identity";
+  public static final String GZIP = "gzip";
+
+  private static final Map<Class<?>, String> COLLECTIONS =
+      Map.of(Store.class, "store", Product.class, "product", DbWarehouse.class, "warehouse");
+
+  private static final Object PENDING_KEY = ResponseBytesCache.class;
+
+  @ConfigProperty(name = "app.response-cache.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "app.response-cache.settle-time", defaultValue = "1s")
+  Duration settleTime;
+
+  @ConfigProperty(name = "app.response-cache.max-entry-bytes", defaultValue = "16777216")
+  int maxEntryBytes;
+
+  @ConfigProperty(name = "app.compression.min-bytes", defaultValue = "1024")
+  int compressionMinBytes;
+
+  @Inject TransactionSynchronizationRegistry txRegistry;
+
+  LongSupplier nanoClock = System::nanoTime;
+
+  private final Map<String, ListState> collections = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Whether list responses of the collection are cached at all. */
+  public static boolean isCached(String collection) {
+    return COLLECTIONS.containsValue(collection);
+  }
+
+  /** The cached render for the media type and accepted encoding, or null. */
+  public Rendered get(String collection, String mediaType, String encoding) {
+    ListState state = collection(collection);
+    Entry entry = state.entries.get(variant(mediaType, encoding));
+    if (entry == null || entry.generation != state.generation) {
+      return null;
+    }
+    return entry.rendered.duplicate();
+  }
+
+  /** A ticket to take before rendering, to be handed back to {@link #put}. */
+  public Ticket ticket(String collection) {
+    ListState state = collection(collection);
+    return new Ticket(state.generation, nanoClock.getAsLong());
+  }
+
+  /**
+   * Stores the rendered document, and its gzip encoding if accepted and worth it, when no write
+   * happened since the ticket was taken. Returns the render to send either way.
+   */
+  public Rendered put(
+      String collection, String mediaType, String encoding, Ticket ticket, byte[] document) {
+    boolean compress = GZIP.equals(encoding) && document.length >= compressionMinBytes;
+    byte[] body = compress ? gzip(document) : document;
+    String bodyEncoding = compress ? GZIP : IDENTITY;
+    ListState state = collection(collection);
+    boolean settled = ticket.startedNanos - state.invalidatedNanos >= settleTime.toNanos();
+    if (ticket.generation != state.generation || !settled || body.length > maxEntryBytes) {
+      return new Rendered(ByteBuffer.wrap(body).asReadOnlyBuffer(), bodyEncoding);
+    }
+
+    Rendered rendered = new Rendered(toDirect(body), bodyEncoding);
+    store(state, variant(mediaType, encoding), ticket.generation, rendered);
+    if (compress) {
+      Rendered identity = new Rendered(toDirect(document), IDENTITY);
+      store(state, variant(mediaType, IDENTITY), ticket.generation, identity);
+    }
+    return rendered.duplicate();
+  }
+
+  /** Drops the lists an entity class appears in, now. */
+  public void invalidate(Class<?> entityClass) {
+    String collection = COLLECTIONS.get(entityClass);
+    if (collection != null) {
+      invalidate(collection);
+    }
+  }
+
+  /**
+   * Drops the lists an entity class appears in once the current transaction completes, or now
+   * when there is none. Until then the lists still show the committed state.
+   */
+  public void invalidateAfterCompletion(Class<?> entityClass) {
+    String collection = COLLECTIONS.get(entityClass);
+    if (collection == null) {
+      return;
+    }
+    if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      invalidate(collection);
+      return;
+    }
+
+    @SuppressWarnings("unchecked")
+    Set<String> pending = (Set<String>) txRegistry.getResource(PENDING_KEY);
+    if (pending == null) {
+      Set<String> changed = new LinkedHashSet<>();
+      txRegistry.putResource(PENDING_KEY, changed);
+      txRegistry.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+              // after a rollback too, which costs no more than one extra render
+              changed.forEach(ResponseBytesCache.this::invalidate);
+            }
+          });
+      pending = changed;
+    }
+    pending.add(collection);
+  }
+
+  public void invalidateAll() {
+    COLLECTIONS.values().forEach(this::invalidate);
+  }
+
+  private void invalidate(String collection) {
+    ListState state = collection(collection);
+    synchronized (state) {
+      state.invalidatedNanos = nanoClock.getAsLong();
+      state.generation++;
+      state.entries.clear();
+    }
+  }
+
+  private static void store(ListState state, String variant, long generation, Rendered rendered) {
+    synchronized (state) {
+      // checked again under the lock, so an invalidation cannot slip in between
+      if (state.generation == generation) {
+        state.entries.put(variant, new Entry(generation, rendered));
+      }
+    }
+  }
+
+  private static String variant(String mediaType, String encoding) {
+    return mediaType + ' ' + encoding;
+  }
+
+  private ListState collection(String collection) {
+    return collections.computeIfAbsent(collection, name -> new ListState(nanoClock.getAsLong()));
+  }
+
+  private static ByteBuffer toDirect(byte[] body) {
+    ByteBuffer bytes = ByteBuffer.allocateDirect(body.length);
+    bytes.put(body).flip();
+    return bytes.asReadOnlyBuffer();
+  }
+
+  static byte[] gzip(byte[] document) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, document.length / 4));
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(document);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /** The generation a render started from, and when. */
+  public static final class Ticket {
+    final long generation;
+    final long startedNanos;
+
+    Ticket(long generation, long startedNanos) {
+      this.generation = generation;
+      this.startedNanos = startedNanos;
+    }
+  }
+
+  /** Bytes to send, and the content encoding they are in. */
+  public static final class Rendered {
+    public final ByteBuffer bytes;
+    public final String encoding;
+
+    Rendered(ByteBuffer bytes, String encoding) {
+      this.bytes = bytes;
+      this.encoding = encoding;
+    }
+
+    // every reader gets its own position, so concurrent writes of one entry do not interfere
+    Rendered duplicate() {
+      return new Rendered(bytes.duplicate(), encoding);
+    }
+  }
+
+  private static final class ListState {
+    volatile long generation;
+    volatile long invalidatedNanos;
+    final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    ListState(long createdNanos) {
+      // nothing was written before the cache existed, so the first render may be stored
+      this.invalidatedNanos = createdNanos - Long.MAX_VALUE / 2;
+    }
+  }
+
+  private static final class Entry {
+    final long generation;
+    final Rendered rendered;
+
+    Entry(long generation, Rendered rendered) {
+      this.generation = generation;
+      this.rendered = rendered;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fulfilment.application.monolith.encoding.BinaryFormats;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serves {@code GET /store}, {@code GET /product} and {@code GET /warehouse} from the {@link
+ * ResponseBytesCache}. A hit is answered before the resource runs, straight from the cached
+ * buffer; a miss lets the resource run and renders its result once, for the client and the cache.
+ * Each format of {@link BinaryFormats} is a variant of its own. Requests with query parameters
+ * are not cached.
+ */
+@Provider
+public class ResponseBytesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String TICKET_PROPERTY = ResponseBytesFilter.class.getName() + ".ticket";
+  private static final String COLLECTION_PROPERTY =
+      ResponseBytesFilter.class.getName() + ".collection";
+  private static final String MEDIA_TYPE_PROPERTY =
+      ResponseBytesFilter.class.getName() + ".mediaType";
+  private static final String ENCODING_PROPERTY =
+      ResponseBytesFilter.class.getName() + ".encoding";
+
+  private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+  @Inject ResponseBytesCache cache;
+  @Inject BinaryFormats formats;
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    if (!cache.isEnabled() || !"GET".equals(request.getMethod())) {
+      return;
+    }
+    String collection = stripSlashes(request.getUriInfo().getPath());
+    if (!ResponseBytesCache.isCached(collection)
+        || !request.getUriInfo().getQueryParameters().isEmpty()) {
+      return;
+    }
+    // Left to the resource when no format fits, which answers 406
+    String mediaType = BinaryFormats.negotiate(request.getHeaderString(HttpHeaders.ACCEPT));
+    if (mediaType == null) {
+      return;
+    }
+
+    String encoding =
+        acceptsGzip(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING))
+            ? ResponseBytesCache.GZIP
+            : ResponseBytesCache.IDENTITY;
+    ResponseBytesCache.Rendered cached = cache.get(collection, mediaType, encoding);
+    if (cached != null) {
+      request.abortWith(
+          Response.ok(toBuffer(cached.bytes), mediaType)
+              .header(HttpHeaders.CONTENT_ENCODING, contentEncoding(cached.encoding))
+              .header(HttpHeaders.VARY, VARY)
+              .build());
+      return;
+    }
+    // Taken before the resource reads, so a write landing during the render is noticed
+    request.setProperty(TICKET_PROPERTY, cache.ticket(collection));
+    request.setProperty(COLLECTION_PROPERTY, collection);
+    request.setProperty(MEDIA_TYPE_PROPERTY, mediaType);
+    request.setProperty(ENCODING_PROPERTY, encoding);
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response)
+      throws IOException {
+    var ticket = (ResponseBytesCache.Ticket) request.getProperty(TICKET_PROPERTY);
+    if (ticket == null || response.getStatus() != 200 || !response.hasEntity()) {
+      return;
+    }
+    String collection = (String) request.getProperty(COLLECTION_PROPERTY);
+    String mediaType = (String) request.getProperty(MEDIA_TYPE_PROPERTY);
+    String encoding = (String) request.getProperty(ENCODING_PROPERTY);
+
+    byte[] document = formats.mapperFor(mediaType).writeValueAsBytes(response.getEntity());
+    ResponseBytesCache.Rendered rendered =
+        cache.put(collection, mediaType, encoding, ticket, document);
+    response.setEntity(
+        toBuffer(rendered.bytes), response.getEntityAnnotations(), MediaType.valueOf(mediaType));
+    if (contentEncoding(rendered.encoding) != null) {
+      response
+          .getHeaders()
+          .putSingle(HttpHeaders.CONTENT_ENCODING, contentEncoding(rendered.encoding));
+    }
+    response.getHeaders().add(HttpHeaders.VARY, VARY);
+  }
+
+  // Wraps the buffer without copying; Vert.x writes it to the socket as it is
+  private static Buffer toBuffer(ByteBuffer bytes) {
+    return Buffer.buffer(Unpooled.wrappedBuffer(bytes));
+  }
+
+  private static String contentEncoding(String encoding) {
+    return ResponseBytesCache.GZIP.equals(encoding) ? ResponseBytesCache.GZIP : null;
+  }
+
+  // "gzip" or "*" with a non-zero quality, as in "br, gzip;q=0.8"
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+        continue;
+      }
+      double quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            quality = Double.parseDouble(parameter.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      if (quality > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripSlashes(String path) {
+    int start = path.startsWith("/") ? 1 : 0;
+    int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+    return path.substring(start, end);
+  }
+}
@@ -0,0 +1,169 @@
+package com.fulfilment.application.monolith.datasource;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.TransactionManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.jboss.logging.Logger;
+
+/**
+ * Sends read-only work to the {@code read} datasource so read traffic scales out on its own pool
+ * without taking connections away from writes.
+ *
+ * <p>Work runs on a stateless session over a replica connection when routing is enabled and no
+ * transaction is active. Inside a transaction the caller's session on the primary is used, so a
+ * write path always reads its own writes. If the replica pool cannot hand out a connection within
+ * its acquisition timeout the read falls back to the primary.
+ *
+ * <p>Replica sessions read the second-level cache but do not put into it, so rows a lagging
+ * replica returns never replace fresher cached ones.
+ */
+@ApplicationScoped
+public class ReadReplicaRouter {
+
+  public static final String READ_DATASOURCE = "read";
+
+  private static final Logger LOGGER = Logger.getLogger(ReadReplicaRouter.class.getName());
+
+  @ConfigProperty(name = "app.read-replica.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @Inject Session session;
+  @Inject SessionFactory sessionFactory;
+  @Inject TransactionManager transactionManager;
+  @Inject MeterRegistry meterRegistry;
+
+  @Inject
+  @DataSource(READ_DATASOURCE)
+  Instance<AgroalDataSource> replicaInstance;
+
+  AgroalDataSource replica;
+  Counter replicaReads;
+  Counter primaryReads;
+  Counter fallbacks;
+
+  @PostConstruct
+  void init() {
+    replicaReads = meterRegistry.counter("datasource.read.routed", "target", "replica");
+    primaryReads = meterRegistry.counter("datasource.read.routed", "target", "primary");
+    fallbacks = meterRegistry.counter("datasource.read.fallbacks");
+    if (enabled && replicaInstance.isResolvable()) {
+      replica = replicaInstance.get();
+    } else if (enabled) {
+      LOGGER.warn("Read replica routing is enabled but no 'read' datasource is configured");
+    }
+  }
+
+  public <T> T read(Function<SharedSessionContract, T> work) {
+    Connection connection = replicaConnection();
+    if (connection == null) {
+      primaryReads.increment();
+      return work.apply(session);
+    }
+    replicaReads.increment();
+    try (connection;
+        StatelessSession stateless = openReplicaSession(connection)) {
+      return work.apply(stateless);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to release read replica connection", e);
+    }
+  }
+
+  public <T> T findById(Class<T> entityClass, Object id) {
+    Connection connection = replicaConnection();
+    if (connection == null) {
+      primaryReads.increment();
+      return session.find(entityClass, id);
+    }
+    replicaReads.increment();
+    try (connection;
+        StatelessSession stateless = openReplicaSession(connection)) {
+      return stateless.get(entityClass, id);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to release read replica connection", e);
+    }
+  }
+
+  /**
+   * Loads the entities with the given ids in one round trip. On the primary the session first
+   * serves what its persistence context and the second-level cache hold and fetches the rest with
+   * one IN query. The list follows the order of the ids, with null for ids that do not exist.
+   */
+  public <T> List<T> findMultiple(Class<T> entityClass, List<?> ids) {
+    Connection connection = replicaConnection();
+    if (connection == null) {
+      primaryReads.increment();
+      return session.findMultiple(entityClass, ids);
+    }
+    replicaReads.increment();
+    try (connection;
+        StatelessSession stateless = openReplicaSession(connection)) {
+      return stateless.getMultiple(entityClass, ids);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to release read replica connection", e);
+    }
+  }
+
+  private StatelessSession openReplicaSession(Connection connection) {
+    StatelessSession stateless =
+        sessionFactory.withStatelessOptions().connection(connection).openStatelessSession();
+    // The second-level cache is shared with the primary's sessions
+    stateless.setCacheMode(CacheMode.GET);
+    return stateless;
+  }
+
+  // null means the read goes to the primary
+  private Connection replicaConnection() {
+    if (replica == null || transactionActive()) {
+      return null;
+    }
+    Connection connection = null;
+    try {
+      connection = replica.getConnection();
+      connection.setReadOnly(true);
+      return connection;
+    } catch (SQLException e) {
+      closeQuietly(connection);
+      // Pool saturated or replica down: serve from the primary rather than fail the read
+      fallbacks.increment();
+      LOGGER.debugf("Read replica unavailable, falling back to primary: %s", e.getMessage());
+      return null;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException ignored) {
+      // the connection is being discarded anyway
+    }
+  }
+
+  private boolean transactionActive() {
+    try {
+      return transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION;
+    } catch (SystemException e) {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of {@link RequestStatistics} for one endpoint.
+ *
+ * <p>It also keeps a least-squares fit of statements against entities loaded per request. An
+ * endpoint whose statement count rises with the number of entities it loads issues a query per
+ * entity (N+1), so its cost grows with table size even when every single query is cheap.
+ */
+public class EndpointStatistics {
+
+  // Samples needed before the fit is trusted
+  static final int MIN_SAMPLES = 5;
+
+  private long requests;
+  private long statements;
+  private int maxStatements;
+  private long entitiesLoaded;
+  private int maxEntitiesLoaded;
+  private long flushNanos;
+  private long cacheHits;
+  private long cacheMisses;
+  private long durationNanos;
+  private long maxDurationNanos;
+
+  // Sums for the fit of statements (y) against entities loaded (x)
+  private double sumX;
+  private double sumY;
+  private double sumXY;
+  private double sumXX;
+
+  public synchronized void record(RequestStatistics request, long requestNanos) {
+    requests++;
+    statements += request.statements;
+    maxStatements = Math.max(maxStatements, request.statements);
+    entitiesLoaded += request.entitiesLoaded;
+    maxEntitiesLoaded = Math.max(maxEntitiesLoaded, request.entitiesLoaded);
+    flushNanos += request.flushNanos;
+    cacheHits += request.cacheHits;
+    cacheMisses += request.cacheMisses;
+    durationNanos += requestNanos;
+    maxDurationNanos = Math.max(maxDurationNanos, requestNanos);
+
+    double x = request.entitiesLoaded;
+    double y = request.statements;
+    sumX += x;
+    sumY += y;
+    sumXY += x * y;
+    sumXX += x * x;
+  }
+
+  // Extra statements per loaded entity, or null while there is too little variation to tell
+  synchronized Double statementsPerEntity() {
+    double denominator = requests * sumXX - sumX * sumX;
+    if (requests < MIN_SAMPLES || denominator <= 0) {
+      return null;
+    }
+    return (requests * sumXY - sumX * sumY) / denominator;
+  }
+
+  public synchronized Summary summary(double nPlusOneSlope, int unboundedEntities) {
+    Summary summary = new Summary();
+    summary.requests = requests;
+    summary.statementsPerRequest = average(statements);
+    summary.maxStatements = maxStatements;
+    summary.entitiesPerRequest = average(entitiesLoaded);
+    summary.maxEntitiesLoaded = maxEntitiesLoaded;
+    summary.flushMillisPerRequest = average(flushNanos) / 1_000_000;
+    summary.cacheHits = cacheHits;
+    summary.cacheMisses = cacheMisses;
+    summary.averageMillis = average(durationNanos) / 1_000_000;
+    summary.maxMillis = maxDurationNanos / 1_000_000.0;
+    summary.statementsPerEntity = statementsPerEntity();
+
+    if (summary.statementsPerEntity != null && summary.statementsPerEntity >= nPlusOneSlope) {
+      summary.flags.add("N_PLUS_ONE");
+    }
+    if (maxEntitiesLoaded >= unboundedEntities) {
+      summary.flags.add("UNBOUNDED_RESULT");
+    }
+    return summary;
+  }
+
+  private double average(long total) {
+    return requests == 0 ? 0 : (double) total / requests;
+  }
+
+  public static class Summary {
+    public long requests;
+    public double statementsPerRequest;
+    public int maxStatements;
+    public double entitiesPerRequest;
+    public int maxEntitiesLoaded;
+    public double flushMillisPerRequest;
+    public long cacheHits;
+    public long cacheMisses;
+    public double averageMillis;
+    public double maxMillis;
+    public Double statementsPerEntity;
+    public List<String> flags = new ArrayList<>();
+  }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import jakarta.persistence.PostLoad;
+
+// Entity listener counting loaded entities for the current request's statistics
+public class EntityLoadCounter {
+
+  @PostLoad
+  void onLoad(Object entity) {
+    RequestStatistics statistics = RequestStatistics.current();
+    if (statistics != null) {
+      statistics.entitiesLoaded++;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+// Hibernate activity of one request, filled in on the request's thread by the session listener
+public class RequestStatistics {
+
+  private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+  public final long startNanos = System.nanoTime();
+  public int statements;
+  public int entitiesLoaded;
+  public int flushes;
+  public long flushNanos;
+  public int cacheHits;
+  public int cacheMisses;
+
+  // Returns null outside a request, e.g. for scheduled jobs
+  public static RequestStatistics current() {
+    return CURRENT.get();
+  }
+
+  static RequestStatistics begin() {
+    RequestStatistics statistics = new RequestStatistics();
+    CURRENT.set(statistics);
+    return statistics;
+  }
+
+  static RequestStatistics end() {
+    RequestStatistics statistics = CURRENT.get();
+    CURRENT.remove();
+    return statistics;
+  }
+}
@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+// Aggregates request statistics per endpoint and keeps a sample of the most recent slow requests
+@ApplicationScoped
+public class RequestStatisticsCollector {
+
+  @ConfigProperty(name = "app.request-stats.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "app.request-stats.slow-threshold", defaultValue = "500ms")
+  Duration slowThreshold;
+
+  @ConfigProperty(name = "app.request-stats.slow-samples", defaultValue = "50")
+  int slowSamples;
+
+  @ConfigProperty(name = "app.request-stats.n-plus-one-slope", defaultValue = "0.5")
+  double nPlusOneSlope;
+
+  @ConfigProperty(name = "app.request-stats.unbounded-entities", defaultValue = "500")
+  int unboundedEntities;
+
+  private final ConcurrentHashMap<String, EndpointStatistics> endpoints = new ConcurrentHashMap<>();
+  private final Deque<SlowRequest> slowRequests = new ArrayDeque<>();
+
+  public void record(String endpoint, RequestStatistics request) {
+    long requestNanos = System.nanoTime() - request.startNanos;
+    endpoints
+        .computeIfAbsent(endpoint, e -> new EndpointStatistics())
+        .record(request, requestNanos);
+
+    if (requestNanos >= slowThreshold.toNanos()) {
+      SlowRequest slow = new SlowRequest();
+      slow.endpoint = endpoint;
+      slow.at = LocalDateTime.now();
+      slow.millis = requestNanos / 1_000_000.0;
+      slow.statements = request.statements;
+      slow.entitiesLoaded = request.entitiesLoaded;
+      slow.flushMillis = request.flushNanos / 1_000_000.0;
+      slow.cacheHits = request.cacheHits;
+      slow.cacheMisses = request.cacheMisses;
+      synchronized (slowRequests) {
+        slowRequests.addFirst(slow);
+        while (slowRequests.size() > slowSamples) {
+          slowRequests.removeLast();
+        }
+      }
+    }
+  }
+
+  public Map<String, EndpointStatistics.Summary> summaries() {
+    Map<String, EndpointStatistics.Summary> summaries = new TreeMap<>();
+    endpoints.forEach(
+        (endpoint, statistics) ->
+            summaries.put(endpoint, statistics.summary(nPlusOneSlope, unboundedEntities)));
+    return summaries;
+  }
+
+  public List<SlowRequest> slowRequests() {
+    synchronized (slowRequests) {
+      return new ArrayList<>(slowRequests);
+    }
+  }
+
+  public static class SlowRequest {
+    public String endpoint;
+    public LocalDateTime at;
+    public double millis;
+    public int statements;
+    public int entitiesLoaded;
+    public double flushMillis;
+    public int cacheHits;
+    public int cacheMisses;
+  }
+}
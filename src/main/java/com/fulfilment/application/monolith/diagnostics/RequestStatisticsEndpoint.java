@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.vertx.http.ManagementInterface;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves the request statistics as JSON at {@code /request-stats} on the management interface,
+ * which listens on its own port (9000 by default) and is not exposed with the public API. The
+ * route only exists while {@code app.request-stats.enabled} is set, which is the default in dev
+ * and test only. The statistics are read-only; they start over on restart.
+ */
+@ApplicationScoped
+public class RequestStatisticsEndpoint {
+
+  @Inject RequestStatisticsCollector collector;
+
+  @Inject ObjectMapper objectMapper;
+
+  void registerRoute(@Observes ManagementInterface management) {
+    if (!collector.enabled) {
+      return;
+    }
+    management
+        .router()
+        .get("/request-stats")
+        .produces("application/json")
+        .blockingHandler(
+            context -> {
+              try {
+                context
+                    .response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(objectMapper.writeValueAsString(statistics()));
+              } catch (JsonProcessingException e) {
+                context.fail(e);
+              }
+            });
+  }
+
+  Map<String, Object> statistics() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("endpoints", collector.summaries());
+    result.put("slowRequests", collector.slowRequests());
+    return result;
+  }
+}
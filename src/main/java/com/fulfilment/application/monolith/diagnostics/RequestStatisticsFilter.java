@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+// Opens the per-request statistics before the resource method and records them afterwards
+@Provider
+public class RequestStatisticsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  @Inject RequestStatisticsCollector collector;
+
+  @Context ResourceInfo resourceInfo;
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    if (collector.enabled) {
+      RequestStatistics.begin();
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    RequestStatistics statistics = RequestStatistics.end();
+    if (statistics == null || resourceInfo.getResourceMethod() == null) {
+      return;
+    }
+    String endpoint =
+        request.getMethod()
+            + " "
+            + resourceInfo.getResourceClass().getSimpleName()
+            + "."
+            + resourceInfo.getResourceMethod().getName();
+    collector.record(endpoint, statistics);
+  }
+}
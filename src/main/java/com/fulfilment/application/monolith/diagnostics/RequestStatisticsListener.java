@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Registered for every session through {@code hibernate.session.events.auto}; Hibernate creates
+ * one instance per session, so the only shared state is the request's {@link RequestStatistics}.
+ */
+public class RequestStatisticsListener implements SessionEventListener {
+
+  private long flushStart;
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    RequestStatistics statistics = RequestStatistics.current();
+    if (statistics != null) {
+      statistics.statements++;
+    }
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    RequestStatistics statistics = RequestStatistics.current();
+    if (statistics != null) {
+      statistics.statements++;
+    }
+  }
+
+  @Override
+  public void cacheGetEnd(boolean hit) {
+    RequestStatistics statistics = RequestStatistics.current();
+    if (statistics == null) {
+      return;
+    }
+    if (hit) {
+      statistics.cacheHits++;
+    } else {
+      statistics.cacheMisses++;
+    }
+  }
+
+  @Override
+  public void flushStart() {
+    flushStart = System.nanoTime();
+  }
+
+  @Override
+  public void flushEnd(int numberOfEntities, int numberOfCollections) {
+    RequestStatistics statistics = RequestStatistics.current();
+    if (statistics != null) {
+      statistics.flushes++;
+      statistics.flushNanos += System.nanoTime() - flushStart;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.encoding;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes entities as CBOR or Smile for endpoints that list those media types in their
+ * {@code @Produces}. JSON stays with the Jackson writer of quarkus-rest-jackson.
+ */
+@Provider
+@Produces({BinaryFormats.CBOR, BinaryFormats.SMILE})
+public class BinaryFormatWriter implements MessageBodyWriter<Object> {
+
+  @Inject BinaryFormats formats;
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    // Bytes that are already encoded, such as the response cache's buffers, go out as they are
+    return mediaTypeOf(mediaType) != null
+        && type != byte[].class
+        && !CharSequence.class.isAssignableFrom(type)
+        && !ByteBuffer.class.isAssignableFrom(type)
+        && !type.getName().startsWith("io.vertx.");
+  }
+
+  @Override
+  public void writeTo(
+      Object entity,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> headers,
+      OutputStream out)
+      throws IOException {
+    var mapper = formats.mapperFor(mediaTypeOf(mediaType));
+    mapper.writerFor(mapper.constructType(genericType)).writeValue(out, entity);
+  }
+
+  private static String mediaTypeOf(MediaType mediaType) {
+    if (mediaType == null) {
+      return null;
+    }
+    String name = mediaType.getType() + "/" + mediaType.getSubtype();
+    return name.equals(BinaryFormats.CBOR) || name.equals(BinaryFormats.SMILE) ? name : null;
+  }
+}
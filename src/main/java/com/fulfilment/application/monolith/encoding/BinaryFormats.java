@@ -0,0 +1,94 @@
+package com.fulfilment.application.monolith.encoding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The response formats of the store, product and warehouse reads: JSON, and the CBOR (RFC 8949)
+ * and Smile binary encodings of the same document for internal consumers that pull large lists.
+ * The binary mappers are copies of the application's JSON mapper, so modules, property naming and
+ * date handling are the same in every format.
+ */
+@ApplicationScoped
+public class BinaryFormats {
+
+  public static final String CBOR = "application/cbor";
+  public static final String SMILE = "application/x-jackson-smile";
+
+  public static final List<String> MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, CBOR, SMILE);
+
+  @Inject ObjectMapper objectMapper;
+
+  private Map<String, ObjectMapper> mappers;
+
+  @PostConstruct
+  void init() {
+    mappers =
+        Map.of(
+            MediaType.APPLICATION_JSON, objectMapper,
+            CBOR, binaryCopy(objectMapper, new CBORFactory()),
+            SMILE, binaryCopy(objectMapper, new SmileFactory()));
+  }
+
+  /** The mapper for one of {@link #MEDIA_TYPES}, or null for anything else. */
+  public ObjectMapper mapperFor(String mediaType) {
+    return mappers.get(mediaType);
+  }
+
+  /**
+   * The format the Accept header ranks highest: JSON when there is no header, null when the
+   * header allows none of the formats. Wildcards stand for JSON, so a client only gets a binary
+   * format by naming it; between formats of equal quality the first named wins.
+   */
+  public static String negotiate(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return MediaType.APPLICATION_JSON;
+    }
+    String best = null;
+    double bestQuality = 0;
+    boolean bestNamed = false;
+    for (String range : accept.split(",")) {
+      String[] parts = range.split(";");
+      String name = parts[0].trim().toLowerCase();
+      boolean named = MEDIA_TYPES.contains(name);
+      if (!named && !name.equals("*/*") && !name.equals("application/*")) {
+        continue;
+      }
+      double quality = qualityOf(parts);
+      if (quality > bestQuality || quality == bestQuality && quality > 0 && named && !bestNamed) {
+        best = named ? name : MediaType.APPLICATION_JSON;
+        bestQuality = quality;
+        bestNamed = named;
+      }
+    }
+    return best;
+  }
+
+  private static double qualityOf(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  // The runtime owns the response stream, so writing a value must not close it
+  private static ObjectMapper binaryCopy(ObjectMapper json, JsonFactory factory) {
+    return json.copyWith(factory).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+}
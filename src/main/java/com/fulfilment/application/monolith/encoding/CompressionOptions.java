@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.encoding;
+
+import io.quarkus.vertx.http.HttpServerOptionsCustomizer;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Leaves responses below {@code app.compression.min-bytes} uncompressed: under a few hundred
+ * bytes the gzip header and the CPU cost outweigh what is saved on the wire. Which media types are
+ * compressed is configured with {@code quarkus.http.compress-media-types}.
+ */
+@ApplicationScoped
+public class CompressionOptions implements HttpServerOptionsCustomizer {
+
+  @ConfigProperty(name = "app.compression.min-bytes", defaultValue = "1024")
+  int minBytes;
+
+  @Override
+  public void customizeHttpServer(HttpServerOptions options) {
+    options.setCompressionContentSizeThreshold(minBytes);
+  }
+
+  @Override
+  public void customizeHttpsServer(HttpServerOptions options) {
+    options.setCompressionContentSizeThreshold(minBytes);
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.errors;
+
+// The request breaks a business rule (400)
+public class BusinessRuleException extends DomainException {
+
+  public BusinessRuleException(String message) {
+    super(ProblemType.BUSINESS_RULE_VIOLATED, message);
+  }
+}
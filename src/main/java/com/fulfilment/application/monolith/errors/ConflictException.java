@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.errors;
+
+// The request conflicts with the current state or a concurrent change (409)
+public class ConflictException extends DomainException {
+
+  public ConflictException(String message) {
+    super(ProblemType.CONFLICT, message);
+  }
+}
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.errors;
+
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * A rejected request that the client can act on. These are thrown for every 404 or 409 a
+ * scanner or a retrying client provokes, so they skip filling in the stack trace: the message
+ * and the problem type say everything the response and the log need.
+ */
+public abstract class DomainException extends WebApplicationException {
+
+  private final transient ProblemType problemType;
+
+  protected DomainException(ProblemType problemType, String message) {
+    super(message, null, problemType.status);
+    this.problemType = problemType;
+  }
+
+  public ProblemType problemType() {
+    return problemType;
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.errors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which errors are worth a log line. Client errors are expected under scanning and retry
+ * storms, so only one in {@code clientSampleRate} is logged. Server faults are always worth
+ * seeing but are capped per second, and the next logged fault reports how many were dropped.
+ */
+final class ErrorLog {
+
+  private static final long SECOND_NANOS = 1_000_000_000L;
+
+  private final int clientSampleRate;
+
+  private final int serverFaultsPerSecond;
+
+  private final LongSupplier nanoClock;
+
+  private final AtomicLong clientErrors = new AtomicLong();
+
+  private long windowStart;
+
+  private int loggedInWindow;
+
+  private long suppressed;
+
+  ErrorLog(int clientSampleRate, int serverFaultsPerSecond, LongSupplier nanoClock) {
+    this.clientSampleRate = clientSampleRate;
+    this.serverFaultsPerSecond = serverFaultsPerSecond;
+    this.nanoClock = nanoClock;
+    this.windowStart = nanoClock.getAsLong();
+  }
+
+  boolean sampleClientError() {
+    return clientSampleRate > 0 && clientErrors.getAndIncrement() % clientSampleRate == 0;
+  }
+
+  // Returns the number of faults suppressed since the last logged one, or -1 to suppress this one
+  synchronized long admitServerFault() {
+    long now = nanoClock.getAsLong();
+    if (now - windowStart >= SECOND_NANOS) {
+      windowStart = now;
+      loggedInWindow = 0;
+    }
+    if (loggedInWindow >= serverFaultsPerSecond) {
+      suppressed++;
+      return -1;
+    }
+    loggedInWindow++;
+    long dropped = suppressed;
+    suppressed = 0;
+    return dropped;
+  }
+}
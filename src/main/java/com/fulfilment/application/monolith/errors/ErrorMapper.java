@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.errors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Turns every exception into an RFC 7807 problem response rendered from the problem type's
+ * template. Errors are counted per status and problem type in {@code http.errors}; only a
+ * sample of client errors is logged, without a stack trace, while server faults are logged with
+ * their stack up to a per-second limit.
+ */
+@Provider
+public class ErrorMapper implements ExceptionMapper<Exception> {
+
+  private static final Logger LOGGER = Logger.getLogger(ErrorMapper.class.getName());
+
+  @ConfigProperty(name = "app.errors.client-log-sample-rate", defaultValue = "100")
+  int clientLogSampleRate;
+
+  @ConfigProperty(name = "app.errors.server-faults-logged-per-second", defaultValue = "10")
+  int serverFaultsLoggedPerSecond;
+
+  @Inject MeterRegistry meterRegistry;
+
+  private final Map<ProblemType, Counter> errors = new ConcurrentHashMap<>();
+
+  private ErrorLog errorLog;
+
+  @PostConstruct
+  void init() {
+    errorLog = new ErrorLog(clientLogSampleRate, serverFaultsLoggedPerSecond, System::nanoTime);
+  }
+
+  @Override
+  public Response toResponse(Exception exception) {
+    ProblemType problemType = problemTypeOf(exception);
+    errors
+        .computeIfAbsent(
+            problemType,
+            t ->
+                meterRegistry.counter(
+                    "http.errors",
+                    "status", String.valueOf(t.status),
+                    "type", t.name(),
+                    "kind", t.isServerFault() ? "server" : "client"))
+        .increment();
+
+    if (problemType.isServerFault()) {
+      long suppressed = errorLog.admitServerFault();
+      if (suppressed > 0) {
+        LOGGER.errorf(exception, "Failed to handle request (%d similar suppressed)", suppressed);
+      } else if (suppressed == 0) {
+        LOGGER.error("Failed to handle request", exception);
+      }
+      // Internal failure messages are not the client's business
+      return problemType.toResponse(null);
+    }
+
+    if (errorLog.sampleClientError()) {
+      LOGGER.infof(
+          "Rejected request with %d %s: %s",
+          problemType.status, problemType.name(), exception.getMessage());
+    }
+    return problemType.toResponse(exception.getMessage());
+  }
+
+  private static ProblemType problemTypeOf(Exception exception) {
+    if (exception instanceof DomainException domain) {
+      return domain.problemType();
+    }
+    if (exception instanceof WebApplicationException web) {
+      return ProblemType.forStatus(web.getResponse().getStatus());
+    }
+    return ProblemType.forStatus(500);
+  }
+}
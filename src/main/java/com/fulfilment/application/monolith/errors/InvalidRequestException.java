@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.errors;
+
+// The request body is well-formed but unusable (422)
+public class InvalidRequestException extends DomainException {
+
+  public InvalidRequestException(String message) {
+    super(ProblemType.INVALID_REQUEST, message);
+  }
+}
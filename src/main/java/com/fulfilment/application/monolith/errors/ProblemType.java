@@ -0,0 +1,110 @@
+package com.fulfilment.application.monolith.errors;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An RFC 7807 problem type. The members that are the same for every occurrence are serialised
+ * once into a template, so rendering a problem only escapes and appends the detail.
+ *
+ * <p>{@code code} and {@code error} repeat {@code status} and {@code detail} under the names of
+ * the error body this API returned before it used problem details.
+ */
+public final class ProblemType {
+
+  public static final String MEDIA_TYPE = "application/problem+json";
+
+  public static final ProblemType NOT_FOUND =
+      new ProblemType("/problems/not-found", "Resource not found", 404);
+
+  public static final ProblemType BUSINESS_RULE_VIOLATED =
+      new ProblemType("/problems/business-rule-violated", "Business rule violated", 400);
+
+  public static final ProblemType CONFLICT =
+      new ProblemType("/problems/conflict", "Conflicting change", 409);
+
+  public static final ProblemType INVALID_REQUEST =
+      new ProblemType("/problems/invalid-request", "Invalid request", 422);
+
+  private static final Map<Integer, ProblemType> BY_STATUS = new ConcurrentHashMap<>();
+
+  private static final byte[] DETAIL = bytes(",\"detail\":\"");
+  private static final byte[] ERROR = bytes("\",\"error\":\"");
+  private static final byte[] END_WITH_DETAIL = bytes("\"}");
+  private static final byte[] END = bytes("}");
+
+  public final String type;
+
+  public final String title;
+
+  public final int status;
+
+  private final byte[] template;
+
+  private ProblemType(String type, String title, int status) {
+    this.type = type;
+    this.title = title;
+    this.status = status;
+    this.template =
+        bytes(
+            "{\"type\":\"" + escape(type) + "\",\"title\":\"" + escape(title)
+                + "\",\"status\":" + status + ",\"code\":" + status);
+  }
+
+  // Statuses without a problem type of their own are reported as about:blank with the reason
+  public static ProblemType forStatus(int status) {
+    return BY_STATUS.computeIfAbsent(
+        status,
+        s -> {
+          Response.Status known = Response.Status.fromStatusCode(s);
+          String title = known == null ? "HTTP " + s : known.getReasonPhrase();
+          return new ProblemType("about:blank", title, s);
+        });
+  }
+
+  public boolean isServerFault() {
+    return status >= 500;
+  }
+
+  // Short name for metric tags and logs: the last path segment of the type, or the status
+  public String name() {
+    int slash = type.lastIndexOf('/');
+    return slash < 0 ? String.valueOf(status) : type.substring(slash + 1);
+  }
+
+  public byte[] render(String detail) {
+    if (detail == null) {
+      byte[] body = new byte[template.length + END.length];
+      System.arraycopy(template, 0, body, 0, template.length);
+      System.arraycopy(END, 0, body, template.length, END.length);
+      return body;
+    }
+    byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(detail);
+    var body =
+        new ByteArrayOutputStream(
+            template.length + 2 * escaped.length + DETAIL.length + ERROR.length + 2);
+    body.writeBytes(template);
+    body.writeBytes(DETAIL);
+    body.writeBytes(escaped);
+    body.writeBytes(ERROR);
+    body.writeBytes(escaped);
+    body.writeBytes(END_WITH_DETAIL);
+    return body.toByteArray();
+  }
+
+  public Response toResponse(String detail) {
+    return Response.status(status).type(MEDIA_TYPE).entity(render(detail)).build();
+  }
+
+  private static String escape(String text) {
+    return new String(JsonStringEncoder.getInstance().quoteAsString(text));
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
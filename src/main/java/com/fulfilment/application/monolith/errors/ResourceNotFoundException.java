@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.errors;
+
+// The requested resource does not exist (404)
+public class ResourceNotFoundException extends DomainException {
+
+  public ResourceNotFoundException(String message) {
+    super(ProblemType.NOT_FOUND, message);
+  }
+}
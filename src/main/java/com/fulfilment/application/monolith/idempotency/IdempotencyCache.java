@@ -0,0 +1,267 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Completed responses per idempotency key, kept in a bounded LRU map in front of the {@code
+ * idempotency_record} table, which lets replays survive restarts and reach other nodes. Both
+ * layers drop entries once their TTL has passed.
+ *
+ * <p>A request claims its key by inserting an in-progress row before it runs, so a duplicate
+ * arriving meanwhile on any node finds the claim and waits for the response instead of executing
+ * the request a second time. Duplicates on the same node wait on the owner directly; those on
+ * other nodes poll the row. A claim is a lease of {@code app.idempotency.wait-timeout}: once it
+ * has run out, an owner that never finished (e.g. its node died) no longer blocks retries.
+ */
+@ApplicationScoped
+public class IdempotencyCache {
+
+  private static final Logger LOGGER = Logger.getLogger(IdempotencyCache.class.getName());
+
+  private static final long POLL_MILLIS = 50;
+
+  // Takes the key unless a live row holds it; an expired response or lapsed claim is taken over
+  private static final String CLAIM =
+      "INSERT INTO idempotency_record (idempotencyKey, fingerprint, status, inProgress, expiresAt)"
+          + " VALUES (:key, :fingerprint, 0, TRUE, :leaseEnd)"
+          + " ON CONFLICT (idempotencyKey) DO UPDATE SET fingerprint = EXCLUDED.fingerprint,"
+          + " status = 0, mediaType = NULL, location = NULL, body = NULL, inProgress = TRUE,"
+          + " expiresAt = EXCLUDED.expiresAt"
+          + " WHERE idempotency_record.expiresAt < :now";
+
+  private static final String RELEASE_CLAIM =
+      "DELETE FROM idempotency_record WHERE idempotencyKey = :key AND inProgress";
+
+  @ConfigProperty(name = "app.idempotency.ttl", defaultValue = "24h")
+  Duration ttl;
+
+  @ConfigProperty(name = "app.idempotency.max-entries", defaultValue = "10000")
+  int maxEntries;
+
+  @ConfigProperty(name = "app.idempotency.wait-timeout", defaultValue = "30s")
+  Duration waitTimeout;
+
+  private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  // Access-ordered, so the eldest entry is the least recently replayed one
+  private final Map<String, IdempotencyRecord> completed =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+          return size() > maxEntries;
+        }
+      };
+
+  /**
+   * Returns the stored response for the key, or null when the caller now owns the key and must
+   * execute the request and then call {@link #complete} or {@link #abandon}.
+   */
+  public IdempotencyRecord begin(String key, String fingerprint) {
+    long deadline = System.nanoTime() + waitTimeout.toNanos();
+    while (true) {
+      IdempotencyRecord record = lookup(key);
+      if (record != null) {
+        return checkFingerprint(record.fingerprint, fingerprint, record);
+      }
+
+      InFlight mine = new InFlight(fingerprint);
+      InFlight running = inFlight.putIfAbsent(key, mine);
+      if (running != null) {
+        checkFingerprint(running.fingerprint, fingerprint, null);
+        record = await(key, running);
+        if (record != null) {
+          return record;
+        }
+        // The owner abandoned the key (server error) or lost it to another node; look again
+        continue;
+      }
+
+      if (claim(key, fingerprint)) {
+        return null;
+      }
+
+      // Another node holds the key; duplicates queued here look again for themselves
+      inFlight.remove(key, mine);
+      mine.result.complete(null);
+      record = awaitStored(key, fingerprint, deadline);
+      if (record != null) {
+        return record;
+      }
+      // The claim was abandoned or its lease ran out, so try to take it over
+    }
+  }
+
+  public void complete(String key, IdempotencyRecord record) {
+    record.idempotencyKey = key;
+    record.inProgress = false;
+    record.expiresAt = LocalDateTime.now().plus(ttl);
+    synchronized (completed) {
+      completed.put(key, record);
+    }
+    try {
+      // Fills in the claimed row
+      QuarkusTransaction.requiringNew()
+          .run(() -> IdempotencyRecord.getEntityManager().merge(record));
+    } catch (RuntimeException e) {
+      // Replays on this node still work from memory; other nodes can take the key once the
+      // claim's lease runs out
+      LOGGER.warnf(e, "Could not store idempotency record %s", key);
+    }
+    release(key, record);
+  }
+
+  public void abandon(String key) {
+    try {
+      QuarkusTransaction.requiringNew()
+          .run(
+              () ->
+                  IdempotencyRecord.getEntityManager()
+                      .createNativeQuery(RELEASE_CLAIM)
+                      .setParameter("key", key)
+                      .executeUpdate());
+    } catch (RuntimeException e) {
+      // The claim's lease runs out instead
+      LOGGER.warnf(e, "Could not release idempotency claim %s", key);
+    }
+    release(key, null);
+  }
+
+  @Scheduled(every = "${app.idempotency.purge-interval:10m}")
+  void purgeExpired() {
+    LocalDateTime now = LocalDateTime.now();
+    synchronized (completed) {
+      completed.values().removeIf(record -> record.isExpired(now));
+    }
+    long deleted =
+        QuarkusTransaction.requiringNew()
+            .call(() -> IdempotencyRecord.delete("expiresAt < ?1", now));
+    LOGGER.debugf("Purged %d expired idempotency records", deleted);
+  }
+
+  private IdempotencyRecord lookup(String key) {
+    LocalDateTime now = LocalDateTime.now();
+    synchronized (completed) {
+      IdempotencyRecord record = completed.get(key);
+      if (record != null && !record.isExpired(now)) {
+        return record;
+      }
+    }
+    IdempotencyRecord stored = stored(key);
+    if (stored == null || stored.inProgress || stored.isExpired(now)) {
+      return null;
+    }
+    synchronized (completed) {
+      completed.put(key, stored);
+    }
+    return stored;
+  }
+
+  private static IdempotencyRecord stored(String key) {
+    return QuarkusTransaction.requiringNew()
+        .call(() -> IdempotencyRecord.<IdempotencyRecord>findById(key));
+  }
+
+  private boolean claim(String key, String fingerprint) {
+    LocalDateTime now = LocalDateTime.now();
+    int claimed =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () ->
+                    IdempotencyRecord.getEntityManager()
+                        .createNativeQuery(CLAIM)
+                        .setParameter("key", key)
+                        .setParameter("fingerprint", fingerprint)
+                        .setParameter("leaseEnd", now.plus(waitTimeout))
+                        .setParameter("now", now)
+                        .executeUpdate());
+    return claimed == 1;
+  }
+
+  // Polls the row another node claimed until it holds a response; null when the claim is gone
+  private IdempotencyRecord awaitStored(String key, String fingerprint, long deadline) {
+    while (true) {
+      IdempotencyRecord stored = stored(key);
+      if (stored == null || stored.isExpired(LocalDateTime.now())) {
+        return null;
+      }
+      checkFingerprint(stored.fingerprint, fingerprint, null);
+      if (!stored.inProgress) {
+        synchronized (completed) {
+          completed.put(key, stored);
+        }
+        return stored;
+      }
+      if (System.nanoTime() - deadline >= 0) {
+        throw new ConflictException("A request with this Idempotency-Key is still in progress.");
+      }
+      try {
+        Thread.sleep(POLL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new WebApplicationException(
+            "Interrupted while waiting for the original request.", 503);
+      }
+    }
+  }
+
+  private IdempotencyRecord await(String key, InFlight running) {
+    try {
+      return running.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      if (running.startedAt.plus(waitTimeout).isBefore(LocalDateTime.now())) {
+        // The owner never finished (e.g. its connection was dropped); let the next retry run
+        if (inFlight.remove(key, running)) {
+          running.result.complete(null);
+        }
+      }
+      throw new ConflictException("A request with this Idempotency-Key is still in progress.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WebApplicationException("Interrupted while waiting for the original request.", 503);
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+
+  private void release(String key, IdempotencyRecord record) {
+    InFlight running = inFlight.remove(key);
+    if (running != null) {
+      running.result.complete(record);
+    }
+  }
+
+  private static IdempotencyRecord checkFingerprint(
+      String expected, String actual, IdempotencyRecord record) {
+    if (!expected.equals(actual)) {
+      throw new InvalidRequestException(
+          "Idempotency-Key was already used for a different request.");
+    }
+    return record;
+  }
+
+  private static class InFlight {
+    final String fingerprint;
+    final LocalDateTime startedAt = LocalDateTime.now();
+    final CompletableFuture<IdempotencyRecord> result = new CompletableFuture<>();
+
+    InFlight(String fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+  }
+}
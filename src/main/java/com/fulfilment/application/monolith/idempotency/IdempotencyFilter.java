@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Makes {@code POST /warehouse}, {@code POST /store} and {@code POST /product} idempotent for
+ * requests carrying an {@code Idempotency-Key} header. A retry with the same key and body gets the
+ * original response back without the resource (and its use cases or legacy calls) running again;
+ * the same key with a different body is rejected with 422.
+ *
+ * <p>Server errors are not stored, so a request that failed with 5xx can be retried for real.
+ */
+@Provider
+public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final Set<String> IDEMPOTENT_PATHS = Set.of("warehouse", "store", "product");
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final String KEY_PROPERTY = IdempotencyFilter.class.getName() + ".key";
+  private static final String FINGERPRINT_PROPERTY =
+      IdempotencyFilter.class.getName() + ".fingerprint";
+
+  @Inject IdempotencyCache cache;
+  @Inject ObjectMapper objectMapper;
+
+  @Override
+  public void filter(ContainerRequestContext request) throws IOException {
+    String clientKey = request.getHeaderString(HEADER);
+    String path = stripSlashes(request.getUriInfo().getPath());
+    if (clientKey == null
+        || !"POST".equals(request.getMethod())
+        || !IDEMPOTENT_PATHS.contains(path)) {
+      return;
+    }
+    if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+      throw new WebApplicationException(
+          HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.", 400);
+    }
+
+    byte[] body = request.getEntityStream().readAllBytes();
+    request.setEntityStream(new ByteArrayInputStream(body));
+
+    String key = path + "|" + clientKey;
+    String fingerprint = sha256(body);
+    IdempotencyRecord stored = cache.begin(key, fingerprint);
+    if (stored != null) {
+      request.abortWith(replay(stored));
+      return;
+    }
+    request.setProperty(KEY_PROPERTY, key);
+    request.setProperty(FINGERPRINT_PROPERTY, fingerprint);
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response)
+      throws IOException {
+    String key = (String) request.getProperty(KEY_PROPERTY);
+    if (key == null) {
+      return;
+    }
+    if (response.getStatus() >= 500) {
+      cache.abandon(key);
+      return;
+    }
+
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.fingerprint = (String) request.getProperty(FINGERPRINT_PROPERTY);
+    record.status = response.getStatus();
+    record.mediaType =
+        response.getMediaType() == null
+            ? MediaType.APPLICATION_JSON
+            : response.getMediaType().toString();
+    record.location = response.getHeaderString(HttpHeaders.LOCATION);
+    record.body = response.hasEntity() ? serialise(response.getEntity()) : null;
+    cache.complete(key, record);
+  }
+
+  private byte[] serialise(Object entity) throws IOException {
+    if (entity instanceof byte[] bytes) {
+      return bytes;
+    }
+    if (entity instanceof String text) {
+      return text.getBytes(StandardCharsets.UTF_8);
+    }
+    return objectMapper.writeValueAsBytes(entity);
+  }
+
+  private static Response replay(IdempotencyRecord record) {
+    Response.ResponseBuilder builder =
+        Response.status(record.status).header(REPLAYED_HEADER, "true");
+    if (record.body != null) {
+      builder.entity(record.body).type(record.mediaType);
+    }
+    if (record.location != null) {
+      builder.header(HttpHeaders.LOCATION, record.location);
+    }
+    return builder.build();
+  }
+
+  private static String stripSlashes(String path) {
+    int start = path.startsWith("/") ? 1 : 0;
+    int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+    return path.substring(start, end);
+  }
+
+  private static String sha256(byte[] body) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+// The stored outcome of a POST made with an Idempotency-Key, replayed for retries of it
+@Entity
+@Table(name = "idempotency_record")
+public class IdempotencyRecord extends PanacheEntityBase {
+
+  // request path and the client's key, e.g. "store|3f2a..."
+  @Id
+  @Column(length = 320)
+  public String idempotencyKey;
+
+  // SHA-256 of the request body, to reject a key reused for a different request
+  @Column(length = 64)
+  public String fingerprint;
+
+  public int status;
+
+  public String mediaType;
+
+  public String location;
+
+  public byte[] body;
+
+  public LocalDateTime expiresAt;
+
+  // claimed by a request that is still running; it has no response yet and expiresAt ends the
+  // claim
+  public boolean inProgress;
+
+  public IdempotencyRecord() {}
+
+  boolean isExpired(LocalDateTime now) {
+    return expiresAt.isBefore(now);
+  }
+}
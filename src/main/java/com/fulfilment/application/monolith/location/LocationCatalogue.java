@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The fixed catalogue of locations. It holds only immutable data, so native builds initialise it
+ * at build time (see {@code quarkus.native.additional-build-args}) and it ships pre-built in the
+ * image heap instead of being created on every cold start.
+ */
+final class LocationCatalogue {
+
+  static final List<Location> LOCATIONS =
+      List.of(
+          new Location("ZWOLLE-001", 1, 40, 52.5168, 6.0830),
+          new Location("ZWOLLE-002", 2, 50, 52.4960, 6.1270),
+          new Location("AMSTERDAM-001", 5, 100, 52.3676, 4.9041),
+          new Location("AMSTERDAM-002", 3, 75, 52.3030, 4.7570),
+          new Location("TILBURG-001", 1, 40, 51.5555, 5.0913),
+          new Location("HELMOND-001", 1, 45, 51.4793, 5.6570),
+          new Location("EINDHOVEN-001", 2, 70, 51.4416, 5.4697),
+          new Location("VETSBY-001", 1, 90, 56.5520, 14.1370));
+
+  static final Map<String, Location> BY_IDENTIFICATION =
+      LOCATIONS.stream()
+          .collect(Collectors.toUnmodifiableMap(l -> l.identification, Function.identity()));
+
+  private LocationCatalogue() {}
+}
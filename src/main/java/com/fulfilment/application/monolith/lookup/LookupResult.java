@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.lookup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One entry of a multi-get response. Entries come back in the order the ids were requested,
+ * and an id that matched nothing is flagged with {@code found = false} rather than dropped.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LookupResult<T> {
+
+  // Keeps one request to one reasonably sized IN query
+  public static final int MAX_IDS = 100;
+
+  public Object id;
+
+  public boolean found;
+
+  public T value;
+
+  public LookupResult() {}
+
+  public LookupResult(Object id, T value) {
+    this.id = id;
+    this.found = value != null;
+    this.value = value;
+  }
+
+  public static void requireIds(Collection<?> ids) {
+    if (ids == null || ids.isEmpty()) {
+      throw new InvalidRequestException("No ids were set on request.");
+    }
+    if (ids.size() > MAX_IDS) {
+      throw new InvalidRequestException("At most " + MAX_IDS + " ids can be looked up at once.");
+    }
+    if (ids.contains(null)) {
+      throw new InvalidRequestException("Ids must not be null.");
+    }
+  }
+
+  // Lays out the loaded values in request order; repeated ids repeat their entry
+  public static <K, T> List<LookupResult<T>> inRequestOrder(List<K> ids, Map<K, T> loaded) {
+    List<LookupResult<T>> results = new ArrayList<>(ids.size());
+    for (K id : ids) {
+      results.add(new LookupResult<>(id, loaded.get(id)));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,127 @@
+package com.fulfilment.application.monolith.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Turns a JSON Merge Patch (RFC 7396) into one targeted {@code UPDATE ... RETURNING} statement
+ * that sets only the members present in the patch, instead of loading the entity and letting
+ * dirty checking write every column. A member set to null clears the column, which is rejected
+ * for required columns. Column names come from the declared fields only, never from the request.
+ */
+public class MergePatchUpdate {
+
+  public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+  private final String table;
+  private final String keyColumn;
+  private final Map<String, Field> fields = new LinkedHashMap<>();
+
+  public MergePatchUpdate(String table, String keyColumn) {
+    this.table = table;
+    this.keyColumn = keyColumn;
+  }
+
+  public MergePatchUpdate field(String name, String column, Class<?> type, boolean required) {
+    fields.put(name, new Field(column, type, required));
+    return this;
+  }
+
+  /**
+   * Applies the patch to the row with the given key and returns the row's columns after the
+   * update, in declaration order and prefixed by the key, or null when no row has that key.
+   */
+  public Object[] apply(EntityManager entityManager, Object key, JsonNode patch) {
+    Map<String, Object> values = values(patch, key);
+
+    List<String> assignments = new ArrayList<>();
+    values.keySet().forEach(name -> assignments.add(fields.get(name).column + " = :" + name));
+    List<String> returning = new ArrayList<>();
+    returning.add(keyColumn);
+    fields.values().forEach(field -> returning.add(field.column));
+
+    String sql =
+        "UPDATE " + table + " SET " + String.join(", ", assignments)
+            + " WHERE " + keyColumn + " = :key"
+            + " RETURNING " + String.join(", ", returning);
+
+    NativeQuery<?> query =
+        entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).setParameter("key", key);
+    values.forEach((name, value) -> query.setParameter(name, value));
+    query.addScalar(keyColumn, key.getClass());
+    fields.values().forEach(field -> query.addScalar(field.column, field.type));
+
+    List<?> rows = query.getResultList();
+    return rows.isEmpty() ? null : (Object[]) rows.get(0);
+  }
+
+  // Validated values of the members present in the patch, keyed by field name
+  Map<String, Object> values(JsonNode patch, Object key) {
+    if (patch == null || !patch.isObject()) {
+      throw new InvalidRequestException("Patch must be a JSON object.");
+    }
+
+    Map<String, Object> values = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+    while (members.hasNext()) {
+      Map.Entry<String, JsonNode> member = members.next();
+      if (member.getKey().equals(keyColumn)) {
+        // Clients sending the whole representation repeat the key; it can only match the target
+        JsonNode value = member.getValue();
+        if (!value.isNull() && !value.asText().equals(String.valueOf(key))) {
+          throw new InvalidRequestException("Field '" + keyColumn + "' cannot be patched.");
+        }
+        continue;
+      }
+      Field field = fields.get(member.getKey());
+      if (field == null) {
+        throw new InvalidRequestException("Field '" + member.getKey() + "' cannot be patched.");
+      }
+      values.put(member.getKey(), field.convert(member.getKey(), member.getValue()));
+    }
+    if (values.isEmpty()) {
+      throw new InvalidRequestException("Patch does not change any field.");
+    }
+    return values;
+  }
+
+  private static class Field {
+    final String column;
+    final Class<?> type;
+    final boolean required;
+
+    Field(String column, Class<?> type, boolean required) {
+      this.column = column;
+      this.type = type;
+      this.required = required;
+    }
+
+    Object convert(String name, JsonNode value) {
+      if (value.isNull()) {
+        if (required) {
+          throw new InvalidRequestException("Field '" + name + "' cannot be removed.");
+        }
+        return null;
+      }
+      if (type == String.class && value.isTextual()) {
+        return value.textValue();
+      }
+      if (type == Integer.class && value.isIntegralNumber() && value.canConvertToInt()) {
+        return value.intValue();
+      }
+      if (type == BigDecimal.class && value.isNumber()) {
+        return value.decimalValue();
+      }
+      throw new InvalidRequestException(
+          "Field '" + name + "' must be of type " + type.getSimpleName() + ".");
+    }
+  }
+}
@@ -1,14 +1,17 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.diagnostics.EntityLoadCounter;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import java.math.BigDecimal;
 
 @Entity
 @Cacheable
+@EntityListeners(EntityLoadCounter.class)
 public class Product {
 
   @Id @GeneratedValue public Long id;
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.products;
+
+/**
+ * Fired by {@link ProductResource} for every create, update, patch and delete, carrying the
+ * product as written. Observers should use {@code TransactionPhase.AFTER_SUCCESS} so they only
+ * see committed changes.
+ */
+public class ProductChangedEvent {
+
+  public final Long id;
+
+  // null when the product was deleted
+  public final Product product;
+
+  private ProductChangedEvent(Long id, Product product) {
+    this.id = id;
+    this.product = product;
+  }
+
+  public static ProductChangedEvent written(Product product) {
+    return new ProductChangedEvent(product.id, product);
+  }
+
+  public static ProductChangedEvent deleted(Long id) {
+    return new ProductChangedEvent(id, null);
+  }
+}
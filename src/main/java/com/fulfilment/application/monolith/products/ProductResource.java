@@ -1,24 +1,38 @@
 package com.fulfilment.application.monolith.products;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.datasource.ReadReplicaRouter;
+import com.fulfilment.application.monolith.encoding.BinaryFormats;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.lookup.LookupResult;
+import com.fulfilment.application.monolith.patch.MergePatchUpdate;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import com.fulfilment.application.monolith.stock.StockAdjustment;
+import com.fulfilment.application.monolith.stock.StockTable;
+import com.fulfilment.application.monolith.stock.StockWriteBehind;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
-import org.jboss.logging.Logger;
+import java.util.Map;
 
 @Path("product")
 @ApplicationScoped
@@ -27,32 +41,103 @@ import org.jboss.logging.Logger;
 public class ProductResource {
 
   @Inject ProductRepository productRepository;
-
-  private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
+  @Inject StockAdjuster stockAdjuster;
+  @Inject StockWriteBehind stockWriteBehind;
+  @Inject ReadReplicaRouter readReplica;
+  @Inject CacheInvalidationBus cacheInvalidation;
+  @Inject EntityManager entityManager;
+  @Inject ProductSearchIndex searchIndex;
+  @Inject Event<ProductChangedEvent> changes;
+
+  static final int MAX_SEARCH_LIMIT = 100;
+
+  private static final MergePatchUpdate PRODUCT_PATCH =
+      new MergePatchUpdate("product", "id")
+          .field("name", "name", String.class, true)
+          .field("description", "description", String.class, false)
+          .field("price", "price", BigDecimal.class, false)
+          .field("stock", "stock", Integer.class, true);
 
   @GET
+  @Produces({MediaType.APPLICATION_JSON, BinaryFormats.CBOR, BinaryFormats.SMILE})
   public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+    List<Product> products =
+        readReplica.read(
+            session ->
+                session
+                    .createSelectionQuery("from Product order by name", Product.class)
+                    .getResultList());
+    return products.stream().map(this::withPendingStock).toList();
+  }
+
+  // Ranked keyword and type-ahead search over name and description, served from the index
+  @GET
+  @Produces({MediaType.APPLICATION_JSON, BinaryFormats.CBOR, BinaryFormats.SMILE})
+  @Path("search")
+  public ProductSearchPage search(
+      @QueryParam("q") String query,
+      @QueryParam("offset") @DefaultValue("0") int offset,
+      @QueryParam("limit") @DefaultValue("20") int limit) {
+    if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+      throw new InvalidRequestException(
+          "Offset must not be negative and limit must be between 1 and "
+              + MAX_SEARCH_LIMIT
+              + ".");
+    }
+    return searchIndex.search(query, offset, limit);
+  }
+
+  // Multi-get: a JSON array of ids in, one entry per id back in the same order
+  @POST
+  @Path("lookup")
+  public List<LookupResult<Product>> lookup(List<Long> ids) {
+    LookupResult.requireIds(ids);
+    Map<Long, Product> loaded = new HashMap<>();
+    for (Product product :
+        readReplica.findMultiple(Product.class, ids.stream().distinct().toList())) {
+      if (product != null) {
+        loaded.put(product.id, withPendingStock(product));
+      }
+    }
+    return LookupResult.inRequestOrder(ids, loaded);
   }
 
   @GET
+  @Produces({MediaType.APPLICATION_JSON, BinaryFormats.CBOR, BinaryFormats.SMILE})
   @Path("{id}")
   public Product getSingle(Long id) {
-    Product entity = productRepository.findById(id);
+    Product entity = readReplica.findById(Product.class, id);
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Product with id of " + id + " does not exist.");
     }
-    return entity;
+    return withPendingStock(entity);
+  }
+
+  // Write-behind deltas are not in the row yet, so they are added to a detached copy
+  private Product withPendingStock(Product product) {
+    long pending = stockWriteBehind.pending(StockTable.PRODUCT, product.id);
+    if (pending == 0) {
+      return product;
+    }
+    Product view = new Product(product.name);
+    view.id = product.id;
+    view.description = product.description;
+    view.price = product.price;
+    view.stock = (int) (product.stock + pending);
+    return view;
   }
 
   @POST
   @Transactional
   public Response create(Product product) {
     if (product.id != null) {
-      throw new WebApplicationException("Id was invalidly set on request.", 422);
+      throw new InvalidRequestException("Id was invalidly set on request.");
     }
 
     productRepository.persist(product);
+    // Nothing to evict, but the product lists here and on other instances are now out of date
+    cacheInvalidation.entityChanged(Product.class, product.id);
+    changes.fire(ProductChangedEvent.written(product));
     return Response.ok(product).status(201).build();
   }
 
@@ -61,13 +146,13 @@ public class ProductResource {
   @Transactional
   public Product update(Long id, Product product) {
     if (product.name == null) {
-      throw new WebApplicationException("Product Name was not set on request.", 422);
+      throw new InvalidRequestException("Product Name was not set on request.");
     }
 
     Product entity = productRepository.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Product with id of " + id + " does not exist.");
     }
 
     entity.name = product.name;
@@ -76,45 +161,60 @@ public class ProductResource {
     entity.stock = product.stock;
 
     productRepository.persist(entity);
+    cacheInvalidation.entityChanged(Product.class, id);
+    changes.fire(ProductChangedEvent.written(entity));
 
     return entity;
   }
 
+  @PATCH
+  @Path("{id}")
+  @Consumes({MergePatchUpdate.MEDIA_TYPE, MediaType.APPLICATION_JSON})
+  @Transactional
+  public Product patch(Long id, JsonNode patch) {
+    Object[] row = PRODUCT_PATCH.apply(entityManager, id, patch);
+    if (row == null) {
+      throw new ResourceNotFoundException("Product with id of " + id + " does not exist.");
+    }
+
+    // The update bypassed the persistence context and the entity cache
+    entityManager.detach(entityManager.getReference(Product.class, id));
+    entityManager.getEntityManagerFactory().getCache().evict(Product.class, id);
+    cacheInvalidation.entityChanged(Product.class, id);
+
+    Product patched = new Product((String) row[1]);
+    patched.id = (Long) row[0];
+    patched.description = (String) row[2];
+    patched.price = (BigDecimal) row[3];
+    patched.stock = (Integer) row[4];
+    changes.fire(ProductChangedEvent.written(patched));
+    return withPendingStock(patched);
+  }
+
+  @POST
+  @Path("stock-adjustments")
+  @Transactional
+  public Response adjustStock(List<StockAdjustment> adjustments) {
+    if (stockWriteBehind.isEnabled()) {
+      stockWriteBehind.enqueue(StockTable.PRODUCT, adjustments);
+      return Response.status(202).build();
+    }
+
+    stockAdjuster.apply(StockTable.PRODUCT, adjustments);
+    return Response.status(204).build();
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
   public Response delete(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Product with id of " + id + " does not exist.");
     }
     productRepository.delete(entity);
+    cacheInvalidation.entityChanged(Product.class, id);
+    changes.fire(ProductChangedEvent.deleted(id));
     return Response.status(204).build();
   }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
-  }
 }
@@ -0,0 +1,229 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.datasource.ReadReplicaRouter;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product names and descriptions for the storefront search.
+ *
+ * <p>Text is folded to lower case without accents and split into terms. Each term maps to the
+ * products containing it, weighted by the field it appears in. The terms are kept sorted, so every
+ * query token also matches the terms it is a prefix of (type-ahead) through a sub-map view, at a
+ * lower score than an exact match. A product must match every query token; its score sums, per
+ * token, the best field weight times the term's inverse document frequency.
+ *
+ * <p>The index is built from the database at startup and follows the committed writes of
+ * {@link ProductResource}.
+ */
+@ApplicationScoped
+public class ProductSearchIndex {
+
+  static final double NAME_WEIGHT = 3.0;
+
+  static final double DESCRIPTION_WEIGHT = 1.0;
+
+  // A term the query token is only a prefix of scores this fraction of an exact match
+  static final double PREFIX_FACTOR = 0.5;
+
+  // Further query tokens are ignored; they would only narrow an already specific query
+  static final int MAX_QUERY_TOKENS = 8;
+
+  private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Comparator<Scored> RANKING =
+      Comparator.comparingDouble((Scored s) -> s.score)
+          .reversed()
+          .thenComparing(s -> s.document.name, Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(s -> s.document.id);
+
+  private final NavigableMap<String, Map<Long, Double>> postings = new ConcurrentSkipListMap<>();
+
+  private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+  @Inject ReadReplicaRouter readReplica;
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild(
+        readReplica.read(
+            session ->
+                session.createSelectionQuery("from Product", Product.class).getResultList()));
+  }
+
+  void onProductChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+    if (event.product == null) {
+      remove(event.id);
+    } else {
+      put(event.product);
+    }
+  }
+
+  public synchronized void rebuild(List<Product> products) {
+    postings.clear();
+    documents.clear();
+    products.forEach(this::put);
+  }
+
+  /** Indexes the product, replacing its previous entry. */
+  public synchronized void put(Product product) {
+    if (product.id == null) {
+      return;
+    }
+    remove(product.id);
+    Document document = new Document(product);
+    documents.put(document.id, document);
+    document.termWeights.forEach(
+        (term, weight) ->
+            postings
+                .computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                .put(document.id, weight));
+  }
+
+  public synchronized void remove(Long id) {
+    Document previous = documents.remove(id);
+    if (previous == null) {
+      return;
+    }
+    for (String term : previous.termWeights.keySet()) {
+      Map<Long, Double> products = postings.get(term);
+      products.remove(id);
+      if (products.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  /**
+   * Products matching every token of the query, best match first, skipping {@code offset}
+   * results and returning at most {@code limit}. A blank query matches nothing.
+   */
+  public ProductSearchPage search(String query, int offset, int limit) {
+    Map<Long, Double> scores = null;
+    for (String token : tokenise(query).stream().limit(MAX_QUERY_TOKENS).toList()) {
+      Map<Long, Double> tokenScores = score(token);
+      if (scores == null) {
+        scores = tokenScores;
+      } else {
+        scores.keySet().retainAll(tokenScores.keySet());
+        scores.replaceAll((id, score) -> score + tokenScores.get(id));
+      }
+      if (scores.isEmpty()) {
+        break;
+      }
+    }
+    if (scores == null || scores.isEmpty()) {
+      return new ProductSearchPage(0, offset, limit, List.of());
+    }
+
+    // Keep only the best offset + limit results instead of sorting every match
+    int window = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    PriorityQueue<Scored> best = new PriorityQueue<>(RANKING.reversed());
+    scores.forEach(
+        (id, score) -> {
+          Document document = documents.get(id);
+          if (document == null) {
+            return;
+          }
+          best.add(new Scored(document, score));
+          if (best.size() > window) {
+            best.poll();
+          }
+        });
+
+    List<Scored> ranked = new ArrayList<>(best);
+    ranked.sort(RANKING);
+    List<ProductSearchPage.Hit> hits = new ArrayList<>();
+    for (int i = offset; i < ranked.size(); i++) {
+      hits.add(ranked.get(i).toHit());
+    }
+    return new ProductSearchPage(scores.size(), offset, limit, hits);
+  }
+
+  // Best score per product among the terms the token is equal to or a prefix of
+  private Map<Long, Double> score(String token) {
+    Map<Long, Double> tokenScores = new HashMap<>();
+    int total = Math.max(documents.size(), 1);
+    for (var term :
+        postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+      Map<Long, Double> products = term.getValue();
+      double idf = Math.log(1 + (double) total / Math.max(products.size(), 1));
+      double factor = term.getKey().equals(token) ? 1 : PREFIX_FACTOR;
+      products.forEach((id, weight) -> tokenScores.merge(id, weight * idf * factor, Math::max));
+    }
+    return tokenScores;
+  }
+
+  static List<String> tokenise(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    String folded =
+        ACCENTS
+            .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+    Set<String> tokens = new LinkedHashSet<>();
+    for (String token : SEPARATORS.split(folded)) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return List.copyOf(tokens);
+  }
+
+  // The indexed fields of a product, copied so later changes to the entity do not leak in
+  private static class Document {
+    final Long id;
+    final String name;
+    final String description;
+    final BigDecimal price;
+    final Map<String, Double> termWeights = new LinkedHashMap<>();
+
+    Document(Product product) {
+      this.id = product.id;
+      this.name = product.name;
+      this.description = product.description;
+      this.price = product.price;
+      // A term in both fields counts once, with the name's weight
+      tokenise(name).forEach(term -> termWeights.put(term, NAME_WEIGHT));
+      tokenise(description).forEach(term -> termWeights.putIfAbsent(term, DESCRIPTION_WEIGHT));
+    }
+  }
+
+  private static class Scored {
+    final Document document;
+    final double score;
+
+    Scored(Document document, double score) {
+      this.document = document;
+      this.score = score;
+    }
+
+    ProductSearchPage.Hit toHit() {
+      return new ProductSearchPage.Hit(
+          document.id, document.name, document.description, document.price, score);
+    }
+  }
+}
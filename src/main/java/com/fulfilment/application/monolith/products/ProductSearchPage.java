@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.products;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// One page of ranked product search results
+public class ProductSearchPage {
+
+  // number of products matching the query, across all pages
+  public int total;
+
+  public int offset;
+
+  public int limit;
+
+  public List<Hit> hits;
+
+  public ProductSearchPage() {}
+
+  public ProductSearchPage(int total, int offset, int limit, List<Hit> hits) {
+    this.total = total;
+    this.offset = offset;
+    this.limit = limit;
+    this.hits = hits;
+  }
+
+  // Stock is left out: stock adjustments do not go through the index
+  public static class Hit {
+
+    public Long id;
+
+    public String name;
+
+    public String description;
+
+    public BigDecimal price;
+
+    public double score;
+
+    public Hit() {}
+
+    public Hit(Long id, String name, String description, BigDecimal price, double score) {
+      this.id = id;
+      this.name = name;
+      this.description = description;
+      this.price = price;
+      this.score = score;
+    }
+  }
+}
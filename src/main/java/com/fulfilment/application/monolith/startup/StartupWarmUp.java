@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stock.StockAdjustment;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.warehouse.api.beans.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+/**
+ * Moves first-request costs into startup: Jackson builds its serialisers for the API types and
+ * Hibernate compiles the hot list queries and opens pool connections before the first request
+ * arrives. Meant for scale-to-zero deployments where cold start dominates first-request latency.
+ */
+@ApplicationScoped
+public class StartupWarmUp {
+
+  private static final Logger LOGGER = Logger.getLogger(StartupWarmUp.class.getName());
+
+  @ConfigProperty(name = "app.startup.warm-up.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @Inject ObjectMapper objectMapper;
+  @Inject Session session;
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      warmUpSerialisers();
+      // Its own transaction, so a failing query rolls back here and cannot fail startup
+      QuarkusTransaction.requiringNew().run(this::warmUpQueries);
+    } catch (Exception e) {
+      // Warm-up is an optimisation only; the first requests just pay the cost instead
+      LOGGER.warn("Startup warm-up failed", e);
+    }
+    LOGGER.debugf("Startup warm-up took %d ms", (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private void warmUpSerialisers() throws Exception {
+    objectMapper.writeValueAsBytes(List.of(new Store("WARM-UP")));
+    objectMapper.writeValueAsBytes(List.of(new Product("WARM-UP")));
+    objectMapper.writeValueAsBytes(List.of(new Warehouse()));
+    objectMapper.readValue("{\"name\":\"WARM-UP\"}", Store.class);
+    objectMapper.readValue("{\"name\":\"WARM-UP\"}", Product.class);
+    objectMapper.readValue("{\"businessUnitCode\":\"WARM-UP\"}", Warehouse.class);
+    objectMapper.readValue("[{\"id\":1,\"delta\":1}]", StockAdjustment[].class);
+  }
+
+  // Same statements as the list endpoints, so their query plans are cached
+  private void warmUpQueries() {
+    session
+        .createSelectionQuery("from Store order by name", Store.class)
+        .setMaxResults(1)
+        .getResultList();
+    session
+        .createSelectionQuery("from Product order by name", Product.class)
+        .setMaxResults(1)
+        .getResultList();
+    session
+        .createSelectionQuery("from DbWarehouse", DbWarehouse.class)
+        .setMaxResults(1)
+        .getResultList();
+  }
+}
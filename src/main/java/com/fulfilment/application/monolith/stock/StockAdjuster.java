@@ -0,0 +1,166 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.Session;
+
+/**
+ * Applies stock deltas as atomic {@code UPDATE ... SET qty = qty + ?} statements sent in one JDBC
+ * batch, so concurrent adjustments never lose updates and no entity is loaded or locked.
+ *
+ * <p>Every statement is guarded to keep the result between zero and the column's maximum; if any
+ * adjustment is rejected the whole batch fails and the surrounding transaction is rolled back.
+ *
+ * <p>The statements are sent in ascending id order whatever the order of the request, so two
+ * batches touching the same rows take their row locks in the same order and cannot deadlock.
+ */
+@ApplicationScoped
+public class StockAdjuster {
+
+  @Inject EntityManager entityManager;
+  @Inject TransactionSynchronizationRegistry txRegistry;
+  @Inject CacheInvalidationBus cacheInvalidation;
+
+  public void apply(StockTable stockTable, List<StockAdjustment> adjustments) {
+    validate(adjustments);
+
+    int[] updateCounts = executeIncrements(stockTable, adjustments);
+
+    Set<Long> rejectedIds = new LinkedHashSet<>();
+    for (int i = 0; i < updateCounts.length; i++) {
+      if (updateCounts[i] == 0) {
+        rejectedIds.add(adjustments.get(i).id);
+      }
+    }
+    if (rejectedIds.isEmpty()) {
+      return;
+    }
+
+    // Only the failure path pays for a second query, to tell missing rows from guarded ones
+    Set<Long> missingIds = new LinkedHashSet<>(rejectedIds);
+    missingIds.removeAll(currentStock(stockTable, rejectedIds).keySet());
+    if (!missingIds.isEmpty()) {
+      throw new ResourceNotFoundException(
+          "Ids " + join(missingIds) + " do not exist. No stock was adjusted.");
+    }
+    throw new ConflictException(
+        "Stock of ids " + join(rejectedIds)
+            + " would drop below zero or exceed the maximum. No stock was adjusted.");
+  }
+
+  /**
+   * Sends the guarded increments as one JDBC batch and returns the per-adjustment update counts,
+   * where 0 means the row is missing or the delta would take it below zero or past {@link
+   * Integer#MAX_VALUE}.
+   */
+  public int[] executeIncrements(StockTable stockTable, List<StockAdjustment> adjustments) {
+    String column = stockTable.column;
+    String sql =
+        "UPDATE " + stockTable.table + " SET " + column + " = " + column + " + ?"
+            + " WHERE id = ? AND " + column + "::bigint + ? BETWEEN 0 AND " + Integer.MAX_VALUE;
+
+    // Positions of the adjustments in lock order; the sort is stable, so repeats of an id keep
+    // their request order
+    Integer[] order = new Integer[adjustments.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> adjustments.get(i).id));
+
+    int[] sortedCounts =
+        entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection -> {
+                  try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int position : order) {
+                      StockAdjustment adjustment = adjustments.get(position);
+                      statement.setInt(1, adjustment.delta);
+                      statement.setLong(2, adjustment.id);
+                      statement.setLong(3, adjustment.delta);
+                      statement.addBatch();
+                    }
+                    return statement.executeBatch();
+                  }
+                });
+    int[] updateCounts = new int[sortedCounts.length];
+    for (int i = 0; i < sortedCounts.length; i++) {
+      updateCounts[order[i]] = sortedCounts[i];
+    }
+
+    // The updates bypass the entity cache, so drop the touched entries once the tx completes
+    Set<Long> touchedIds = new HashSet<>();
+    adjustments.forEach(a -> touchedIds.add(a.id));
+    evictAfterCompletion(stockTable.entityClass, touchedIds);
+    cacheInvalidation.entitiesChanged(stockTable.entityClass, touchedIds);
+
+    return updateCounts;
+  }
+
+  /** Reads the persisted stock of the given ids; ids that do not exist are absent from the map. */
+  public Map<Long, Long> currentStock(StockTable stockTable, Collection<Long> ids) {
+    List<Object[]> rows =
+        entityManager
+            .unwrap(Session.class)
+            .createNativeQuery(
+                "SELECT id, " + stockTable.column + " FROM " + stockTable.table
+                    + " WHERE id IN (:ids)",
+                Object[].class)
+            .setParameter("ids", new ArrayList<>(ids))
+            .getResultList();
+
+    Map<Long, Long> stock = new HashMap<>();
+    for (Object[] row : rows) {
+      stock.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+    return stock;
+  }
+
+  static void validate(List<StockAdjustment> adjustments) {
+    if (adjustments == null || adjustments.isEmpty()) {
+      throw new InvalidRequestException("Stock adjustments were not set on request.");
+    }
+    for (StockAdjustment adjustment : adjustments) {
+      if (adjustment == null || adjustment.id == null) {
+        throw new InvalidRequestException("Stock adjustment id was not set on request.");
+      }
+    }
+  }
+
+  static String join(Collection<Long> ids) {
+    return ids.stream().map(String::valueOf).collect(Collectors.joining(", "));
+  }
+
+  private void evictAfterCompletion(Class<?> entityClass, Set<Long> ids) {
+    var cache = entityManager.getEntityManagerFactory().getCache();
+    txRegistry.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            ids.forEach(id -> cache.evict(entityClass, id));
+          }
+        });
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.stock;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+@RegisterForReflection
+public class StockAdjustment {
+
+  // id of the store or product whose stock is adjusted
+  public Long id;
+
+  // signed amount added to the current stock
+  public int delta;
+
+  public StockAdjustment() {}
+
+  public StockAdjustment(Long id, int delta) {
+    this.id = id;
+    this.delta = delta;
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+
+/** The stock counters that can be adjusted in place, with the table and column backing them. */
+public enum StockTable {
+  STORE(Store.class, "store", "quantityProductsInStock"),
+  PRODUCT(Product.class, "product", "stock");
+
+  public final Class<?> entityClass;
+  public final String table;
+  public final String column;
+
+  StockTable(Class<?> entityClass, String table, String column) {
+    this.entityClass = entityClass;
+    this.table = table;
+    this.column = column;
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.stock;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * The last write-ahead log segment whose deltas are in the database, per {@link
+ * StockWriteAheadLog}. Advanced in the same transaction as the increments it covers.
+ */
+@ApplicationScoped
+public class StockWalWatermark {
+
+  @Inject EntityManager entityManager;
+
+  /** The watermark of the log, 0 when it never flushed. */
+  public long flushedThrough(String logId) {
+    List<?> rows =
+        entityManager
+            .createNativeQuery("SELECT segment FROM stock_wal_watermark WHERE logId = :logId")
+            .setParameter("logId", logId)
+            .getResultList();
+    return rows.isEmpty() ? 0 : ((Number) rows.get(0)).longValue();
+  }
+
+  public void advance(String logId, long segment) {
+    entityManager
+        .createNativeQuery(
+            "INSERT INTO stock_wal_watermark (logId, segment) VALUES (:logId, :segment)"
+                + " ON CONFLICT (logId) DO UPDATE"
+                + " SET segment = GREATEST(stock_wal_watermark.segment, EXCLUDED.segment)")
+        .setParameter("logId", logId)
+        .setParameter("segment", segment)
+        .executeUpdate();
+  }
+}
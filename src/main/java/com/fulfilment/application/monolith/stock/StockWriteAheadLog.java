@@ -0,0 +1,237 @@
+package com.fulfilment.application.monolith.stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of pending stock adjustments, split into numbered segment files.
+ *
+ * <p>The active segment receives every accepted adjustment and is forced to disk before the
+ * adjustment is acknowledged. A flush seals the active segment and, in the transaction that applies
+ * the deltas, records the last sealed segment number as the log's watermark; sealed segments are
+ * deleted afterwards. On restart only segments above the watermark are replayed, so a crash
+ * between the commit and the delete does not apply a segment twice.
+ *
+ * <p>Deltas a flush could not apply are carried into the active segment with the number of the
+ * last segment they came from. A carried line is replayed only once the watermark has reached
+ * that number: until then the transaction that carried it has not committed, and the original
+ * lines are replayed instead.
+ *
+ * <p>Not thread-safe; callers serialise access.
+ */
+public class StockWriteAheadLog implements AutoCloseable {
+
+  private static final String PREFIX = "stock-";
+  private static final String SUFFIX = ".wal";
+  private static final String ID_FILE = "log-id";
+
+  private final Path directory;
+  private long segment;
+  private FileChannel channel;
+
+  public StockWriteAheadLog(Path directory) {
+    this(directory, 0);
+  }
+
+  /**
+   * Opens the log with a new active segment numbered above both the existing segments and the
+   * watermark, so a segment written after a restart is never mistaken for a flushed one.
+   */
+  public StockWriteAheadLog(Path directory, long watermark) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+      long last = segments().stream().mapToLong(StockWriteAheadLog::segmentNumber).max().orElse(0);
+      segment = Math.max(last, watermark) + 1;
+      channel = open(segment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void append(StockTable stockTable, List<StockAdjustment> adjustments) {
+    StringBuilder lines = new StringBuilder();
+    for (StockAdjustment adjustment : adjustments) {
+      lines
+          .append(stockTable.name()).append(',')
+          .append(adjustment.id).append(',')
+          .append(adjustment.delta).append('\n');
+    }
+    write(lines);
+  }
+
+  private void write(StringBuilder lines) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Logs deltas that were sealed up to {@code coveredSegment} but not applied, split into lines
+   * that each fit an int.
+   */
+  public void appendCarried(long coveredSegment, StockTable stockTable, Map<Long, Long> deltas) {
+    StringBuilder lines = new StringBuilder();
+    deltas.forEach(
+        (id, delta) -> {
+          long remaining = delta;
+          while (remaining != 0) {
+            int part = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, remaining));
+            lines
+                .append(stockTable.name()).append(',')
+                .append(id).append(',')
+                .append(part).append(',')
+                .append(coveredSegment).append('\n');
+            remaining -= part;
+          }
+        });
+    write(lines);
+  }
+
+  /** Number of the most recently sealed segment, 0 before the first seal. */
+  public long lastSealedSegment() {
+    return segment - 1;
+  }
+
+  /**
+   * Identifies the log in a directory for the watermark table. Created on first use and kept
+   * across restarts, so instances sharing the database never read each other's watermark.
+   */
+  public static String id(Path directory) {
+    Path file = directory.resolve(ID_FILE);
+    try {
+      Files.createDirectories(directory);
+      if (!Files.exists(file)) {
+        Files.writeString(file, UUID.randomUUID().toString(), StandardCharsets.UTF_8);
+      }
+      return Files.readString(file, StandardCharsets.UTF_8).trim();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Closes the active segment and starts a new one; returns every segment sealed so far. */
+  public List<Path> seal() {
+    try {
+      channel.close();
+      channel = open(++segment);
+      List<Path> sealed = new ArrayList<>();
+      for (Path path : segments()) {
+        if (segmentNumber(path) < segment) {
+          sealed.add(path);
+        }
+      }
+      return sealed;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void delete(List<Path> sealedSegments) {
+    try {
+      for (Path path : sealedSegments) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Reads every adjustment logged in the given segments, in log order, skipping carried ones. */
+  public static List<Entry> read(List<Path> segments) {
+    return read(segments, 0);
+  }
+
+  /**
+   * Reads the adjustments still to be applied given the watermark: those in segments above it,
+   * and the carried ones whose flush committed.
+   */
+  public static List<Entry> read(List<Path> segments, long watermark) {
+    List<Entry> entries = new ArrayList<>();
+    try {
+      for (Path path : segments) {
+        if (segmentNumber(path) <= watermark) {
+          continue;
+        }
+        String content = Files.readString(path, StandardCharsets.UTF_8);
+        String[] lines = content.split("\n");
+        // A torn last line from a crash mid-write was never acknowledged, so it is skipped
+        int complete = content.endsWith("\n") ? lines.length : lines.length - 1;
+        for (int i = 0; i < complete; i++) {
+          String[] parts = lines[i].split(",");
+          boolean carried = parts.length == 4;
+          if (parts.length != 3 && !carried
+              || carried && Long.parseLong(parts[3]) > watermark) {
+            continue;
+          }
+          entries.add(
+              new Entry(
+                  StockTable.valueOf(parts[0]),
+                  new StockAdjustment(Long.parseLong(parts[1]), Integer.parseInt(parts[2]))));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return entries;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private FileChannel open(long number) throws IOException {
+    return FileChannel.open(
+        directory.resolve(PREFIX + number + SUFFIX),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(p -> p.getFileName().toString().startsWith(PREFIX))
+          .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+          .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+          .toList();
+    }
+  }
+
+  static long segmentNumber(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+  }
+
+  public static class Entry {
+    public final StockTable stockTable;
+    public final StockAdjustment adjustment;
+
+    Entry(StockTable stockTable, StockAdjustment adjustment) {
+      this.stockTable = stockTable;
+      this.adjustment = adjustment;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.cache.ResponseBytesCache;
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Optional write-behind mode for stock adjustments.
+ *
+ * <p>Accepted deltas are logged to a {@link StockWriteAheadLog} and accumulated in striped {@link
+ * LongAdder} counters per entity instead of updating the row, so hot stores no longer serialise on
+ * the row lock. A scheduled flush (and one at shutdown) sends the net delta per entity to the
+ * database as one batch of guarded increments, and advances the log's {@link StockWalWatermark}
+ * in the same transaction. Reads add the pending delta to the persisted value.
+ *
+ * <p>Admission checks the merged view under a per-table lock, which the flush also holds from its
+ * snapshot until the counters are settled, so concurrent adjustments cannot together take stock
+ * below zero or past the column's maximum. A net delta the database still rejects, because a
+ * synchronous write moved the row meanwhile, is never dropped: it stays pending, is carried in
+ * the log and is retried on every flush until it fits.
+ */
+@ApplicationScoped
+public class StockWriteBehind {
+
+  private static final Logger LOGGER = Logger.getLogger(StockWriteBehind.class.getName());
+
+  @ConfigProperty(name = "stock.write-behind.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "stock.write-behind.wal-directory", defaultValue = "stock-wal")
+  String walDirectory;
+
+  @Inject StockAdjuster stockAdjuster;
+  @Inject StockWalWatermark watermark;
+  @Inject ResponseBytesCache responseCache;
+
+  private final Map<StockTable, ConcurrentHashMap<Long, LongAdder>> pending =
+      new EnumMap<>(StockTable.class);
+
+  // Held from the stock read to the append on admission, and by a flush for all tables
+  private final Map<StockTable, ReentrantLock> admissionLocks = new EnumMap<>(StockTable.class);
+
+  // Guards the log and the counters together, so a sealed segment always matches a snapshot
+  private final Object walLock = new Object();
+  private StockWriteAheadLog wal;
+  private String walId;
+
+  public StockWriteBehind() {
+    for (StockTable stockTable : StockTable.values()) {
+      pending.put(stockTable, new ConcurrentHashMap<>());
+      admissionLocks.put(stockTable, new ReentrantLock());
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    Path directory = Path.of(walDirectory);
+    walId = StockWriteAheadLog.id(directory);
+    long flushedThrough =
+        QuarkusTransaction.requiringNew().call(() -> watermark.flushedThrough(walId));
+    synchronized (walLock) {
+      wal = new StockWriteAheadLog(directory, flushedThrough);
+      // Deltas acknowledged before a crash or unclean stop are replayed into the counters;
+      // segments the database already has are skipped, and deleted by the flush below
+      for (StockWriteAheadLog.Entry entry :
+          StockWriteAheadLog.read(wal.seal(), flushedThrough)) {
+        counter(entry.stockTable, entry.adjustment.id).add(entry.adjustment.delta);
+      }
+    }
+    flush();
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    if (!enabled) {
+      return;
+    }
+    flush();
+    synchronized (walLock) {
+      wal.close();
+    }
+  }
+
+  /** Delta accepted for the entity but not yet flushed to the database. */
+  public long pending(StockTable stockTable, Long id) {
+    LongAdder adder = pending.get(stockTable).get(id);
+    return adder == null ? 0 : adder.sum();
+  }
+
+  public void enqueue(StockTable stockTable, List<StockAdjustment> adjustments) {
+    StockAdjuster.validate(adjustments);
+
+    Set<Long> ids = new LinkedHashSet<>();
+    adjustments.forEach(a -> ids.add(a.id));
+
+    ReentrantLock admission = admissionLocks.get(stockTable);
+    admission.lock();
+    try {
+      Map<Long, Long> projected = stockAdjuster.currentStock(stockTable, ids);
+
+      Set<Long> missingIds = new LinkedHashSet<>(ids);
+      missingIds.removeAll(projected.keySet());
+      if (!missingIds.isEmpty()) {
+        throw new ResourceNotFoundException(
+            "Ids " + StockAdjuster.join(missingIds) + " do not exist. No stock was adjusted.");
+      }
+
+      // Bounded like the column, which also keeps every pending sum within an int
+      projected.replaceAll((id, stock) -> stock + pending(stockTable, id));
+      Set<Long> rejectedIds = new LinkedHashSet<>();
+      for (StockAdjustment adjustment : adjustments) {
+        long stock = projected.merge(adjustment.id, (long) adjustment.delta, Long::sum);
+        if (stock < 0 || stock > Integer.MAX_VALUE) {
+          rejectedIds.add(adjustment.id);
+        }
+      }
+      if (!rejectedIds.isEmpty()) {
+        throw new ConflictException(
+            "Stock of ids " + StockAdjuster.join(rejectedIds)
+                + " would drop below zero or exceed the maximum. No stock was adjusted.");
+      }
+
+      synchronized (walLock) {
+        wal.append(stockTable, adjustments);
+        adjustments.forEach(a -> counter(stockTable, a.id).add(a.delta));
+      }
+    } finally {
+      admission.unlock();
+    }
+    // Lists show the pending delta, which only this instance holds
+    responseCache.invalidate(stockTable.entityClass);
+  }
+
+  @Scheduled(
+      every = "${stock.write-behind.flush-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledFlush() {
+    if (enabled) {
+      flush();
+    }
+  }
+
+  public synchronized void flush() {
+    if (!enabled) {
+      return;
+    }
+    // In enum order, the only order in which more than one is taken
+    admissionLocks.values().forEach(ReentrantLock::lock);
+    List<Path> sealed;
+    try {
+      long sealedThrough;
+      Map<StockTable, Map<Long, Long>> snapshot = new EnumMap<>(StockTable.class);
+      synchronized (walLock) {
+        sealed = wal.seal();
+        sealedThrough = wal.lastSealedSegment();
+        pending.forEach(
+            (stockTable, counters) -> {
+              Map<Long, Long> deltas = new HashMap<>();
+              counters.forEach(
+                  (id, adder) -> {
+                    long delta = adder.sum();
+                    if (delta != 0) {
+                      deltas.put(id, delta);
+                    }
+                  });
+              snapshot.put(stockTable, deltas);
+            });
+      }
+
+      Map<StockTable, Map<Long, Long>> settled = new EnumMap<>(StockTable.class);
+      try {
+        QuarkusTransaction.requiringNew()
+            .run(
+                () -> {
+                  settled.clear();
+                  snapshot.forEach(
+                      (stockTable, deltas) ->
+                          settled.put(stockTable, flushDeltas(stockTable, deltas, sealedThrough)));
+                  watermark.advance(walId, sealedThrough);
+                });
+      } catch (RuntimeException e) {
+        // Counters and sealed segments are kept, so the next flush retries the same deltas
+        LOGGER.error("Failed to flush pending stock adjustments", e);
+        return;
+      }
+
+      synchronized (walLock) {
+        settled.forEach(
+            (stockTable, deltas) -> {
+              ConcurrentHashMap<Long, LongAdder> counters = pending.get(stockTable);
+              deltas.forEach((id, delta) -> counters.get(id).add(-delta));
+              counters.values().removeIf(adder -> adder.sum() == 0);
+            });
+      }
+      // The flushed deltas were counted twice between the commit and the step above
+      settled.keySet().forEach(stockTable -> responseCache.invalidate(stockTable.entityClass));
+    } finally {
+      admissionLocks.values().forEach(ReentrantLock::unlock);
+    }
+    // Past the watermark, so a crash before or during the delete does not replay them
+    wal.delete(sealed);
+  }
+
+  /**
+   * Applies the net deltas of one table and returns those that are settled. A delta the database
+   * rejects stays pending and is carried in the log; one whose row was deleted is settled without
+   * being applied, as there is no stock left to adjust.
+   */
+  private Map<Long, Long> flushDeltas(StockTable stockTable, Map<Long, Long> deltas, long segment) {
+    Map<Long, Long> settled = new HashMap<>();
+    Map<Long, Long> held = new HashMap<>();
+    List<StockAdjustment> adjustments = new ArrayList<>();
+    deltas.forEach(
+        (id, delta) -> {
+          if (delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE) {
+            // Admission keeps sums within an int; an edited log is the only way past it
+            held.put(id, delta);
+          } else {
+            adjustments.add(new StockAdjustment(id, (int) delta));
+          }
+        });
+
+    int[] updateCounts =
+        adjustments.isEmpty()
+            ? new int[0]
+            : stockAdjuster.executeIncrements(stockTable, adjustments);
+    for (int i = 0; i < updateCounts.length; i++) {
+      StockAdjustment adjustment = adjustments.get(i);
+      (updateCounts[i] == 0 ? held : settled).put(adjustment.id, (long) adjustment.delta);
+    }
+    if (held.isEmpty()) {
+      return settled;
+    }
+
+    Set<Long> existingIds = stockAdjuster.currentStock(stockTable, held.keySet()).keySet();
+    for (Long id : new HashSet<>(held.keySet())) {
+      if (!existingIds.contains(id)) {
+        LOGGER.errorf(
+            "Discarded pending stock delta %d for %s %d: the row was deleted",
+            held.get(id), stockTable.table, id);
+        settled.put(id, held.remove(id));
+      } else {
+        LOGGER.errorf(
+            "Holding pending stock delta %d for %s %d: stock was changed directly and the delta"
+                + " no longer fits; retried on every flush",
+            held.get(id), stockTable.table, id);
+      }
+    }
+    synchronized (walLock) {
+      // Until this transaction commits, replay keeps using the sealed lines instead
+      wal.appendCarried(segment, stockTable, held);
+    }
+    return settled;
+  }
+
+  private LongAdder counter(StockTable stockTable, Long id) {
+    return pending.get(stockTable).computeIfAbsent(id, key -> new LongAdder());
+  }
+}
@@ -1,12 +1,15 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.diagnostics.EntityLoadCounter;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 
 @Entity
 @Cacheable
+@EntityListeners(EntityLoadCounter.class)
 public class Store extends PanacheEntity {
 
   @Column(length = 40, unique = true)
@@ -1,10 +1,20 @@
 package com.fulfilment.application.monolith.stores;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.datasource.ReadReplicaRouter;
+import com.fulfilment.application.monolith.encoding.BinaryFormats;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.lookup.LookupResult;
+import com.fulfilment.application.monolith.patch.MergePatchUpdate;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import com.fulfilment.application.monolith.stock.StockAdjustment;
+import com.fulfilment.application.monolith.stock.StockTable;
+import com.fulfilment.application.monolith.stock.StockWriteBehind;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Status;
 import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
@@ -16,12 +26,13 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import org.jboss.logging.Logger;
+import java.util.Map;
 
 @Path("store")
 @ApplicationScoped
@@ -31,22 +42,81 @@ public class StoreResource {
 
   @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
   @Inject TransactionSynchronizationRegistry txRegistry;
+  @Inject StockAdjuster stockAdjuster;
+  @Inject StockWriteBehind stockWriteBehind;
+  @Inject ReadReplicaRouter readReplica;
+  @Inject CacheInvalidationBus cacheInvalidation;
+  @Inject EntityManager entityManager;
+
+  private static final MergePatchUpdate STORE_PATCH =
+      new MergePatchUpdate("store", "id")
+          .field("name", "name", String.class, true)
+          .field("quantityProductsInStock", "quantityProductsInStock", Integer.class, true);
+
+  // All stores, or with ?ids=1,2,3 a multi-get of those stores in request order
+  @GET
+  @Produces({MediaType.APPLICATION_JSON, BinaryFormats.CBOR, BinaryFormats.SMILE})
+  public List<?> get(@QueryParam("ids") List<String> ids) {
+    if (ids != null && !ids.isEmpty()) {
+      return lookup(parseIds(ids));
+    }
+    List<Store> stores =
+        readReplica.read(
+            session ->
+                session.createSelectionQuery("from Store order by name", Store.class).getResultList());
+    return stores.stream().map(this::withPendingStock).toList();
+  }
 
-  private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
+  private List<LookupResult<Store>> lookup(List<Long> ids) {
+    LookupResult.requireIds(ids);
+    Map<Long, Store> loaded = new HashMap<>();
+    for (Store store : readReplica.findMultiple(Store.class, ids.stream().distinct().toList())) {
+      if (store != null) {
+        loaded.put(store.id, withPendingStock(store));
+      }
+    }
+    return LookupResult.inRequestOrder(ids, loaded);
+  }
 
-  @GET
-  public List<Store> get() {
-    return Store.listAll(Sort.by("name"));
+  // Accepts both ?ids=1,2 and ?ids=1&ids=2
+  private static List<Long> parseIds(List<String> values) {
+    List<Long> ids = new ArrayList<>();
+    for (String value : values) {
+      for (String id : value.split(",")) {
+        if (id.isBlank()) {
+          continue;
+        }
+        try {
+          ids.add(Long.valueOf(id.trim()));
+        } catch (NumberFormatException e) {
+          throw new InvalidRequestException("Id '" + id.trim() + "' is not a number.");
+        }
+      }
+    }
+    return ids;
   }
 
   @GET
+  @Produces({MediaType.APPLICATION_JSON, BinaryFormats.CBOR, BinaryFormats.SMILE})
   @Path("{id}")
   public Store getSingle(Long id) {
-    Store entity = Store.findById(id);
+    Store entity = readReplica.findById(Store.class, id);
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Store with id of " + id + " does not exist.");
     }
-    return entity;
+    return withPendingStock(entity);
+  }
+
+  // Write-behind deltas are not in the row yet, so they are added to a detached copy
+  private Store withPendingStock(Store store) {
+    long pending = stockWriteBehind.pending(StockTable.STORE, store.id);
+    if (pending == 0) {
+      return store;
+    }
+    Store view = new Store(store.name);
+    view.id = store.id;
+    view.quantityProductsInStock = (int) (store.quantityProductsInStock + pending);
+    return view;
   }
 
   private void callLegacyAfterCommit(Store store, boolean isUpdate) {
@@ -72,10 +142,12 @@ public class StoreResource {
   @Transactional
   public Response create(Store store) {
     if (store.id != null) {
-      throw new WebApplicationException("Id was invalidly set on request.", 422);
+      throw new InvalidRequestException("Id was invalidly set on request.");
     }
 
     store.persist();
+    // Nothing to evict, but the store lists here and on other instances are now out of date
+    cacheInvalidation.entityChanged(Store.class, store.id);
 
     // Schedule legacy call for after the transaction successfully commits
     callLegacyAfterCommit(store, false);
@@ -88,17 +160,18 @@ public class StoreResource {
   @Transactional
   public Store update(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
-      throw new WebApplicationException("Store Name was not set on request.", 422);
+      throw new InvalidRequestException("Store Name was not set on request.");
     }
 
     Store entity = Store.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Store with id of " + id + " does not exist.");
     }
 
     entity.name = updatedStore.name;
     entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
+    cacheInvalidation.entityChanged(Store.class, id);
 
     // Schedule legacy call for after the transaction successfully commits
     callLegacyAfterCommit(updatedStore, true);
@@ -108,29 +181,40 @@ public class StoreResource {
 
   @PATCH
   @Path("{id}")
+  @Consumes({MergePatchUpdate.MEDIA_TYPE, MediaType.APPLICATION_JSON})
   @Transactional
-  public Store patch(Long id, Store updatedStore) {
-    if (updatedStore.name == null) {
-      throw new WebApplicationException("Store Name was not set on request.", 422);
+  public Store patch(Long id, JsonNode patch) {
+    Object[] row = STORE_PATCH.apply(entityManager, id, patch);
+    if (row == null) {
+      throw new ResourceNotFoundException("Store with id of " + id + " does not exist.");
     }
 
-    Store entity = Store.findById(id);
+    // The update bypassed the persistence context and the entity cache
+    entityManager.detach(entityManager.getReference(Store.class, id));
+    entityManager.getEntityManagerFactory().getCache().evict(Store.class, id);
+    cacheInvalidation.entityChanged(Store.class, id);
 
-    if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
-    }
+    Store patched = new Store((String) row[1]);
+    patched.id = (Long) row[0];
+    patched.quantityProductsInStock = (Integer) row[2];
 
-    if (entity.name != null) {
-      entity.name = updatedStore.name;
-    }
+    // The legacy system receives the state this transaction commits
+    callLegacyAfterCommit(patched, true);
+    return withPendingStock(patched);
+  }
 
-    if (entity.quantityProductsInStock != 0) {
-      entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
+  @POST
+  @Path("stock-adjustments")
+  @Transactional
+  public Response adjustStock(List<StockAdjustment> adjustments) {
+    if (stockWriteBehind.isEnabled()) {
+      stockWriteBehind.enqueue(StockTable.STORE, adjustments);
+      return Response.status(202).build();
     }
 
-    // Schedule legacy call for after the transaction successfully commits
-    callLegacyAfterCommit(updatedStore, true);
-    return entity;
+    // Applied as atomic increments, so concurrent adjustments on the same store are never lost
+    stockAdjuster.apply(StockTable.STORE, adjustments);
+    return Response.status(204).build();
   }
 
   @DELETE
@@ -139,35 +223,10 @@ public class StoreResource {
   public Response delete(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new ResourceNotFoundException("Store with id of " + id + " does not exist.");
     }
     entity.delete();
+    cacheInvalidation.entityChanged(Store.class, id);
     return Response.status(204).build();
   }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
-  }
 }
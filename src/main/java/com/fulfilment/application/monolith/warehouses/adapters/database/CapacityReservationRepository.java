@@ -0,0 +1,200 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+/**
+ * Capacity reservations in {@code warehouse_capacity_reservation}, shared by every instance.
+ *
+ * <p>A warehouse reservation is checked and inserted by one statement under the warehouse's stock
+ * lock (see {@link WarehouseStockLocks}), against the capacity left by the current stock (snapshot
+ * plus ledger tail) and the live reservations. Ledger appends and the conditional replace and
+ * patch statements take the same lock and count the same reservations, so reserved capacity is
+ * neither handed out twice nor filled by other stock. Location reservations are serialised by a
+ * location lock instead.
+ *
+ * <p>A reservation is live until {@code expiresAt}; every check ignores expired rows, so expiry
+ * needs no timely sweep. A scheduled job deletes expired rows in batches to keep the table small.
+ */
+@ApplicationScoped
+public class CapacityReservationRepository implements CapacityReservations {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(CapacityReservationRepository.class.getName());
+
+  // Live reservations of warehouse alias w, served by the (businessUnitCode, expiresAt) index
+  static final String RESERVED_IN_W =
+      "COALESCE((SELECT SUM(r.quantity) FROM warehouse_capacity_reservation r"
+          + " WHERE r.businessUnitCode = w.businessUnitCode AND r.expiresAt > LOCALTIMESTAMP), 0)";
+
+  // Releases the reservation an inbound movement lands, if it belongs to the movement's warehouse
+  static final String RELEASE_LANDED =
+      "DELETE FROM warehouse_capacity_reservation WHERE id = :id AND businessUnitCode = :code";
+
+  private static final String EXPIRES_AT =
+      "LOCALTIMESTAMP + CAST(:ttlMillis AS BIGINT) * INTERVAL '1 millisecond'";
+
+  private static final String RESERVE_IN_WAREHOUSE =
+      "INSERT INTO warehouse_capacity_reservation (id, businessUnitCode, quantity, expiresAt)"
+          + " SELECT :id, w.businessUnitCode, :quantity, " + EXPIRES_AT
+          + " FROM warehouse w"
+          + " WHERE w.businessUnitCode = :code AND w.archivedAt IS NULL"
+          + " AND COALESCE(w.capacity, 0) - COALESCE(w.stock, 0)"
+          + "   - " + StockLedgerRepository.TAIL_OF_W + " - " + RESERVED_IN_W + " >= :quantity"
+          + " RETURNING expiresAt";
+
+  private static final String RESERVE_AT_LOCATION =
+      "INSERT INTO warehouse_capacity_reservation (id, location, quantity, expiresAt)"
+          + " SELECT :id, :location, :quantity, " + EXPIRES_AT
+          + " WHERE (SELECT COALESCE(SUM(r.quantity), 0) FROM warehouse_capacity_reservation r"
+          + "   WHERE r.location = :location AND r.expiresAt > LOCALTIMESTAMP)"
+          + "   + :quantity <= :limit"
+          + " RETURNING expiresAt";
+
+  private static final String RELEASE =
+      "DELETE FROM warehouse_capacity_reservation WHERE id = :id AND expiresAt > LOCALTIMESTAMP";
+
+  private static final String RESERVED_IN_WAREHOUSE =
+      "SELECT COALESCE(SUM(quantity), 0) FROM warehouse_capacity_reservation"
+          + " WHERE businessUnitCode = :code AND expiresAt > LOCALTIMESTAMP";
+
+  private static final String RESERVED_AT_LOCATION =
+      "SELECT COALESCE(SUM(quantity), 0) FROM warehouse_capacity_reservation"
+          + " WHERE location = :location AND expiresAt > LOCALTIMESTAMP";
+
+  private static final String DELETE_EXPIRED =
+      "DELETE FROM warehouse_capacity_reservation WHERE id IN ("
+          + " SELECT id FROM warehouse_capacity_reservation WHERE expiresAt <= LOCALTIMESTAMP"
+          + " ORDER BY expiresAt LIMIT :limit)";
+
+  @ConfigProperty(name = "app.reservations.sweep-batch-size", defaultValue = "1000")
+  int sweepBatchSize;
+
+  @Inject EntityManager entityManager;
+
+  @Scheduled(
+      every = "${app.reservations.expiry-interval:1m}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledSweep() {
+    try {
+      deleteExpired();
+    } catch (RuntimeException e) {
+      // Expired rows already count for nothing; they are only left for the next run
+      LOGGER.error("Failed to delete expired capacity reservations", e);
+    }
+  }
+
+  /** Deletes every reservation expired so far and returns how many were deleted. */
+  public int deleteExpired() {
+    int total = 0;
+    int deleted;
+    do {
+      deleted =
+          QuarkusTransaction.requiringNew()
+              .call(
+                  () ->
+                      entityManager
+                          .createNativeQuery(DELETE_EXPIRED)
+                          .setParameter("limit", sweepBatchSize)
+                          .executeUpdate());
+      total += deleted;
+    } while (deleted == sweepBatchSize);
+    return total;
+  }
+
+  @Override
+  public CapacityReservation reserveInWarehouse(CapacityReservation reservation, Duration ttl) {
+    WarehouseStockLocks.lock(entityManager, List.of(reservation.businessUnitCode));
+    String id = UUID.randomUUID().toString();
+    List<LocalDateTime> stored =
+        insertReturningExpiry(
+            nativeQuery(RESERVE_IN_WAREHOUSE)
+                .setParameter("code", reservation.businessUnitCode),
+            id,
+            reservation,
+            ttl);
+    return stored.isEmpty() ? null : stored(id, reservation, stored.get(0));
+  }
+
+  @Override
+  public CapacityReservation reserveAtLocation(
+      CapacityReservation reservation, Duration ttl, int limit) {
+    WarehouseStockLocks.lockLocations(entityManager, List.of(reservation.location));
+    String id = UUID.randomUUID().toString();
+    List<LocalDateTime> stored =
+        insertReturningExpiry(
+            nativeQuery(RESERVE_AT_LOCATION)
+                .setParameter("location", reservation.location)
+                .setParameter("limit", limit),
+            id,
+            reservation,
+            ttl);
+    return stored.isEmpty() ? null : stored(id, reservation, stored.get(0));
+  }
+
+  @Override
+  public boolean release(String reservationId) {
+    int released =
+        entityManager.createNativeQuery(RELEASE).setParameter("id", reservationId).executeUpdate();
+    return released > 0;
+  }
+
+  @Override
+  public int reservedInWarehouse(String businessUnitCode) {
+    return ((Number)
+            entityManager
+                .createNativeQuery(RESERVED_IN_WAREHOUSE)
+                .setParameter("code", businessUnitCode)
+                .getSingleResult())
+        .intValue();
+  }
+
+  @Override
+  public int reservedAtLocation(String location) {
+    return ((Number)
+            entityManager
+                .createNativeQuery(RESERVED_AT_LOCATION)
+                .setParameter("location", location)
+                .getSingleResult())
+        .intValue();
+  }
+
+  private NativeQuery<?> nativeQuery(String sql) {
+    return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+  }
+
+  // Runs one of the conditional inserts; empty when the reservation did not fit
+  @SuppressWarnings("unchecked")
+  private static List<LocalDateTime> insertReturningExpiry(
+      NativeQuery<?> insert, String id, CapacityReservation reservation, Duration ttl) {
+    return (List<LocalDateTime>)
+        insert
+            .setParameter("id", id)
+            .setParameter("quantity", reservation.quantity)
+            .setParameter("ttlMillis", ttl.toMillis())
+            .addScalar("expiresAt", LocalDateTime.class)
+            .getResultList();
+  }
+
+  private static CapacityReservation stored(
+      String id, CapacityReservation reservation, LocalDateTime expiresAt) {
+    CapacityReservation stored =
+        new CapacityReservation(
+            reservation.businessUnitCode, reservation.location, reservation.quantity);
+    stored.id = id;
+    stored.expiresAt = expiresAt;
+    return stored;
+  }
+}
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Entity
+@Table(name = "warehouse_occupancy_rollup")
+@IdClass(DbOccupancyRollup.Key.class)
+public class DbOccupancyRollup {
+
+  @Id public String location;
+
+  @Id public int utilisationBucket;
+
+  public long warehouses;
+
+  public long capacity;
+
+  public long stock;
+
+  public DbOccupancyRollup() {}
+
+  public static class Key implements Serializable {
+    public String location;
+    public int utilisationBucket;
+
+    public Key() {}
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return utilisationBucket == key.utilisationBucket && Objects.equals(location, key.location);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, utilisationBucket);
+    }
+  }
+}
@@ -1,32 +1,54 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.diagnostics.EntityLoadCounter;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.PartitionKey;
 
 @Entity
 @Table(name = "warehouse")
 @Cacheable
+@EntityListeners(EntityLoadCounter.class)
 public class DbWarehouse {
 
   @Id @GeneratedValue public Long id;
 
+  // Partition key of the warehouse table, derived from the location by Location.regionOf. Hibernate
+  // adds the loaded region to its updates and deletes by id, so they touch a single partition
+  @PartitionKey public String region;
+
   public String businessUnitCode;
 
   public String location;
 
   public Integer capacity;
 
+  // Snapshot of the stock, including every ledger movement up to stockLedgerPosition
   public Integer stock;
 
+  public long stockLedgerPosition;
+
+  // Movements after the snapshot, summed when the row is loaded; see StockLedgerRepository
+  @Formula(
+      "(SELECT COALESCE(SUM(m.quantity), 0) FROM warehouse_stock_movement m"
+          + " WHERE m.businessUnitCode = businessUnitCode AND m.id > stockLedgerPosition)")
+  public long stockLedgerTail;
+
   public LocalDateTime createdAt;
 
   public LocalDateTime archivedAt;
 
+  // Bumped by every update, including the single-statement replace in WarehouseRepository
+  @Version public Long version;
+
   public DbWarehouse() {}
 
   public Warehouse toWarehouse() {
@@ -34,9 +56,16 @@ public class DbWarehouse {
     warehouse.businessUnitCode = this.businessUnitCode;
     warehouse.location = this.location;
     warehouse.capacity = this.capacity;
-    warehouse.stock = this.stock;
+    warehouse.stock = currentStock();
     warehouse.createdAt = this.createdAt;
     warehouse.archivedAt = this.archivedAt;
     return warehouse;
   }
+
+  public Integer currentStock() {
+    if (stock == null && stockLedgerTail == 0) {
+      return null;
+    }
+    return Math.toIntExact((stock == null ? 0 : stock) + stockLedgerTail);
+  }
 }
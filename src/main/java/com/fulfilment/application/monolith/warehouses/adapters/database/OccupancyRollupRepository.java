@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps one row per (location, utilisation decile) with the count, capacity and stock of the
+ * active warehouses in it. Writes are atomic upserts in the caller's transaction, so the rollup
+ * commits together with the warehouse change, and reads cost the same however many warehouses
+ * exist.
+ */
+@ApplicationScoped
+public class OccupancyRollupRepository
+    implements WarehouseOccupancyRollup,
+        PanacheRepositoryBase<DbOccupancyRollup, DbOccupancyRollup.Key> {
+
+  private static final String UPSERT =
+      "INSERT INTO warehouse_occupancy_rollup"
+          + " (location, utilisationBucket, warehouses, capacity, stock)"
+          + " VALUES (:location, :bucket, :warehouses, :capacity, :stock)"
+          + " ON CONFLICT (location, utilisationBucket) DO UPDATE SET"
+          + " warehouses = warehouse_occupancy_rollup.warehouses + EXCLUDED.warehouses,"
+          + " capacity = warehouse_occupancy_rollup.capacity + EXCLUDED.capacity,"
+          + " stock = warehouse_occupancy_rollup.stock + EXCLUDED.stock";
+
+  // Same decile rule as LocationOccupancy.utilisationBucket, expressed in SQL. Stock is the
+  // current stock, snapshot plus the ledger tail the compactor has not folded yet, as in the
+  // warehouses that add and remove pass in later.
+  private static final String RECOMPUTE =
+      "INSERT INTO warehouse_occupancy_rollup"
+          + " (location, utilisationBucket, warehouses, capacity, stock)"
+          + " SELECT location,"
+          + " CASE WHEN COALESCE(capacity, 0) <= 0"
+          + "   THEN CASE WHEN stock > 0 THEN 10 ELSE 0 END"
+          + "   ELSE LEAST(10, GREATEST(0, stock * 10 / capacity)) END,"
+          + " COUNT(*), COALESCE(SUM(capacity), 0), COALESCE(SUM(stock), 0)"
+          + " FROM (SELECT w.location, w.capacity,"
+          + "   COALESCE(w.stock, 0) + " + StockLedgerRepository.TAIL_OF_W + " AS stock"
+          + "   FROM warehouse w WHERE w.archivedAt IS NULL AND w.location IS NOT NULL) current"
+          + " GROUP BY 1, 2";
+
+  @Override
+  public void add(Warehouse warehouse) {
+    upsert(warehouse, 1);
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    upsert(warehouse, -1);
+  }
+
+  @Override
+  public List<LocationOccupancy> byLocation() {
+    Map<String, LocationOccupancy> byLocation = new LinkedHashMap<>();
+    for (DbOccupancyRollup row : list("warehouses > 0 order by location")) {
+      byLocation
+          .computeIfAbsent(row.location, LocationOccupancy::new)
+          .addBucket(row.utilisationBucket, row.warehouses, row.capacity, row.stock);
+    }
+    return List.copyOf(byLocation.values());
+  }
+
+  /** Rebuilds the whole rollup from the warehouse table with one grouped query. */
+  @Transactional
+  public void recompute() {
+    getEntityManager().createNativeQuery("DELETE FROM warehouse_occupancy_rollup").executeUpdate();
+    getEntityManager().createNativeQuery(RECOMPUTE).executeUpdate();
+  }
+
+  // Seed data and any writes made outside the use cases are picked up at boot
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    recompute();
+  }
+
+  private void upsert(Warehouse warehouse, int sign) {
+    if (warehouse.location == null) {
+      return;
+    }
+    getEntityManager()
+        .createNativeQuery(UPSERT)
+        .setParameter("location", warehouse.location)
+        .setParameter("bucket", LocationOccupancy.utilisationBucket(warehouse.capacity, warehouse.stock))
+        .setParameter("warehouses", (long) sign)
+        .setParameter("capacity", (long) sign * (warehouse.capacity == null ? 0 : warehouse.capacity))
+        .setParameter("stock", (long) sign * (warehouse.stock == null ? 0 : warehouse.stock))
+        .executeUpdate();
+  }
+}
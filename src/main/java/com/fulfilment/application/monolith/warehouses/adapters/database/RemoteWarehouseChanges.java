@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.cache.RemoteEntitiesChanged;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lets the in-memory warehouse mirrors of this instance follow writes made on other instances.
+ *
+ * <p>When {@link CacheInvalidationBus} reports changed warehouses, their current state is read
+ * back under their stock locks and fired as {@link WarehouseChangedEvent}s. The read takes a
+ * fresh revision while holding the locks, so it orders correctly against the events of local
+ * writes. A removal elsewhere is reported without ids, as are notifications lost while the
+ * listener reconnected; then every warehouse is read back, in batches so no transaction holds
+ * many locks, followed by a {@link WarehousesReloadedEvent} for the warehouses that are gone.
+ */
+@ApplicationScoped
+public class RemoteWarehouseChanges {
+
+  static final int BATCH_SIZE = 100;
+
+  @Inject WarehouseRepository repository;
+
+  @Inject Event<WarehouseChangedEvent> changes;
+
+  @Inject Event<WarehousesReloadedEvent> reloads;
+
+  void onRemoteChange(@Observes RemoteEntitiesChanged event) {
+    if (event.entityClass != DbWarehouse.class) {
+      return;
+    }
+    if (event.allChanged()) {
+      reloadAll();
+    } else {
+      reload(QuarkusTransaction.requiringNew().call(() -> repository.businessUnitCodes(event.ids)));
+    }
+  }
+
+  void reloadAll() {
+    long revision = QuarkusTransaction.requiringNew().call(repository::nextRevision);
+    Set<String> codes =
+        new TreeSet<>(
+            QuarkusTransaction.requiringNew().call(() -> repository.businessUnitCodes(null)));
+    reload(List.copyOf(codes));
+    reloads.fire(new WarehousesReloadedEvent(codes, revision));
+  }
+
+  private void reload(List<String> codes) {
+    for (int from = 0; from < codes.size(); from += BATCH_SIZE) {
+      List<String> batch = codes.subList(from, Math.min(codes.size(), from + BATCH_SIZE));
+      // Fired after the read commits, so its locks are not held while the mirrors update
+      QuarkusTransaction.requiringNew()
+          .call(() -> repository.currentStates(batch))
+          .forEach(changes::fire);
+    }
+  }
+}
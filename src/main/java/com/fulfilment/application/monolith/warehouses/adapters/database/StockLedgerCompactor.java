@@ -0,0 +1,108 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+/**
+ * Rolls warehouse stock snapshots forward: folds each warehouse's ledger tail into {@code
+ * warehouse.stock} and moves {@code stockLedgerPosition} to the last folded movement, so reads
+ * only sum the movements since the last run.
+ *
+ * <p>A batch takes the stock locks of its warehouses first. Appends hold those locks until they
+ * commit, so every movement the batch can see is committed and none can commit behind the new
+ * position. The current stock (snapshot plus tail) is the same before and after a batch, so the
+ * warehouse version is left alone.
+ */
+@ApplicationScoped
+public class StockLedgerCompactor {
+
+  private static final Logger LOGGER = Logger.getLogger(StockLedgerCompactor.class.getName());
+
+  private static final String WITH_TAIL =
+      "SELECT w.businessUnitCode FROM warehouse w WHERE EXISTS ("
+          + " SELECT 1 FROM warehouse_stock_movement m"
+          + " WHERE m.businessUnitCode = w.businessUnitCode AND m.id > w.stockLedgerPosition"
+          + " AND m.id <= :upTo)"
+          + " ORDER BY w.businessUnitCode LIMIT :limit";
+
+  private static final String ROLL_FORWARD =
+      "UPDATE warehouse w SET stock = COALESCE(w.stock, 0) + t.quantity,"
+          + " stockLedgerPosition = t.position"
+          + " FROM (SELECT m.businessUnitCode, SUM(m.quantity) AS quantity, MAX(m.id) AS position"
+          + "   FROM warehouse_stock_movement m JOIN warehouse x"
+          + "     ON x.businessUnitCode = m.businessUnitCode AND m.id > x.stockLedgerPosition"
+          + "   WHERE m.businessUnitCode IN (:codes) AND m.id <= :upTo"
+          + "   GROUP BY m.businessUnitCode) t"
+          + " WHERE w.businessUnitCode = t.businessUnitCode";
+
+  @ConfigProperty(name = "app.stock-ledger.compaction-batch-size", defaultValue = "500")
+  int batchSize;
+
+  @Inject EntityManager entityManager;
+
+  @Scheduled(
+      every = "${app.stock-ledger.compaction-interval:30s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledCompaction() {
+    try {
+      compact();
+    } catch (RuntimeException e) {
+      // Nothing is lost: the tail keeps counting in reads until the next run folds it
+      LOGGER.error("Failed to compact the warehouse stock ledger", e);
+    }
+  }
+
+  /**
+   * Folds every movement appended so far into the snapshots and returns the number of warehouses
+   * whose snapshot moved. Movements appended while it runs are left for the next run.
+   */
+  public int compact() {
+    long upTo =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () ->
+                    ((Number)
+                            entityManager
+                                .createNativeQuery(
+                                    "SELECT COALESCE(MAX(id), 0) FROM warehouse_stock_movement")
+                                .getSingleResult())
+                        .longValue());
+    int total = 0;
+    int compacted;
+    do {
+      compacted = QuarkusTransaction.requiringNew().call(() -> compactBatch(upTo));
+      total += compacted;
+    } while (compacted == batchSize);
+    return total;
+  }
+
+  private int compactBatch(long upTo) {
+    @SuppressWarnings("unchecked")
+    List<String> codes =
+        entityManager
+            .createNativeQuery(WITH_TAIL)
+            .setParameter("upTo", upTo)
+            .setParameter("limit", batchSize)
+            .getResultList();
+    if (codes.isEmpty()) {
+      return 0;
+    }
+    WarehouseStockLocks.lock(entityManager, codes);
+    entityManager
+        .createNativeQuery(ROLL_FORWARD)
+        .unwrap(NativeQuery.class)
+        // limits Hibernate's cache invalidation after the statement to the warehouse region
+        .addSynchronizedEntityClass(DbWarehouse.class)
+        .setParameter("codes", codes)
+        .setParameter("upTo", upTo)
+        .executeUpdate();
+    return codes.size();
+  }
+}
@@ -0,0 +1,282 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.hibernate.Session;
+
+/**
+ * The warehouse stock ledger in {@code warehouse_stock_movement}.
+ *
+ * <p>An append locks the touched warehouses (see {@link WarehouseStockLocks}), reads their
+ * current stock as snapshot plus tail, checks every movement against zero and the capacity, and
+ * sends the movements as one JDBC batch of inserts. The warehouse rows are not written: the
+ * snapshot in {@code warehouse.stock} is rolled forward later by {@link StockLedgerCompactor}.
+ *
+ * <p>Capacity reserved for inbound shipments (see {@link CapacityReservationRepository}) is not
+ * free for other inbound movements. A movement that names its reservation releases it first, so
+ * it lands in the capacity it held.
+ */
+@ApplicationScoped
+public class StockLedgerRepository implements StockLedger {
+
+  // Movements of warehouse alias w after its snapshot, served by the (businessUnitCode, id) index
+  static final String TAIL_OF_W =
+      "COALESCE((SELECT SUM(m.quantity) FROM warehouse_stock_movement m"
+          + " WHERE m.businessUnitCode = w.businessUnitCode AND m.id > w.stockLedgerPosition), 0)";
+
+  private static final String CURRENT_STATE =
+      "SELECT w.id, w.businessUnitCode, w.location, w.capacity,"
+          + " COALESCE(w.stock, 0) + " + TAIL_OF_W + " AS stock, w.createdAt, w.archivedAt,"
+          + " " + CapacityReservationRepository.RESERVED_IN_W + " AS reserved"
+          + " FROM warehouse w WHERE w.businessUnitCode IN (:codes)";
+
+  private static final String INSERT =
+      "INSERT INTO warehouse_stock_movement"
+          + " (businessUnitCode, type, quantity, counterpartBusinessUnitCode, recordedAt)"
+          + " VALUES (?, ?, ?, ?, ?)";
+
+  private static final String HISTORY =
+      "SELECT id, type, quantity, counterpartBusinessUnitCode, recordedAt"
+          + " FROM warehouse_stock_movement"
+          + " WHERE businessUnitCode = :code AND id > :afterId ORDER BY id LIMIT :limit";
+
+  @Inject EntityManager entityManager;
+
+  @Inject TransactionSynchronizationRegistry txRegistry;
+
+  @Inject CacheInvalidationBus cacheInvalidation;
+
+  @Inject Event<WarehouseChangedEvent> changes;
+
+  @Override
+  public List<StockChange> append(List<StockMovement> movements) {
+    validate(movements);
+
+    Set<String> codes = new TreeSet<>();
+    movements.forEach(movement -> codes.add(movement.businessUnitCode));
+    WarehouseStockLocks.lock(entityManager, codes);
+    releaseLandedReservations(movements);
+    Map<String, Row> current = currentState(codes);
+
+    // Checked in ledger order, so a batch may move stock out that an earlier entry brought in
+    Map<String, Integer> stock = new LinkedHashMap<>();
+    for (StockMovement movement : movements) {
+      Row row = current.get(movement.businessUnitCode);
+      if (row == null) {
+        throw new ResourceNotFoundException(
+            "Warehouse " + movement.businessUnitCode + " not found. No stock was moved.");
+      }
+      if (row.warehouse.archivedAt != null) {
+        throw new BusinessRuleException(
+            "Warehouse " + movement.businessUnitCode + " is archived. No stock was moved.");
+      }
+      int next =
+          stock.getOrDefault(movement.businessUnitCode, row.warehouse.stock) + movement.delta();
+      if (next < 0) {
+        throw new BusinessRuleException(
+            "Stock of warehouse " + movement.businessUnitCode
+                + " would drop below zero. No stock was moved.");
+      }
+      // Inbound stock may not take capacity reserved for other shipments; stock moving out only
+      // has to stay within the capacity itself
+      int capacity = row.warehouse.capacity == null ? 0 : row.warehouse.capacity;
+      if (next > (movement.delta() > 0 ? capacity - row.reserved : capacity)) {
+        throw new BusinessRuleException(
+            "Stock of warehouse " + movement.businessUnitCode
+                + " would exceed its capacity. No stock was moved.");
+      }
+      stock.put(movement.businessUnitCode, next);
+    }
+
+    insert(movements);
+    long revision = WarehouseStockLocks.nextRevision(entityManager);
+
+    // Cached warehouses carry the tail they were loaded with, so drop them once this commits
+    List<Long> ids = new ArrayList<>();
+    List<StockChange> result = new ArrayList<>(stock.size());
+    stock.forEach(
+        (code, quantity) -> {
+          Row row = current.get(code);
+          ids.add(row.id);
+          Warehouse after = copy(row.warehouse);
+          after.stock = quantity;
+          result.add(new StockChange(row.warehouse, after));
+          changes.fire(new WarehouseChangedEvent(after, false, revision));
+        });
+    evictAfterCompletion(ids);
+    cacheInvalidation.entitiesChanged(DbWarehouse.class, ids);
+    return result;
+  }
+
+  @Override
+  public List<StockMovement> movements(String businessUnitCode, long afterId, int limit) {
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows =
+        entityManager
+            .createNativeQuery(HISTORY)
+            .setParameter("code", businessUnitCode)
+            .setParameter("afterId", afterId)
+            .setParameter("limit", limit)
+            .getResultList();
+
+    List<StockMovement> movements = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      StockMovement movement = new StockMovement();
+      movement.id = ((Number) row[0]).longValue();
+      movement.businessUnitCode = businessUnitCode;
+      movement.type = StockMovement.Type.valueOf((String) row[1]);
+      movement.quantity = Math.abs(((Number) row[2]).intValue());
+      movement.counterpartBusinessUnitCode = (String) row[3];
+      movement.recordedAt = toLocalDateTime(row[4]);
+      movements.add(movement);
+    }
+    return movements;
+  }
+
+  static void validate(List<StockMovement> movements) {
+    if (movements == null || movements.isEmpty()) {
+      throw new InvalidRequestException("Stock movements were not set on request.");
+    }
+    for (StockMovement movement : movements) {
+      if (movement == null || movement.businessUnitCode == null || movement.type == null) {
+        throw new InvalidRequestException(
+            "Stock movement business unit code and type must be set on request.");
+      }
+      if (movement.quantity <= 0) {
+        throw new InvalidRequestException("Stock movement quantity must be positive.");
+      }
+    }
+  }
+
+  // Deletes the reservations the movements land, matched to the movement's own warehouse. An
+  // unknown or expired reservation is ignored: the movement is then checked like any other
+  private void releaseLandedReservations(List<StockMovement> movements) {
+    for (StockMovement movement : movements) {
+      if (movement.reservationId != null && movement.delta() > 0) {
+        entityManager
+            .createNativeQuery(CapacityReservationRepository.RELEASE_LANDED)
+            .setParameter("id", movement.reservationId)
+            .setParameter("code", movement.businessUnitCode)
+            .executeUpdate();
+      }
+    }
+  }
+
+  private Map<String, Row> currentState(Set<String> codes) {
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows =
+        entityManager
+            .createNativeQuery(CURRENT_STATE)
+            .setParameter("codes", new ArrayList<>(codes))
+            .getResultList();
+
+    Map<String, Row> current = new HashMap<>();
+    for (Object[] row : rows) {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = (String) row[1];
+      warehouse.location = (String) row[2];
+      warehouse.capacity = row[3] == null ? null : ((Number) row[3]).intValue();
+      warehouse.stock = ((Number) row[4]).intValue();
+      warehouse.createdAt = toLocalDateTime(row[5]);
+      warehouse.archivedAt = toLocalDateTime(row[6]);
+      current.put(
+          warehouse.businessUnitCode,
+          new Row(((Number) row[0]).longValue(), warehouse, ((Number) row[7]).intValue()));
+    }
+    return current;
+  }
+
+  private void insert(List<StockMovement> movements) {
+    LocalDateTime now = LocalDateTime.now();
+    Timestamp recordedAt = Timestamp.valueOf(now);
+    entityManager
+        .unwrap(Session.class)
+        .doWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (StockMovement movement : movements) {
+                  statement.setString(1, movement.businessUnitCode);
+                  statement.setString(2, movement.type.name());
+                  statement.setInt(3, movement.delta());
+                  if (movement.counterpartBusinessUnitCode == null) {
+                    statement.setNull(4, Types.VARCHAR);
+                  } else {
+                    statement.setString(4, movement.counterpartBusinessUnitCode);
+                  }
+                  statement.setTimestamp(5, recordedAt);
+                  statement.addBatch();
+                }
+                statement.executeBatch();
+              }
+            });
+    movements.forEach(movement -> movement.recordedAt = now);
+  }
+
+  private void evictAfterCompletion(List<Long> ids) {
+    var cache = entityManager.getEntityManagerFactory().getCache();
+    txRegistry.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            ids.forEach(id -> cache.evict(DbWarehouse.class, id));
+          }
+        });
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    Warehouse copy = new Warehouse();
+    copy.businessUnitCode = warehouse.businessUnitCode;
+    copy.location = warehouse.location;
+    copy.capacity = warehouse.capacity;
+    copy.stock = warehouse.stock;
+    copy.createdAt = warehouse.createdAt;
+    copy.archivedAt = warehouse.archivedAt;
+    return copy;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    if (value instanceof Timestamp timestamp) {
+      return timestamp.toLocalDateTime();
+    }
+    return (LocalDateTime) value;
+  }
+
+  private static class Row {
+    final long id;
+    final Warehouse warehouse;
+    // live capacity reservations of the warehouse
+    final int reserved;
+
+    Row(long id, Warehouse warehouse, int reserved) {
+      this.id = id;
+      this.warehouse = warehouse;
+      this.reserved = reserved;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+
+/**
+ * Fired by {@link WarehouseRepository} for every write, carrying the state after the write.
+ * Observers that mirror the table should use {@code TransactionPhase.AFTER_SUCCESS} so they only
+ * see committed changes. Writes made on other instances are read back and fired again by {@link
+ * RemoteWarehouseChanges}, outside any transaction.
+ *
+ * <p>Observers of different transactions may run in any order, so a mirror should keep the
+ * highest revision it applied per business unit code and ignore events with a lower one.
+ */
+public class WarehouseChangedEvent {
+
+  public final Warehouse warehouse;
+
+  // true when the row was deleted; only the business unit code is set then
+  public final boolean removed;
+
+  // Increases with every write of the business unit code, in commit order, across removal and
+  // re-creation; see WarehouseStockLocks.nextRevision
+  public final long revision;
+
+  public WarehouseChangedEvent(Warehouse warehouse, boolean removed, long revision) {
+    this.warehouse = warehouse;
+    this.removed = removed;
+    this.revision = revision;
+  }
+}
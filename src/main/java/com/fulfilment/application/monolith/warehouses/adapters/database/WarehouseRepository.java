@@ -1,55 +1,309 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.datasource.ReadReplicaRouter;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.hibernate.query.NativeQuery;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  // Locks the row in the subquery so RETURNING can report the values it had before the update.
+  // Stock is compared as snapshot plus ledger tail and is not written: a replacement keeps it.
+  // The new capacity must hold the stock and the capacity reserved for inbound shipments.
+  private static final String REPLACE =
+      "UPDATE warehouse w SET region = :region, location = :location, capacity = :capacity,"
+          + " archivedAt = NULL, version = w.version + 1"
+          + " FROM (SELECT w.id, w.location, w.capacity,"
+          + "   COALESCE(w.stock, 0) + " + StockLedgerRepository.TAIL_OF_W + " AS stock,"
+          + "   " + CapacityReservationRepository.RESERVED_IN_W + " AS reserved,"
+          + "   w.createdAt, w.archivedAt FROM warehouse w"
+          + "   WHERE w.businessUnitCode = :buCode FOR UPDATE) prev"
+          + " WHERE w.id = prev.id AND prev.stock = :stock"
+          + " AND :capacity >= prev.stock + prev.reserved"
+          + " RETURNING prev.id, prev.location, prev.capacity, prev.stock, prev.createdAt,"
+          + " prev.archivedAt";
+
+  // Unset fields keep their value; the CASTs type the parameters, which may be null. Setting the
+  // stock takes a new snapshot at the head of the warehouse's ledger, discarding its tail.
+  private static final String PATCH =
+      "UPDATE warehouse w SET region = COALESCE(CAST(:region AS VARCHAR), w.region),"
+          + " location = COALESCE(CAST(:location AS VARCHAR), w.location),"
+          + " capacity = COALESCE(CAST(:capacity AS INTEGER), w.capacity),"
+          + " stock = COALESCE(CAST(:stock AS INTEGER), w.stock),"
+          + " stockLedgerPosition = CASE WHEN CAST(:stock AS INTEGER) IS NULL"
+          + "   THEN w.stockLedgerPosition ELSE prev.ledgerHead END,"
+          + " version = w.version + 1"
+          + " FROM (SELECT w.id, w.location, w.capacity,"
+          + "   COALESCE(w.stock, 0) + " + StockLedgerRepository.TAIL_OF_W + " AS stock,"
+          + "   (SELECT COALESCE(MAX(m.id), w.stockLedgerPosition) FROM warehouse_stock_movement m"
+          + "     WHERE m.businessUnitCode = w.businessUnitCode) AS ledgerHead,"
+          + "   " + CapacityReservationRepository.RESERVED_IN_W + " AS reserved,"
+          + "   w.createdAt, w.archivedAt FROM warehouse w"
+          + "   WHERE w.businessUnitCode = :buCode AND w.archivedAt IS NULL FOR UPDATE) prev"
+          + " WHERE w.id = prev.id"
+          + " AND COALESCE(CAST(:stock AS INTEGER), prev.stock) + prev.reserved"
+          + "   <= COALESCE(CAST(:capacity AS INTEGER), w.capacity)"
+          + " RETURNING prev.id, prev.location, prev.capacity, prev.stock, prev.createdAt,"
+          + " prev.archivedAt";
+
+  // Reads outside a transaction go to the read replica; the use cases' reads stay on the primary
+  @Inject ReadReplicaRouter readReplica;
+
+  @Inject Event<WarehouseChangedEvent> changes;
+
+  @Inject CacheInvalidationBus cacheInvalidation;
+
   @Override
   public List<Warehouse> getAll() {
-    return this.listAll().stream().map(DbWarehouse::toWarehouse).toList();
+    List<DbWarehouse> dbEntities =
+        readReplica.read(
+            session ->
+                session.createSelectionQuery("from DbWarehouse", DbWarehouse.class).getResultList());
+    return dbEntities.stream().map(DbWarehouse::toWarehouse).toList();
+  }
+
+  @Override
+  public List<Warehouse> getAllInRegion(String region) {
+    // Filtering on the partition key lets PostgreSQL scan only that region's partition
+    List<DbWarehouse> dbEntities =
+        readReplica.read(
+            session ->
+                session
+                    .createSelectionQuery(
+                        "from DbWarehouse where region = :region order by location",
+                        DbWarehouse.class)
+                    .setParameter("region", region)
+                    .getResultList());
+    return dbEntities.stream().map(DbWarehouse::toWarehouse).toList();
+  }
+
+  @Override
+  public long countActiveByLocation(String location) {
+    return readReplica.read(
+        session ->
+            session
+                .createSelectionQuery(
+                    "select count(*) from DbWarehouse where region = :region"
+                        + " and location = :location and archivedAt is null",
+                    Long.class)
+                .setParameter("region", Location.regionOf(location))
+                .setParameter("location", location)
+                .getSingleResult());
   }
 
   @Override
   public void create(Warehouse warehouse) {
+    // Orders this creation after a removal of the same code; see WarehouseChangedEvent
+    WarehouseStockLocks.lock(getEntityManager(), List.of(warehouse.businessUnitCode));
     DbWarehouse dbEntity = new DbWarehouse();
     // Map fields from domain model to DB entity
     dbEntity.businessUnitCode = warehouse.businessUnitCode;
+    dbEntity.region = Location.regionOf(warehouse.location);
     dbEntity.location = warehouse.location;
     dbEntity.capacity = warehouse.capacity;
     dbEntity.stock = warehouse.stock;
     dbEntity.createdAt = LocalDateTime.now();
     this.persist(dbEntity);
+    // Nothing to evict, but the warehouse lists here and on other instances are now out of date
+    cacheInvalidation.entityChanged(DbWarehouse.class, dbEntity.id);
+    changes.fire(new WarehouseChangedEvent(dbEntity.toWarehouse(), false, nextRevision()));
   }
 
   @Override
   public void update(Warehouse warehouse) {
+    WarehouseStockLocks.lock(getEntityManager(), List.of(warehouse.businessUnitCode));
     DbWarehouse dbEntity = find("businessUnitCode", warehouse.businessUnitCode).firstResult();
     if (dbEntity != null) {
+      dbEntity.region = Location.regionOf(warehouse.location);
       dbEntity.location = warehouse.location;
       dbEntity.capacity = warehouse.capacity;
-      dbEntity.stock = warehouse.stock;
+      // Stock moves through the ledger (or a patch), never through a plain update
       dbEntity.archivedAt = warehouse.archivedAt;
       // Panache manages the entity, so it will auto-update on tx commit
+      cacheInvalidation.entityChanged(DbWarehouse.class, dbEntity.id);
+      changes.fire(new WarehouseChangedEvent(dbEntity.toWarehouse(), false, nextRevision()));
     }
   }
 
+  @Override
+  public Warehouse replaceIfStockMatches(Warehouse replacement) {
+    Warehouse previous =
+        updateReturningPrevious(
+            REPLACE,
+            replacement.businessUnitCode,
+            Location.regionOf(replacement.location),
+            replacement.location,
+            replacement.capacity,
+            replacement.stock);
+    if (previous != null) {
+      Warehouse replaced = new Warehouse();
+      replaced.businessUnitCode = replacement.businessUnitCode;
+      replaced.location = replacement.location;
+      replaced.capacity = replacement.capacity;
+      replaced.stock = replacement.stock;
+      replaced.createdAt = previous.createdAt;
+      changes.fire(new WarehouseChangedEvent(replaced, false, nextRevision()));
+    }
+    return previous;
+  }
+
+  @Override
+  public Warehouse patchActive(String businessUnitCode, WarehousePatch patch) {
+    Warehouse previous =
+        updateReturningPrevious(
+            PATCH,
+            businessUnitCode,
+            patch.location == null ? null : Location.regionOf(patch.location),
+            patch.location,
+            patch.capacity,
+            patch.stock);
+    if (previous != null) {
+      changes.fire(new WarehouseChangedEvent(patch.applyTo(previous), false, nextRevision()));
+    }
+    return previous;
+  }
+
+  // Runs REPLACE or PATCH and maps the returned previous row, or returns null if none matched
+  private Warehouse updateReturningPrevious(
+      String sql,
+      String buCode,
+      String region,
+      String location,
+      Integer capacity,
+      Integer stock) {
+    // Both check the stock and the reservations, so no ledger append or reservation may land
+    // between the check and the write
+    WarehouseStockLocks.lock(getEntityManager(), List.of(buCode));
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows =
+        getEntityManager()
+            .createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .setParameter("region", region)
+            .setParameter("location", location)
+            .setParameter("capacity", capacity)
+            .setParameter("stock", stock)
+            .setParameter("buCode", buCode)
+            .addScalar("id", Long.class)
+            .addScalar("location", String.class)
+            .addScalar("capacity", Integer.class)
+            .addScalar("stock", Integer.class)
+            .addScalar("createdAt", LocalDateTime.class)
+            .addScalar("archivedAt", LocalDateTime.class)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return null;
+    }
+
+    // The statement bypassed the persistence context and the second-level cache, so drop any copy
+    // they hold (getReference only hands out a proxy when the entity is not managed)
+    Object[] row = rows.get(0);
+    var entityManager = getEntityManager();
+    entityManager.detach(entityManager.getReference(DbWarehouse.class, row[0]));
+    entityManager.getEntityManagerFactory().getCache().evict(DbWarehouse.class, row[0]);
+    cacheInvalidation.entityChanged(DbWarehouse.class, row[0]);
+
+    Warehouse previous = new Warehouse();
+    previous.businessUnitCode = buCode;
+    previous.location = (String) row[1];
+    previous.capacity = (Integer) row[2];
+    previous.stock = (Integer) row[3];
+    previous.createdAt = (LocalDateTime) row[4];
+    previous.archivedAt = (LocalDateTime) row[5];
+    return previous;
+  }
+
   @Override
   public void remove(Warehouse warehouse) {
+    WarehouseStockLocks.lock(getEntityManager(), List.of(warehouse.businessUnitCode));
     delete("businessUnitCode", warehouse.businessUnitCode);
+    getEntityManager()
+        .createNativeQuery("DELETE FROM warehouse_stock_movement WHERE businessUnitCode = :buCode")
+        .unwrap(NativeQuery.class)
+        .addSynchronizedEntityClass(DbWarehouse.class)
+        .setParameter("buCode", warehouse.businessUnitCode)
+        .executeUpdate();
+    // A bulk delete does not report the ids, so other instances drop the whole region
+    cacheInvalidation.regionChanged(DbWarehouse.class);
+    Warehouse removed = new Warehouse();
+    removed.businessUnitCode = warehouse.businessUnitCode;
+    changes.fire(new WarehouseChangedEvent(removed, true, nextRevision()));
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
-    return find("businessUnitCode", buCode)
-            .firstResultOptional()
-            .map(DbWarehouse::toWarehouse)
-            .orElse(null);
+    DbWarehouse dbEntity =
+        readReplica.read(
+            session ->
+                session
+                    .createSelectionQuery(
+                        "from DbWarehouse where businessUnitCode = :buCode", DbWarehouse.class)
+                    .setParameter("buCode", buCode)
+                    .setMaxResults(1)
+                    .getSingleResultOrNull());
+    return dbEntity == null ? null : dbEntity.toWarehouse();
+  }
+
+  @Override
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    List<DbWarehouse> dbEntities =
+        readReplica.read(
+            session ->
+                session
+                    .createSelectionQuery(
+                        "from DbWarehouse where businessUnitCode in :buCodes", DbWarehouse.class)
+                    .setParameter("buCodes", buCodes)
+                    .getResultList());
+    return dbEntities.stream().map(DbWarehouse::toWarehouse).toList();
+  }
+
+  // Business unit codes of the given warehouse ids, or of every warehouse when ids is null
+  List<String> businessUnitCodes(Collection<Long> ids) {
+    return ids == null
+        ? find("select businessUnitCode from DbWarehouse").project(String.class).list()
+        : find("select businessUnitCode from DbWarehouse where id in ?1", ids)
+            .project(String.class)
+            .list();
+  }
+
+  /**
+   * Reads the current state of the warehouses under their stock locks and returns it as events
+   * with a revision newer than any earlier write of them; codes that no longer exist come back as
+   * removals. Must run in a transaction.
+   */
+  List<WarehouseChangedEvent> currentStates(Collection<String> buCodes) {
+    WarehouseStockLocks.lock(getEntityManager(), buCodes);
+    long revision = nextRevision();
+    Set<String> missing = new TreeSet<>(buCodes);
+    List<WarehouseChangedEvent> states = new ArrayList<>(buCodes.size());
+    for (DbWarehouse dbEntity : list("businessUnitCode in ?1", buCodes)) {
+      missing.remove(dbEntity.businessUnitCode);
+      states.add(new WarehouseChangedEvent(dbEntity.toWarehouse(), false, revision));
+    }
+    for (String buCode : missing) {
+      Warehouse removed = new Warehouse();
+      removed.businessUnitCode = buCode;
+      states.add(new WarehouseChangedEvent(removed, true, revision));
+    }
+    return states;
+  }
+
+  long nextRevision() {
+    return WarehouseStockLocks.nextRevision(getEntityManager());
   }
 }
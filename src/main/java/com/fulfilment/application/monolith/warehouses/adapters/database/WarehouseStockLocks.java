@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collection;
+import org.hibernate.Session;
+
+/**
+ * Transaction-scoped PostgreSQL advisory locks on the stock of warehouses, keyed by business unit
+ * code. Ledger appends, the compactor and every write of WarehouseRepository take them, so a
+ * capacity check and the write it guards see no concurrent stock change. The lock is held
+ * until the transaction ends and touches no row, so a busy warehouse costs no dead tuples.
+ *
+ * <p>Locks are always taken in ascending key order, so transactions that lock several warehouses
+ * cannot deadlock on each other. Two codes may share a key; that only serialises them.
+ *
+ * <p>Location locks live in a namespace of their own and serialise the capacity reservations
+ * held against a location. No transaction takes a location lock after a warehouse lock.
+ *
+ * <p>Every write of a warehouse takes its lock, so a revision drawn while holding it (see {@link
+ * #nextRevision}) orders the writes of one business unit code as they commit.
+ */
+final class WarehouseStockLocks {
+
+  // first half of every key, keeping these locks apart from other advisory lock users
+  static final int NAMESPACE = 0x5354_4b4c;
+
+  static final int LOCATION_NAMESPACE = 0x4c4f_434b;
+
+  private static final String LOCK =
+      "SELECT pg_advisory_xact_lock(?, key) FROM unnest(?) AS key";
+
+  private static final String NEXT_REVISION = "SELECT nextval('warehouse_change_seq')";
+
+  private WarehouseStockLocks() {}
+
+  static void lock(EntityManager entityManager, Collection<String> businessUnitCodes) {
+    lock(entityManager, NAMESPACE, businessUnitCodes);
+  }
+
+  static void lockLocations(EntityManager entityManager, Collection<String> locations) {
+    lock(entityManager, LOCATION_NAMESPACE, locations);
+  }
+
+  // Call only while holding the locks of the warehouses the revision is for
+  static long nextRevision(EntityManager entityManager) {
+    return ((Number) entityManager.createNativeQuery(NEXT_REVISION).getSingleResult()).longValue();
+  }
+
+  private static void lock(EntityManager entityManager, int namespace, Collection<String> names) {
+    int[] keys = names.stream().mapToInt(String::hashCode).sorted().distinct().toArray();
+    if (keys.length == 0) {
+      return;
+    }
+    entityManager
+        .unwrap(Session.class)
+        .doWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement(LOCK)) {
+                statement.setInt(1, namespace);
+                statement.setArray(
+                    2, connection.createArrayOf("integer", Arrays.stream(keys).boxed().toArray()));
+                // unnest yields the keys in array order, so they are locked in that order
+                try (ResultSet locked = statement.executeQuery()) {
+                  while (locked.next()) {
+                    // each row is one lock acquired
+                  }
+                }
+              }
+            });
+  }
+}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import java.util.Set;
+
+/**
+ * Fired by {@link RemoteWarehouseChanges} once it has read back every warehouse, which it does
+ * when another instance removed one or changes may have been missed. Carries the codes that
+ * existed when the read began; a mirror drops any other warehouse it holds, unless it applied a
+ * revision of it at or after {@link #revision}, as that one was written after the codes were read.
+ */
+public class WarehousesReloadedEvent {
+
+  public final Set<String> businessUnitCodes;
+
+  public final long revision;
+
+  public WarehousesReloadedEvent(Set<String> businessUnitCodes, long revision) {
+    this.businessUnitCodes = businessUnitCodes;
+    this.revision = revision;
+  }
+}
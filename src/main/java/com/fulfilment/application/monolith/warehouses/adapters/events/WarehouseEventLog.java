@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.warehouses.adapters.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size ring of the latest events, each with a monotonically increasing offset, fanned out
+ * to the current subscribers as it is appended. A subscriber can start from an earlier offset as
+ * long as that event is still in the ring, so a reconnecting client resumes without gaps.
+ *
+ * <p>Offsets start at 0 in every process, so each log also has a random epoch. An offset is only
+ * meaningful together with the epoch of the log that handed it out; after a restart, or on
+ * another instance, the same number names a different event.
+ */
+public class WarehouseEventLog {
+
+  private final String epoch =
+      Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), Character.MAX_RADIX);
+  private final Offset[] ring;
+  private final List<Consumer<Offset>> subscribers = new CopyOnWriteArrayList<>();
+  private long nextOffset;
+
+  public WarehouseEventLog(int capacity) {
+    this.ring = new Offset[capacity];
+  }
+
+  public synchronized long append(WarehouseLifecycleEvent event) {
+    Offset entry = new Offset(nextOffset, event);
+    ring[(int) (nextOffset % ring.length)] = entry;
+    nextOffset++;
+    for (Consumer<Offset> subscriber : subscribers) {
+      subscriber.accept(entry);
+    }
+    return entry.offset;
+  }
+
+  /**
+   * Hands the retained events from {@code fromOffset} on to the subscriber, then every new one.
+   * Replay and registration happen under the append lock, so nothing is missed or repeated.
+   * Returns the first offset actually replayed, which is later than requested when the ring has
+   * already overwritten the requested events.
+   */
+  public synchronized long subscribe(long fromOffset, Consumer<Offset> subscriber) {
+    long start = Math.max(fromOffset, oldestOffset());
+    for (long offset = start; offset < nextOffset; offset++) {
+      subscriber.accept(ring[(int) (offset % ring.length)]);
+    }
+    subscribers.add(subscriber);
+    return start;
+  }
+
+  public void unsubscribe(Consumer<Offset> subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  public String epoch() {
+    return epoch;
+  }
+
+  public synchronized long nextOffset() {
+    return nextOffset;
+  }
+
+  private long oldestOffset() {
+    return Math.max(0, nextOffset - ring.length);
+  }
+
+  public static class Offset {
+    public final long offset;
+    public final WarehouseLifecycleEvent event;
+
+    Offset(long offset, WarehouseLifecycleEvent event) {
+      this.offset = offset;
+      this.event = event;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.fulfilment.application.monolith.warehouses.adapters.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+// Publishes lifecycle events into the in-process event log once their transaction has committed
+@ApplicationScoped
+public class WarehouseEventStream implements WarehouseEventPublisher {
+
+  @ConfigProperty(name = "app.warehouse-events.buffer-size", defaultValue = "1024")
+  int bufferSize;
+
+  @Inject TransactionSynchronizationRegistry txRegistry;
+
+  private WarehouseEventLog log;
+
+  @PostConstruct
+  void init() {
+    log = new WarehouseEventLog(bufferSize);
+  }
+
+  public WarehouseEventLog log() {
+    return log;
+  }
+
+  @Override
+  public void publish(WarehouseLifecycleEvent event) {
+    int status = txRegistry.getTransactionStatus();
+    if (status == Status.STATUS_NO_TRANSACTION) {
+      log.append(event);
+      return;
+    }
+    if (status != Status.STATUS_ACTIVE) {
+      // Marked for rollback or already completing: the change will not commit, or can no longer
+      // be followed to its commit, so subscribers must not see it
+      return;
+    }
+    txRegistry.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            if (status == Status.STATUS_COMMITTED) {
+              log.append(event);
+            }
+          }
+        });
+  }
+}
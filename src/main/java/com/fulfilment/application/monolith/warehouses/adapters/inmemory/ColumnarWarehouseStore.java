@@ -0,0 +1,377 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link WarehouseStore} held entirely in memory, for simulations that replay large numbers of
+ * operations through the real use cases without a database.
+ *
+ * <p>Warehouses are stored as columns of primitives, one array per field: capacity and stock as
+ * ints, the location as an interned id and timestamps as epoch seconds (UTC, so sub-second
+ * precision is dropped). Business unit codes are found through an open-addressing hash table
+ * with linear probing that maps a code to its row. Removing a warehouse moves the last row into
+ * its place, so rows stay dense. Active warehouses are counted per location as they change, so
+ * the density check of a create is a single array read.
+ *
+ * <p>The semantics follow {@code WarehouseRepository}, including the conditional writes of
+ * {@link #replaceIfStockMatches} and {@link #patchActive}. The store is not thread-safe and fires
+ * no change events: each simulation owns its own instance.
+ */
+public class ColumnarWarehouseStore implements WarehouseStore {
+
+  private static final int NO_INT = Integer.MIN_VALUE;
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final int INITIAL_ROWS = 64;
+
+  private int size;
+  private String[] businessUnitCodes = new String[INITIAL_ROWS];
+  private int[] codeHashes = new int[INITIAL_ROWS];
+  private int[] locationIds = new int[INITIAL_ROWS];
+  private int[] capacities = new int[INITIAL_ROWS];
+  private int[] stocks = new int[INITIAL_ROWS];
+  private long[] createdAt = new long[INITIAL_ROWS];
+  private long[] archivedAt = new long[INITIAL_ROWS];
+
+  // row + 1 per slot, 0 for an empty slot; kept at most half full
+  private int[] slots = new int[INITIAL_ROWS * 2];
+
+  private final Map<String, Integer> locationIdsByName = new HashMap<>();
+  private String[] locationNames = new String[16];
+  private String[] locationRegions = new String[16];
+  private int[] activeByLocation = new int[16];
+
+  public ColumnarWarehouseStore() {}
+
+  public ColumnarWarehouseStore(Collection<Warehouse> warehouses) {
+    warehouses.forEach(this::insert);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    List<Warehouse> result = new ArrayList<>(size);
+    for (int row = 0; row < size; row++) {
+      result.add(toWarehouse(row));
+    }
+    return result;
+  }
+
+  @Override
+  public List<Warehouse> getAllInRegion(String region) {
+    List<Warehouse> result = new ArrayList<>();
+    for (int row = 0; row < size; row++) {
+      int location = locationIds[row];
+      if (location >= 0 && locationRegions[location].equals(region)) {
+        result.add(toWarehouse(row));
+      }
+    }
+    result.sort(Comparator.comparing(warehouse -> warehouse.location));
+    return result;
+  }
+
+  @Override
+  public long countActiveByLocation(String location) {
+    Integer id = locationIdsByName.get(location);
+    return id == null ? 0 : activeByLocation[id];
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    if (findRow(warehouse.businessUnitCode) >= 0) {
+      throw new ConflictException("Business Unit Code already exists");
+    }
+    int row = insert(warehouse);
+    if (createdAt[row] == NO_TIME) {
+      createdAt[row] = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+    // like a new row in the table, a created warehouse always starts active
+    if (archivedAt[row] != NO_TIME) {
+      archivedAt[row] = NO_TIME;
+      countActive(row, 1);
+    }
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    int row = findRow(warehouse.businessUnitCode);
+    if (row < 0) {
+      return;
+    }
+    countActive(row, -1);
+    locationIds[row] = locationId(warehouse.location);
+    capacities[row] = toInt(warehouse.capacity);
+    archivedAt[row] = toEpochSecond(warehouse.archivedAt);
+    countActive(row, 1);
+  }
+
+  @Override
+  public Warehouse replaceIfStockMatches(Warehouse replacement) {
+    int row = findRow(replacement.businessUnitCode);
+    // NULL never compares equal in the repository's UPDATE, so neither does a missing value here
+    if (row < 0
+        || replacement.capacity == null
+        || replacement.stock == null
+        || stocks[row] == NO_INT
+        || stocks[row] != replacement.stock
+        || replacement.capacity < stocks[row]) {
+      return null;
+    }
+    Warehouse previous = toWarehouse(row);
+    countActive(row, -1);
+    locationIds[row] = locationId(replacement.location);
+    capacities[row] = replacement.capacity;
+    archivedAt[row] = NO_TIME;
+    countActive(row, 1);
+    return previous;
+  }
+
+  @Override
+  public Warehouse patchActive(String businessUnitCode, WarehousePatch patch) {
+    int row = findRow(businessUnitCode);
+    if (row < 0 || archivedAt[row] != NO_TIME) {
+      return null;
+    }
+    int capacity = patch.capacity != null ? patch.capacity : capacities[row];
+    int stock = patch.stock != null ? patch.stock : stocks[row];
+    if (capacity == NO_INT || stock == NO_INT || stock > capacity) {
+      return null;
+    }
+    Warehouse previous = toWarehouse(row);
+    if (patch.location != null) {
+      countActive(row, -1);
+      locationIds[row] = locationId(patch.location);
+      countActive(row, 1);
+    }
+    capacities[row] = capacity;
+    stocks[row] = stock;
+    return previous;
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    int row = findRow(warehouse.businessUnitCode);
+    if (row < 0) {
+      return;
+    }
+    countActive(row, -1);
+    deleteSlot(warehouse.businessUnitCode, codeHashes[row]);
+
+    // Move the last row into the gap and point its slot at the new row
+    int last = --size;
+    if (row != last) {
+      businessUnitCodes[row] = businessUnitCodes[last];
+      codeHashes[row] = codeHashes[last];
+      locationIds[row] = locationIds[last];
+      capacities[row] = capacities[last];
+      stocks[row] = stocks[last];
+      createdAt[row] = createdAt[last];
+      archivedAt[row] = archivedAt[last];
+      slots[slotOf(businessUnitCodes[row], codeHashes[row])] = row + 1;
+    }
+    businessUnitCodes[last] = null;
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    int row = findRow(buCode);
+    return row < 0 ? null : toWarehouse(row);
+  }
+
+  @Override
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    List<Warehouse> result = new ArrayList<>(buCodes.size());
+    for (String buCode : buCodes) {
+      int row = findRow(buCode);
+      if (row >= 0) {
+        result.add(toWarehouse(row));
+      }
+    }
+    return result;
+  }
+
+  /** Occupancy of the active warehouses per location, straight from the columns. */
+  public List<LocationOccupancy> occupancyByLocation() {
+    LocationOccupancy[] byLocation = new LocationOccupancy[locationIdsByName.size()];
+    for (int row = 0; row < size; row++) {
+      int location = locationIds[row];
+      if (location < 0 || archivedAt[row] != NO_TIME) {
+        continue;
+      }
+      if (byLocation[location] == null) {
+        byLocation[location] = new LocationOccupancy(locationNames[location]);
+      }
+      int capacity = capacities[row] == NO_INT ? 0 : capacities[row];
+      int stock = stocks[row] == NO_INT ? 0 : stocks[row];
+      byLocation[location].addBucket(
+          LocationOccupancy.utilisationBucket(capacity, stock), 1, capacity, stock);
+    }
+    List<LocationOccupancy> result = new ArrayList<>();
+    for (LocationOccupancy occupancy : byLocation) {
+      if (occupancy != null) {
+        result.add(occupancy);
+      }
+    }
+    result.sort(Comparator.comparing(occupancy -> occupancy.location));
+    return result;
+  }
+
+  // Appends a row as given, archived or not, without touching the active counts
+  private int insert(Warehouse warehouse) {
+    if (size == businessUnitCodes.length) {
+      growRows();
+    }
+    int row = size++;
+    int hash = hash(warehouse.businessUnitCode);
+    businessUnitCodes[row] = warehouse.businessUnitCode;
+    codeHashes[row] = hash;
+    locationIds[row] = locationId(warehouse.location);
+    capacities[row] = toInt(warehouse.capacity);
+    stocks[row] = toInt(warehouse.stock);
+    createdAt[row] = toEpochSecond(warehouse.createdAt);
+    archivedAt[row] = toEpochSecond(warehouse.archivedAt);
+    slots[freeSlot(hash)] = row + 1;
+    if (archivedAt[row] == NO_TIME) {
+      countActive(row, 1);
+    }
+    return row;
+  }
+
+  private void countActive(int row, int delta) {
+    if (archivedAt[row] == NO_TIME && locationIds[row] >= 0) {
+      activeByLocation[locationIds[row]] += delta;
+    }
+  }
+
+  private int findRow(String buCode) {
+    if (buCode == null) {
+      return -1;
+    }
+    int hash = hash(buCode);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int row = slots[slot] - 1;
+      if (codeHashes[row] == hash && buCode.equals(businessUnitCodes[row])) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  private int slotOf(String buCode, int hash) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (!buCode.equals(businessUnitCodes[slots[slot] - 1])) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int freeSlot(int hash) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // Backward-shift deletion: later entries of the probe run move up so lookups need no tombstones
+  private void deleteSlot(String buCode, int hash) {
+    int mask = slots.length - 1;
+    int gap = slotOf(buCode, hash);
+    for (int slot = (gap + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int home = codeHashes[slots[slot] - 1] & mask;
+      // the entry may fill the gap unless its home lies cyclically in (gap, slot]
+      boolean homeAfterGap = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+      if (!homeAfterGap) {
+        slots[gap] = slots[slot];
+        gap = slot;
+      }
+    }
+    slots[gap] = 0;
+  }
+
+  private void growRows() {
+    int rows = businessUnitCodes.length * 2;
+    businessUnitCodes = Arrays.copyOf(businessUnitCodes, rows);
+    codeHashes = Arrays.copyOf(codeHashes, rows);
+    locationIds = Arrays.copyOf(locationIds, rows);
+    capacities = Arrays.copyOf(capacities, rows);
+    stocks = Arrays.copyOf(stocks, rows);
+    createdAt = Arrays.copyOf(createdAt, rows);
+    archivedAt = Arrays.copyOf(archivedAt, rows);
+
+    slots = new int[rows * 2];
+    for (int row = 0; row < size; row++) {
+      slots[freeSlot(codeHashes[row])] = row + 1;
+    }
+  }
+
+  private int locationId(String location) {
+    if (location == null) {
+      return -1;
+    }
+    Integer id = locationIdsByName.get(location);
+    if (id != null) {
+      return id;
+    }
+    int next = locationIdsByName.size();
+    if (next == locationNames.length) {
+      locationNames = Arrays.copyOf(locationNames, next * 2);
+      locationRegions = Arrays.copyOf(locationRegions, next * 2);
+      activeByLocation = Arrays.copyOf(activeByLocation, next * 2);
+    }
+    locationNames[next] = location;
+    locationRegions[next] = Location.regionOf(location);
+    locationIdsByName.put(location, next);
+    return next;
+  }
+
+  private Warehouse toWarehouse(int row) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCodes[row];
+    warehouse.location = locationIds[row] < 0 ? null : locationNames[locationIds[row]];
+    warehouse.capacity = capacities[row] == NO_INT ? null : capacities[row];
+    warehouse.stock = stocks[row] == NO_INT ? null : stocks[row];
+    warehouse.createdAt = toDateTime(createdAt[row]);
+    warehouse.archivedAt = toDateTime(archivedAt[row]);
+    return warehouse;
+  }
+
+  // spreads String.hashCode so codes differing only in their last characters use distinct slots
+  private static int hash(String buCode) {
+    int h = buCode.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int toInt(Integer value) {
+    return value == null ? NO_INT : value;
+  }
+
+  private static long toEpochSecond(LocalDateTime dateTime) {
+    return dateTime == null ? NO_TIME : dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  private static LocalDateTime toDateTime(long epochSecond) {
+    return epochSecond == NO_TIME
+        ? null
+        : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+  }
+}
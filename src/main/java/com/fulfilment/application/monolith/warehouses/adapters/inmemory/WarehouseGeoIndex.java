@@ -0,0 +1,348 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehousesReloadedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory spatial index of the active warehouses for nearest-warehouse queries.
+ *
+ * <p>Warehouses are placed at the coordinates of their location and bucketed into a uniform grid
+ * of {@value #CELL_KM} km cubes over points on the unit sphere, so distances are plain chords with
+ * no special cases at the poles or the antimeridian. Each cell keeps its warehouses sorted by free
+ * capacity (capacity - stock), so a minimum free capacity is a tail-set view of the cell.
+ *
+ * <p>A query visits rings of cells around the point, nearest first, keeping the k best candidates
+ * in a bounded heap, and stops as soon as no unvisited cell can hold anything closer than the k-th
+ * candidate. When the rings grow larger than the number of occupied cells (a point far away from
+ * every warehouse) it switches to ordering the remaining occupied cells by their distance bound.
+ *
+ * <p>Like {@link WarehouseSearchIndex}, the index is rebuilt from the store at startup, follows
+ * every committed write of {@code WarehouseRepository} and those of other instances, and ignores
+ * change events older than the last one applied for their warehouse.
+ */
+@ApplicationScoped
+public class WarehouseGeoIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0088;
+
+  static final double CELL_KM = 5;
+
+  // cell edge in chord units of the unit sphere
+  private static final double CELL = CELL_KM / EARTH_RADIUS_KM;
+
+  // cell coordinates are offset into 21 bits each and packed into one long key
+  private static final int AXIS_OFFSET = 1 << 20;
+
+  private static final Comparator<Entry> BY_FREE_CAPACITY =
+      Comparator.comparingInt((Entry e) -> e.freeCapacity)
+          .thenComparing(e -> e.warehouse.businessUnitCode);
+
+  // farthest candidate on top, so the heap drops it when a closer one arrives
+  private static final Comparator<Candidate> FARTHEST_FIRST =
+      Comparator.comparingDouble((Candidate c) -> c.chord).reversed();
+
+  private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+  private final Map<String, Entry> byBusinessUnitCode = new ConcurrentHashMap<>();
+
+  // Highest revision applied per business unit code, removals included; guarded by this
+  private final Map<String, Long> revisions = new HashMap<>();
+
+  @Inject WarehouseStore warehouseStore;
+
+  @Inject LocationResolver locationResolver;
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild(warehouseStore.getAll());
+  }
+
+  synchronized void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Long applied = revisions.get(event.warehouse.businessUnitCode);
+    if (applied != null && applied > event.revision) {
+      return;
+    }
+    revisions.put(event.warehouse.businessUnitCode, event.revision);
+    if (event.removed) {
+      remove(event.warehouse.businessUnitCode);
+    } else {
+      put(event.warehouse);
+    }
+  }
+
+  synchronized void onWarehousesReloaded(@Observes WarehousesReloadedEvent event) {
+    for (String businessUnitCode : List.copyOf(byBusinessUnitCode.keySet())) {
+      if (!event.businessUnitCodes.contains(businessUnitCode)
+          && revisions.getOrDefault(businessUnitCode, 0L) < event.revision) {
+        remove(businessUnitCode);
+      }
+    }
+  }
+
+  public synchronized void rebuild(List<Warehouse> warehouses) {
+    cells.clear();
+    byBusinessUnitCode.clear();
+    revisions.clear();
+    warehouses.forEach(this::put);
+  }
+
+  /**
+   * Indexes the warehouse, replacing its previous entry. Archived warehouses and warehouses whose
+   * location has no coordinates are dropped.
+   */
+  public synchronized void put(Warehouse warehouse) {
+    remove(warehouse.businessUnitCode);
+    if (warehouse.archivedAt != null || warehouse.businessUnitCode == null) {
+      return;
+    }
+    Location location = resolveLocation(warehouse.location);
+    if (location == null || !location.hasCoordinates()) {
+      return;
+    }
+    Entry entry = new Entry(warehouse, location.latitude, location.longitude);
+    byBusinessUnitCode.put(warehouse.businessUnitCode, entry);
+    cells.computeIfAbsent(entry.cellKey, key -> new Cell(entry)).entries.add(entry);
+  }
+
+  public synchronized void remove(String businessUnitCode) {
+    Entry previous = byBusinessUnitCode.remove(businessUnitCode);
+    if (previous == null) {
+      return;
+    }
+    Cell cell = cells.get(previous.cellKey);
+    cell.entries.remove(previous);
+    if (cell.entries.isEmpty()) {
+      cells.remove(previous.cellKey);
+    }
+  }
+
+  /**
+   * Up to {@code limit} active warehouses with at least the given free capacity, nearest to the
+   * point first.
+   */
+  public List<NearbyWarehouse> nearest(
+      double latitude, double longitude, int limit, int minFreeCapacity) {
+    if (limit <= 0 || cells.isEmpty()) {
+      return List.of();
+    }
+    double[] point = toUnitVector(latitude, longitude);
+    int ci = cellIndex(point[0]);
+    int cj = cellIndex(point[1]);
+    int ck = cellIndex(point[2]);
+    Entry lowest = Entry.probe(minFreeCapacity);
+    PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, FARTHEST_FIRST);
+
+    for (int ring = 0; ; ring++) {
+      // every cell outside rings 0..ring-1 is at least (ring - 1) cells away from the point
+      if (ring > 0 && isComplete(best, limit, (ring - 1) * CELL)) {
+        break;
+      }
+      long ringCells = ring == 0 ? 1 : 24L * ring * ring + 2;
+      if (ringCells > cells.size()) {
+        visitRemainingCells(point, ci, cj, ck, ring, lowest, limit, best);
+        break;
+      }
+      for (int di = -ring; di <= ring; di++) {
+        for (int dj = -ring; dj <= ring; dj++) {
+          boolean onFace = Math.abs(di) == ring || Math.abs(dj) == ring;
+          // inside the ring only the two cap cells along k are new
+          int step = onFace ? 1 : Math.max(1, 2 * ring);
+          for (int dk = -ring; dk <= ring; dk += step) {
+            Cell cell = cells.get(cellKey(ci + di, cj + dj, ck + dk));
+            if (cell != null) {
+              collect(cell, point, lowest, limit, best);
+            }
+          }
+        }
+      }
+    }
+
+    Candidate[] sorted = best.toArray(new Candidate[0]);
+    Arrays.sort(sorted, FARTHEST_FIRST.reversed());
+    List<NearbyWarehouse> result = new ArrayList<>(sorted.length);
+    for (Candidate candidate : sorted) {
+      result.add(new NearbyWarehouse(candidate.entry.warehouse, toKilometres(candidate.chord)));
+    }
+    return result;
+  }
+
+  // Falls back to the occupied cells themselves, ordered by the distance from the point to the
+  // cell's cube, once walking empty rings would cost more than looking at every occupied cell.
+  private void visitRemainingCells(
+      double[] point,
+      int ci,
+      int cj,
+      int ck,
+      int visitedRings,
+      Entry lowest,
+      int limit,
+      PriorityQueue<Candidate> best) {
+    List<Candidate> remaining = new ArrayList<>();
+    for (Cell cell : cells.values()) {
+      int ring =
+          Math.max(Math.abs(cell.i - ci), Math.max(Math.abs(cell.j - cj), Math.abs(cell.k - ck)));
+      if (ring >= visitedRings) {
+        remaining.add(new Candidate(cell, cell.distanceTo(point)));
+      }
+    }
+    remaining.sort(Comparator.comparingDouble(c -> c.chord));
+    for (Candidate next : remaining) {
+      if (isComplete(best, limit, next.chord)) {
+        return;
+      }
+      collect(next.cell, point, lowest, limit, best);
+    }
+  }
+
+  private static void collect(
+      Cell cell, double[] point, Entry lowest, int limit, PriorityQueue<Candidate> best) {
+    for (Entry entry : cell.entries.tailSet(lowest, true)) {
+      double chord = entry.chordTo(point);
+      if (best.size() < limit) {
+        best.add(new Candidate(entry, chord));
+      } else if (chord < best.peek().chord) {
+        best.poll();
+        best.add(new Candidate(entry, chord));
+      }
+    }
+  }
+
+  private static boolean isComplete(PriorityQueue<Candidate> best, int limit, double bound) {
+    return best.size() == limit && best.peek().chord <= bound;
+  }
+
+  private Location resolveLocation(String identifier) {
+    try {
+      return locationResolver.resolveByIdentifier(identifier);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  static double[] toUnitVector(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    double cosLat = Math.cos(lat);
+    return new double[] {cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+  }
+
+  // great-circle distance for a chord between two points of the unit sphere
+  static double toKilometres(double chord) {
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, chord / 2));
+  }
+
+  private static int cellIndex(double coordinate) {
+    return (int) Math.floor(coordinate / CELL);
+  }
+
+  private static long cellKey(int i, int j, int k) {
+    return ((long) (i + AXIS_OFFSET) << 42) | ((long) (j + AXIS_OFFSET) << 21) | (k + AXIS_OFFSET);
+  }
+
+  private static class Cell {
+    final int i;
+    final int j;
+    final int k;
+    final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(BY_FREE_CAPACITY);
+
+    Cell(Entry first) {
+      this.i = first.i;
+      this.j = first.j;
+      this.k = first.k;
+    }
+
+    double distanceTo(double[] point) {
+      double dx = axisGap(point[0], i);
+      double dy = axisGap(point[1], j);
+      double dz = axisGap(point[2], k);
+      return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static double axisGap(double coordinate, int index) {
+      double low = index * CELL;
+      double high = low + CELL;
+      return coordinate < low ? low - coordinate : coordinate > high ? coordinate - high : 0;
+    }
+  }
+
+  private static class Entry {
+    final Warehouse warehouse;
+    final int freeCapacity;
+    final double x;
+    final double y;
+    final double z;
+    final int i;
+    final int j;
+    final int k;
+    final long cellKey;
+
+    Entry(Warehouse warehouse, double latitude, double longitude) {
+      this.warehouse = warehouse;
+      int capacity = warehouse.capacity == null ? 0 : warehouse.capacity;
+      int stock = warehouse.stock == null ? 0 : warehouse.stock;
+      this.freeCapacity = capacity - stock;
+      double[] vector = toUnitVector(latitude, longitude);
+      this.x = vector[0];
+      this.y = vector[1];
+      this.z = vector[2];
+      this.i = cellIndex(x);
+      this.j = cellIndex(y);
+      this.k = cellIndex(z);
+      this.cellKey = cellKey(i, j, k);
+    }
+
+    double chordTo(double[] point) {
+      double dx = x - point[0];
+      double dy = y - point[1];
+      double dz = z - point[2];
+      return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    // sorts before every real entry with the same free capacity
+    static Entry probe(int freeCapacity) {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = "";
+      warehouse.capacity = freeCapacity;
+      warehouse.stock = 0;
+      return new Entry(warehouse, 0, 0);
+    }
+  }
+
+  // a warehouse or, on the fallback path, a cell together with its chord distance to the point
+  private static class Candidate {
+    final Entry entry;
+    final Cell cell;
+    final double chord;
+
+    Candidate(Entry entry, double chord) {
+      this.entry = entry;
+      this.cell = null;
+      this.chord = chord;
+    }
+
+    Candidate(Cell cell, double chord) {
+      this.entry = null;
+      this.cell = cell;
+      this.chord = chord;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehousesReloadedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the active warehouses for planner searches.
+ *
+ * <p>Warehouses are kept in a map sorted by location, each location holding a set sorted by free
+ * capacity (capacity - stock). A prefix search is a sub-map view and a minimum free capacity is a
+ * tail-set view, so queries never scan warehouses that cannot match. The index is rebuilt from the
+ * store at startup and follows every committed write of {@code WarehouseRepository}, including
+ * writes on other instances as read back by {@code RemoteWarehouseChanges}. Change events may
+ * arrive out of order, so an event older than the last one applied for its warehouse is ignored.
+ */
+@ApplicationScoped
+public class WarehouseSearchIndex {
+
+  private static final Comparator<Entry> BY_FREE_CAPACITY =
+      Comparator.comparingInt((Entry e) -> e.freeCapacity)
+          .thenComparing(e -> e.warehouse.businessUnitCode);
+
+  private final NavigableMap<String, NavigableSet<Entry>> byLocation =
+      new ConcurrentSkipListMap<>();
+  private final Map<String, Entry> byBusinessUnitCode = new ConcurrentHashMap<>();
+
+  // Highest revision applied per business unit code, removals included; guarded by this
+  private final Map<String, Long> revisions = new HashMap<>();
+
+  @Inject WarehouseStore warehouseStore;
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild(warehouseStore.getAll());
+  }
+
+  synchronized void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Long applied = revisions.get(event.warehouse.businessUnitCode);
+    if (applied != null && applied > event.revision) {
+      return;
+    }
+    revisions.put(event.warehouse.businessUnitCode, event.revision);
+    if (event.removed) {
+      remove(event.warehouse.businessUnitCode);
+    } else {
+      put(event.warehouse);
+    }
+  }
+
+  synchronized void onWarehousesReloaded(@Observes WarehousesReloadedEvent event) {
+    for (String businessUnitCode : List.copyOf(byBusinessUnitCode.keySet())) {
+      if (!event.businessUnitCodes.contains(businessUnitCode)
+          && revisions.getOrDefault(businessUnitCode, 0L) < event.revision) {
+        remove(businessUnitCode);
+      }
+    }
+  }
+
+  public synchronized void rebuild(List<Warehouse> warehouses) {
+    byLocation.clear();
+    byBusinessUnitCode.clear();
+    revisions.clear();
+    warehouses.forEach(this::put);
+  }
+
+  /** Indexes the warehouse, replacing its previous entry; archived warehouses are dropped. */
+  public synchronized void put(Warehouse warehouse) {
+    remove(warehouse.businessUnitCode);
+    if (warehouse.archivedAt != null
+        || warehouse.location == null
+        || warehouse.businessUnitCode == null) {
+      return;
+    }
+    Entry entry = new Entry(warehouse);
+    byBusinessUnitCode.put(warehouse.businessUnitCode, entry);
+    byLocation
+        .computeIfAbsent(warehouse.location, l -> new ConcurrentSkipListSet<>(BY_FREE_CAPACITY))
+        .add(entry);
+  }
+
+  public synchronized void remove(String businessUnitCode) {
+    Entry previous = byBusinessUnitCode.remove(businessUnitCode);
+    if (previous == null) {
+      return;
+    }
+    NavigableSet<Entry> entries = byLocation.get(previous.warehouse.location);
+    entries.remove(previous);
+    if (entries.isEmpty()) {
+      byLocation.remove(previous.warehouse.location);
+    }
+  }
+
+  /**
+   * Active warehouses whose location starts with the prefix (all locations when it is empty) and
+   * whose free capacity is at least the given minimum, ordered by location then free capacity.
+   */
+  public List<Warehouse> search(String locationPrefix, int minFreeCapacity) {
+    NavigableMap<String, NavigableSet<Entry>> locations =
+        locationPrefix == null || locationPrefix.isEmpty()
+            ? byLocation
+            : byLocation.subMap(locationPrefix, true, locationPrefix + Character.MAX_VALUE, false);
+
+    Entry lowest = Entry.probe(minFreeCapacity);
+    List<Warehouse> result = new ArrayList<>();
+    for (NavigableSet<Entry> entries : locations.values()) {
+      for (Entry entry : entries.tailSet(lowest, true)) {
+        result.add(entry.warehouse);
+      }
+    }
+    return result;
+  }
+
+  private static class Entry {
+    final Warehouse warehouse;
+    final int freeCapacity;
+
+    Entry(Warehouse warehouse) {
+      this.warehouse = warehouse;
+      int capacity = warehouse.capacity == null ? 0 : warehouse.capacity;
+      int stock = warehouse.stock == null ? 0 : warehouse.stock;
+      this.freeCapacity = capacity - stock;
+    }
+
+    // sorts before every real entry with the same free capacity
+    static Entry probe(int freeCapacity) {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = "";
+      warehouse.capacity = freeCapacity;
+      warehouse.stock = 0;
+      return new Entry(warehouse);
+    }
+  }
+}
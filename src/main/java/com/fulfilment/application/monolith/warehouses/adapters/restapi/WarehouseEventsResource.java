@@ -0,0 +1,123 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.events.WarehouseEventLog;
+import com.fulfilment.application.monolith.warehouses.adapters.events.WarehouseEventStream;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.function.Consumer;
+
+/**
+ * Server-sent events for warehouse lifecycle changes. The event id is the log's epoch and offset
+ * ({@code <epoch>-<offset>}), so a client resumes after a reconnect through the standard {@code
+ * Last-Event-ID} header, or picks a start in the current log explicitly with {@code ?from=}.
+ * Without either it only receives new events.
+ *
+ * <p>An id from another epoch was handed out before a restart or by another instance, so the
+ * client may have missed any number of events. It gets a {@code reset} event carrying the current
+ * epoch, telling it to reload the warehouses, followed by every event the log still holds.
+ */
+@Path("warehouse/events")
+public class WarehouseEventsResource {
+
+  private static final char EPOCH_SEPARATOR = '-';
+
+  @Inject WarehouseEventStream eventStream;
+
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  public void subscribe(
+      @QueryParam("from") Long from,
+      @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+      @Context SseEventSink sink,
+      @Context Sse sse) {
+    WarehouseEventLog log = eventStream.log();
+    long fromOffset;
+    if (from != null) {
+      fromOffset = Math.max(0, from);
+    } else if (lastEventId != null) {
+      Long resumed = offsetAfter(lastEventId.trim(), log.epoch());
+      if (resumed == null) {
+        sink.send(sse.newEventBuilder().name("reset").data(log.epoch()).build());
+        fromOffset = 0;
+      } else {
+        fromOffset = resumed;
+      }
+    } else {
+      fromOffset = log.nextOffset();
+    }
+    log.subscribe(fromOffset, new Subscription(log, sink, sse, fromOffset));
+  }
+
+  // The offset following the event the client last saw, or null when that event is from another
+  // epoch (including bare offsets, which carried no epoch)
+  private static Long offsetAfter(String lastEventId, String epoch) {
+    int separator = lastEventId.lastIndexOf(EPOCH_SEPARATOR);
+    try {
+      long offset = Long.parseLong(lastEventId.substring(separator + 1));
+      if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+        return null;
+      }
+      return offset + 1;
+    } catch (NumberFormatException e) {
+      throw new WebApplicationException("Last-Event-ID must be an event id", 400);
+    }
+  }
+
+  private static OutboundSseEvent toSseEvent(
+      Sse sse, String epoch, WarehouseEventLog.Offset entry) {
+    WarehouseLifecycleEvent event = entry.event;
+    return sse.newEventBuilder()
+        .id(epoch + EPOCH_SEPARATOR + entry.offset)
+        .name(event.type.name())
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(WarehouseLifecycleEvent.class, event)
+        .build();
+  }
+
+  private static class Subscription implements Consumer<WarehouseEventLog.Offset> {
+
+    private final WarehouseEventLog log;
+    private final SseEventSink sink;
+    private final Sse sse;
+    private long expectedOffset;
+
+    Subscription(WarehouseEventLog log, SseEventSink sink, Sse sse, long fromOffset) {
+      this.log = log;
+      this.sink = sink;
+      this.sse = sse;
+      this.expectedOffset = fromOffset;
+    }
+
+    @Override
+    public void accept(WarehouseEventLog.Offset entry) {
+      if (sink.isClosed()) {
+        log.unsubscribe(this);
+        return;
+      }
+      if (entry.offset > expectedOffset) {
+        // The events in between were overwritten in the ring before this client asked for them
+        sink.send(sse.newEventBuilder().name("gap").data(String.valueOf(entry.offset)).build());
+      }
+      expectedOffset = entry.offset + 1;
+      sink.send(toSseEvent(sse, log.epoch(), entry))
+          .exceptionally(
+              failure -> {
+                log.unsubscribe(this);
+                sink.close();
+                return null;
+              });
+    }
+  }
+}
@@ -1,18 +1,53 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.lookup.LookupResult;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseGeoIndex;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseSearchIndex;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.PatchWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.RecordStockMovementsOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReserveCapacityOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.NearbyWarehouse;
+import com.warehouse.api.beans.OccupancyStats;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.Reservation;
+import com.warehouse.api.beans.ReservationRequest;
+import com.warehouse.api.beans.StockLedgerEntry;
+import com.warehouse.api.beans.StockMovementRequest;
+import com.warehouse.api.beans.StockTransferRequest;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseLookupResult;
+import com.warehouse.api.beans.WarehouseMergePatch;
+import com.warehouse.api.beans.WarehouseOccupancyStats;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
-import jakarta.ws.rs.NotFoundException;
 import org.jspecify.annotations.NonNull;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 @RequestScoped
 public class WarehouseResourceImpl implements WarehouseResource {
@@ -21,6 +56,19 @@ public class WarehouseResourceImpl implements WarehouseResource {
   @Inject CreateWarehouseOperation createOperation;
   @Inject ReplaceWarehouseOperation replaceOperation;
   @Inject ArchiveWarehouseOperation archiveOperation;
+  @Inject PatchWarehouseOperation patchOperation;
+  @Inject WarehouseOccupancyRollup occupancyRollup;
+  @Inject LocationResolver locationResolver;
+  @Inject WarehouseSearchIndex searchIndex;
+  @Inject WarehouseGeoIndex geoIndex;
+  @Inject RecordStockMovementsOperation recordMovementsOperation;
+  @Inject TransferStockOperation transferStockOperation;
+  @Inject ReserveCapacityOperation reserveCapacityOperation;
+  @Inject StockLedger stockLedger;
+
+  static final int MAX_NEAREST_LIMIT = 100;
+  static final int MAX_MOVEMENTS_LIMIT = 1000;
+  static final long MAX_RESERVATION_TTL_SECONDS = Duration.ofDays(7).toSeconds();
 
   @Override
   public List<Warehouse> listAllWarehousesUnits() {
@@ -28,6 +76,33 @@ public class WarehouseResourceImpl implements WarehouseResource {
   }
 
   @Override
+  public List<WarehouseLookupResult> lookUpWarehouseUnits(@NotNull List<String> data) {
+    LookupResult.requireIds(data);
+    Map<String, Warehouse> loaded = new HashMap<>();
+    for (var warehouse : warehouseRepository.findByBusinessUnitCodes(new HashSet<>(data))) {
+      loaded.put(warehouse.businessUnitCode, toWarehouseResponse(warehouse));
+    }
+
+    List<WarehouseLookupResult> results = new ArrayList<>(data.size());
+    for (String code : data) {
+      var result = new WarehouseLookupResult();
+      result.setId(code);
+      result.setWarehouse(loaded.get(code));
+      result.setFound(result.getWarehouse() != null);
+      results.add(result);
+    }
+    return results;
+  }
+
+  @Override
+  public List<Warehouse> listWarehousesInRegion(String region) {
+    return warehouseRepository.getAllInRegion(region).stream()
+        .map(this::toWarehouseResponse)
+        .toList();
+  }
+
+  @Override
+  @Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
     var domainModel = toDomainModel(data);
 
@@ -40,21 +115,23 @@ public class WarehouseResourceImpl implements WarehouseResource {
   public Warehouse getAWarehouseUnitByID(String id) {
     var warehouse = warehouseRepository.findByBusinessUnitCode(id);
     if (warehouse == null) {
-      throw new NotFoundException("Warehouse not found: " + id);
+      throw new ResourceNotFoundException("Warehouse not found: " + id);
     }
     return toWarehouseResponse(warehouse);
   }
 
   @Override
+  @Transactional
   public void archiveAWarehouseUnitByID(String id) {
     var warehouse = warehouseRepository.findByBusinessUnitCode(id);
     if (warehouse == null) {
-      throw new NotFoundException("Warehouse not found: " + id);
+      throw new ResourceNotFoundException("Warehouse not found: " + id);
     }
     archiveOperation.archive(warehouse);
   }
 
   @Override
+  @Transactional
   public Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull Warehouse data) {
     // Ensure the data bean matches the URL path businessUnitCode
@@ -66,6 +143,227 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return data;
   }
 
+  @Override
+  @Transactional
+  public Warehouse patchAWarehouseUnitByID(String id, @NotNull WarehouseMergePatch data) {
+    var patch = new WarehousePatch(data.getLocation(), data.getCapacity(), data.getStock());
+    return toWarehouseResponse(patchOperation.patch(id, patch));
+  }
+
+  @Override
+  public WarehouseOccupancyStats getWarehouseOccupancyStats() {
+    List<LocationOccupancy> byLocation = occupancyRollup.byLocation();
+
+    // Global limits are the sum of the limits of the locations that hold active warehouses
+    long maxNumberOfWarehouses = 0;
+    long maxCapacity = 0;
+    List<OccupancyStats> locations = new ArrayList<>();
+    for (LocationOccupancy occupancy : byLocation) {
+      var locationStats = toOccupancyStats(occupancy);
+      Location location = resolveLocation(occupancy.location);
+      if (location != null) {
+        locationStats.setMaxNumberOfWarehouses((long) location.maxNumberOfWarehouses);
+        locationStats.setMaxCapacity((long) location.maxCapacity);
+        maxNumberOfWarehouses += location.maxNumberOfWarehouses;
+        maxCapacity += location.maxCapacity;
+      }
+      locations.add(locationStats);
+    }
+
+    var global = toOccupancyStats(LocationOccupancy.merge(null, byLocation));
+    global.setMaxNumberOfWarehouses(maxNumberOfWarehouses);
+    global.setMaxCapacity(maxCapacity);
+
+    var stats = new WarehouseOccupancyStats();
+    stats.setGlobal(global);
+    stats.setLocations(locations);
+    return stats;
+  }
+
+  @Override
+  public List<Warehouse> searchWarehouses(String locationPrefix, Integer minFreeCapacity) {
+    return searchIndex
+        .search(locationPrefix, minFreeCapacity == null ? Integer.MIN_VALUE : minFreeCapacity)
+        .stream()
+        .map(this::toWarehouseResponse)
+        .toList();
+  }
+
+  @Override
+  @Transactional
+  public List<StockLevel> recordStockMovements(@NotNull List<StockMovementRequest> data) {
+    List<StockMovement> movements = new ArrayList<>(data.size());
+    for (StockMovementRequest request : data) {
+      movements.add(toStockMovement(request));
+    }
+
+    return toStockLevels(recordMovementsOperation.record(movements));
+  }
+
+  @Override
+  @Transactional
+  public List<StockLevel> transferStock(@NotNull List<StockTransferRequest> data) {
+    List<StockTransfer> transfers = new ArrayList<>(data.size());
+    for (StockTransferRequest request : data) {
+      transfers.add(
+          new StockTransfer(
+              request.getFromBusinessUnitCode(),
+              request.getToBusinessUnitCode(),
+              request.getQuantity() == null ? 0 : request.getQuantity()));
+    }
+    return toStockLevels(transferStockOperation.transfer(transfers));
+  }
+
+  @Override
+  @Transactional
+  public Reservation reserveWarehouseCapacity(String id, @NotNull ReservationRequest data) {
+    return toReservationResponse(
+        reserveCapacityOperation.reserveInWarehouse(
+            id, quantityOf(data), reservationTtl(data)));
+  }
+
+  @Override
+  @Transactional
+  public Reservation reserveLocationCapacity(String location, @NotNull ReservationRequest data) {
+    return toReservationResponse(
+        reserveCapacityOperation.reserveAtLocation(
+            location, quantityOf(data), reservationTtl(data)));
+  }
+
+  @Override
+  @Transactional
+  public void releaseReservation(String reservationId) {
+    reserveCapacityOperation.release(reservationId);
+  }
+
+  @Override
+  public List<StockLedgerEntry> listStockMovements(String id, Long after, Integer limit) {
+    int max = limit == null ? 100 : limit;
+    if (max < 1 || max > MAX_MOVEMENTS_LIMIT) {
+      throw new InvalidRequestException(
+          "limit must be between 1 and " + MAX_MOVEMENTS_LIMIT + ".");
+    }
+    if (warehouseRepository.findByBusinessUnitCode(id) == null) {
+      throw new ResourceNotFoundException("Warehouse not found: " + id);
+    }
+    return stockLedger.movements(id, after == null ? 0 : after, max).stream()
+        .map(this::toStockMovementResponse)
+        .toList();
+  }
+
+  @Override
+  public List<NearbyWarehouse> findNearestWarehouses(
+      Double latitude, Double longitude, Integer limit, Integer minFreeCapacity) {
+    if (latitude == null || latitude < -90 || latitude > 90) {
+      throw new InvalidRequestException("latitude must be between -90 and 90.");
+    }
+    if (longitude == null || longitude < -180 || longitude > 180) {
+      throw new InvalidRequestException("longitude must be between -180 and 180.");
+    }
+    int max = limit == null ? 5 : limit;
+    if (max < 1 || max > MAX_NEAREST_LIMIT) {
+      throw new InvalidRequestException("limit must be between 1 and " + MAX_NEAREST_LIMIT + ".");
+    }
+    return geoIndex
+        .nearest(
+            latitude,
+            longitude,
+            max,
+            minFreeCapacity == null ? Integer.MIN_VALUE : minFreeCapacity)
+        .stream()
+        .map(
+            nearby -> {
+              var response = new NearbyWarehouse();
+              response.setWarehouse(toWarehouseResponse(nearby.warehouse));
+              response.setDistanceKm(nearby.distanceKm);
+              return response;
+            })
+        .toList();
+  }
+
+  private Location resolveLocation(String identifier) {
+    try {
+      return locationResolver.resolveByIdentifier(identifier);
+    } catch (IllegalArgumentException e) {
+      // Warehouses written before the location catalogue knew them have no limits to report
+      return null;
+    }
+  }
+
+  private static StockMovement toStockMovement(StockMovementRequest request) {
+    // Transfers come in pairs and are not recorded one leg at a time
+    StockMovement.Type type;
+    if ("INBOUND".equals(request.getType())) {
+      type = StockMovement.Type.INBOUND;
+    } else if ("OUTBOUND".equals(request.getType())) {
+      type = StockMovement.Type.OUTBOUND;
+    } else {
+      throw new InvalidRequestException("Stock movement type must be INBOUND or OUTBOUND.");
+    }
+    StockMovement movement =
+        new StockMovement(
+            request.getBusinessUnitCode(),
+            type,
+            request.getQuantity() == null ? 0 : request.getQuantity());
+    movement.reservationId = request.getReservationId();
+    return movement;
+  }
+
+  private static List<StockLevel> toStockLevels(List<StockChange> changes) {
+    List<StockLevel> levels = new ArrayList<>(changes.size());
+    for (StockChange change : changes) {
+      var level = new StockLevel();
+      level.setBusinessUnitCode(change.after.businessUnitCode);
+      level.setStock(change.after.stock);
+      levels.add(level);
+    }
+    return levels;
+  }
+
+  private static int quantityOf(ReservationRequest request) {
+    return request.getQuantity() == null ? 0 : request.getQuantity();
+  }
+
+  private static Duration reservationTtl(ReservationRequest request) {
+    Long seconds = request.getTtlSeconds();
+    if (seconds == null || seconds < 1 || seconds > MAX_RESERVATION_TTL_SECONDS) {
+      throw new InvalidRequestException(
+          "ttlSeconds must be between 1 and " + MAX_RESERVATION_TTL_SECONDS + ".");
+    }
+    return Duration.ofSeconds(seconds);
+  }
+
+  private static Reservation toReservationResponse(CapacityReservation reservation) {
+    var response = new Reservation();
+    response.setId(reservation.id);
+    response.setBusinessUnitCode(reservation.businessUnitCode);
+    response.setLocation(reservation.location);
+    response.setQuantity(reservation.quantity);
+    response.setExpiresAt(reservation.expiresAt.toString());
+    return response;
+  }
+
+  private StockLedgerEntry toStockMovementResponse(StockMovement movement) {
+    var response = new StockLedgerEntry();
+    response.setId(movement.id);
+    response.setType(movement.type.name());
+    response.setQuantity(movement.quantity);
+    response.setCounterpartBusinessUnitCode(movement.counterpartBusinessUnitCode);
+    response.setRecordedAt(movement.recordedAt == null ? null : movement.recordedAt.toString());
+    return response;
+  }
+
+  private OccupancyStats toOccupancyStats(LocationOccupancy occupancy) {
+    var stats = new OccupancyStats();
+    stats.setLocation(occupancy.location);
+    stats.setActiveWarehouses(occupancy.activeWarehouses);
+    stats.setTotalCapacity(occupancy.totalCapacity);
+    stats.setTotalStock(occupancy.totalStock);
+    stats.setUtilisationP50(occupancy.utilisationPercentile(50));
+    stats.setUtilisationP90(occupancy.utilisationPercentile(90));
+    return stats;
+  }
+
   // Helper to keep logic clean
   private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse toDomainModel(Warehouse data) {
     var domain = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
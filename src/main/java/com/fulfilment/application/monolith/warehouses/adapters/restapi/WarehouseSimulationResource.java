@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.adapters.simulation.SimulationReport;
+import com.fulfilment.application.monolith.warehouses.adapters.simulation.SimulationRequest;
+import com.fulfilment.application.monolith.warehouses.adapters.simulation.SimulationRequestReader;
+import com.fulfilment.application.monolith.warehouses.adapters.simulation.WarehouseSimulator;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * What-if runs of warehouse operations for capacity planning. The operations go through the same
+ * create, replace and archive rules as the warehouse API, against an in-memory copy of the
+ * warehouses; nothing is written.
+ *
+ * <p>The body is read while the simulation runs (see {@link SimulationRequestReader}), so a long
+ * plan costs worker time but not memory. Plans longer than the body size limit allows are sent as
+ * generators, which expand to their operations one at a time.
+ */
+@Path("warehouse/simulations")
+public class WarehouseSimulationResource {
+
+  // Bounds the worker time of one request to a few seconds; memory does not depend on it
+  static final int MAX_OPERATIONS = 5_000_000;
+
+  @Inject WarehouseStore warehouseStore;
+
+  @Inject WarehouseSimulator simulator;
+
+  @Inject ObjectMapper objectMapper;
+
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public SimulationReport simulate(InputStream body) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      var reader = new SimulationRequestReader(objectMapper, parser, MAX_OPERATIONS);
+      SimulationRequest request = reader.readHead();
+      return simulator.run(
+          request.startFromCurrentWarehouses ? warehouseStore.getAll() : List.of(), reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Stands for count operations of one type on warehouses prefix1 .. prefixN, so a plan of millions
+// of operations fits in a small request body; the operations are produced one at a time
+public class SimulationGenerator {
+
+  public SimulationOperation.Type type;
+
+  public String businessUnitCodePrefix;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public int count;
+
+  public SimulationGenerator() {}
+
+  public SimulationGenerator(
+      SimulationOperation.Type type,
+      String businessUnitCodePrefix,
+      String location,
+      Integer capacity,
+      Integer stock,
+      int count) {
+    this.type = type;
+    this.businessUnitCodePrefix = businessUnitCodePrefix;
+    this.location = location;
+    this.capacity = capacity;
+    this.stock = stock;
+    this.count = count;
+  }
+
+  public Iterator<SimulationOperation> operations() {
+    return new Iterator<>() {
+      private int produced;
+
+      @Override
+      public boolean hasNext() {
+        return produced < count;
+      }
+
+      @Override
+      public SimulationOperation next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        produced++;
+        return new SimulationOperation(
+            type, businessUnitCodePrefix + produced, location, capacity, stock);
+      }
+    };
+  }
+}
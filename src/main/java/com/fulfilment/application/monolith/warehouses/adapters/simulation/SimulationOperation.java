@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+
+// One hypothetical write replayed by WarehouseSimulator; ARCHIVE only needs the business unit code
+public class SimulationOperation {
+
+  public enum Type {
+    CREATE,
+    REPLACE,
+    ARCHIVE
+  }
+
+  public Type type;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public SimulationOperation() {}
+
+  public SimulationOperation(
+      Type type, String businessUnitCode, String location, Integer capacity, Integer stock) {
+    this.type = type;
+    this.businessUnitCode = businessUnitCode;
+    this.location = location;
+    this.capacity = capacity;
+    this.stock = stock;
+  }
+
+  public Warehouse toWarehouse() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = location;
+    warehouse.capacity = capacity;
+    warehouse.stock = stock;
+    return warehouse;
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Outcome of a simulation run: what was applied, why the rest was rejected, and where it ended up
+public class SimulationReport {
+
+  public long operations;
+
+  public long applied;
+
+  public long rejected;
+
+  // rejection message -> number of operations rejected with it
+  public Map<String, Long> rejections = new TreeMap<>();
+
+  public long elapsedMillis;
+
+  public long operationsPerSecond;
+
+  // active warehouses per location once every operation has been replayed
+  public List<LocationSummary> locations = new ArrayList<>();
+
+  public static class LocationSummary {
+
+    public String location;
+
+    public long activeWarehouses;
+
+    public long totalCapacity;
+
+    public long totalStock;
+  }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Body of POST /warehouse/simulations, apart from its operations array, which
+// SimulationRequestReader streams to the simulator instead of holding it here
+public class SimulationRequest {
+
+  // seed the simulation with the stored warehouses, or start from an empty network
+  public boolean startFromCurrentWarehouses = true;
+
+  // replayed after the listed operations, in order
+  public List<SimulationGenerator> generators = new ArrayList<>();
+}
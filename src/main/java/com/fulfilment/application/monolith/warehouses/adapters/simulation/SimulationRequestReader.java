@@ -0,0 +1,174 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a simulation request while the simulator consumes it: each operation is parsed when the
+ * simulator asks for the next one, so memory does not grow with the length of the plan, and the
+ * operation limit is enforced as operations arrive rather than after the body has been read.
+ *
+ * <p>{@link #readHead()} reads the fields up to the operations array, so {@code
+ * startFromCurrentWarehouses} has to come before {@code operations}; the simulation is already
+ * running by the time a later one would be seen. Generators may come anywhere and are replayed
+ * after the operations. Malformed bodies and exceeded limits fail with {@link
+ * InvalidRequestException}, also from the iterator.
+ */
+public class SimulationRequestReader implements Iterable<SimulationOperation> {
+
+  private static final TypeReference<List<SimulationGenerator>> GENERATORS =
+      new TypeReference<>() {};
+
+  private final ObjectMapper objectMapper;
+  private final JsonParser parser;
+  private final long maxOperations;
+
+  private final SimulationRequest request = new SimulationRequest();
+  private boolean operationsSeen;
+  private boolean inOperations;
+  private long generatedOperations;
+  private long operations;
+
+  public SimulationRequestReader(ObjectMapper objectMapper, JsonParser parser, long maxOperations) {
+    this.objectMapper = objectMapper;
+    this.parser = parser;
+    this.maxOperations = maxOperations;
+  }
+
+  /** Reads the body up to its operations and returns what it says about the run. */
+  public SimulationRequest readHead() {
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new InvalidRequestException("Simulation request must be a JSON object.");
+      }
+      readFields();
+      return request;
+    } catch (JsonProcessingException e) {
+      throw malformed(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Iterator<SimulationOperation> iterator() {
+    return new Iterator<>() {
+      private SimulationOperation next;
+      private Iterator<SimulationGenerator> generators;
+      private Iterator<SimulationOperation> generated = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          next = read();
+        }
+        return next != null;
+      }
+
+      @Override
+      public SimulationOperation next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        SimulationOperation operation = next;
+        next = null;
+        if (++operations > maxOperations) {
+          throw tooManyOperations();
+        }
+        return operation;
+      }
+
+      private SimulationOperation read() {
+        try {
+          while (inOperations) {
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+              return objectMapper.readValue(parser, SimulationOperation.class);
+            }
+            inOperations = false;
+            readFields();
+          }
+        } catch (JsonProcessingException e) {
+          throw malformed(e);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (generators == null) {
+          generators = request.generators.iterator();
+        }
+        while (!generated.hasNext() && generators.hasNext()) {
+          generated = generators.next().operations();
+        }
+        return generated.hasNext() ? generated.next() : null;
+      }
+    };
+  }
+
+  // Reads fields until the operations array opens or the body ends
+  private void readFields() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "startFromCurrentWarehouses" -> {
+          if (operationsSeen) {
+            throw new InvalidRequestException(
+                "startFromCurrentWarehouses must come before operations.");
+          }
+          request.startFromCurrentWarehouses = parser.getValueAsBoolean(true);
+        }
+        case "operations" -> {
+          if (operationsSeen || parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new InvalidRequestException("operations must be set once on request.");
+          }
+          operationsSeen = true;
+          inOperations = true;
+          return;
+        }
+        case "generators" -> readGenerators();
+        default -> parser.skipChildren();
+      }
+    }
+    if (token != JsonToken.END_OBJECT) {
+      throw new InvalidRequestException("Malformed simulation request.");
+    }
+  }
+
+  private void readGenerators() throws IOException {
+    List<SimulationGenerator> generators = objectMapper.readValue(parser, GENERATORS);
+    if (generators == null) {
+      return;
+    }
+    for (SimulationGenerator generator : generators) {
+      if (generator == null || generator.businessUnitCodePrefix == null || generator.count < 0) {
+        throw new InvalidRequestException(
+            "Generators need a businessUnitCodePrefix and a count of at least 0.");
+      }
+      generatedOperations += generator.count;
+    }
+    // Known up front, so a plan that cannot fit is rejected before it runs
+    if (generatedOperations > maxOperations) {
+      throw tooManyOperations();
+    }
+    request.generators.addAll(generators);
+  }
+
+  private InvalidRequestException tooManyOperations() {
+    return new InvalidRequestException(
+        "At most " + maxOperations + " operations can be simulated per request.");
+  }
+
+  private static InvalidRequestException malformed(JsonProcessingException e) {
+    return new InvalidRequestException("Malformed simulation request: " + e.getOriginalMessage());
+  }
+}
@@ -0,0 +1,143 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.ColumnarWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Replays hypothetical warehouse operations through the real create, replace and archive use
+ * cases for what-if capacity planning. Each run gets its own {@link ColumnarWarehouseStore}
+ * seeded with the given warehouses, so nothing touches the database, the occupancy rollup or the
+ * event subscribers, and rejected operations cost no more than the rule that rejects them.
+ */
+@ApplicationScoped
+public class WarehouseSimulator {
+
+  // the simulated store derives occupancy from its columns, so there is nothing to roll up
+  private static final WarehouseOccupancyRollup NO_ROLLUP =
+      new WarehouseOccupancyRollup() {
+        @Override
+        public void add(Warehouse warehouse) {}
+
+        @Override
+        public void remove(Warehouse warehouse) {}
+
+        @Override
+        public List<LocationOccupancy> byLocation() {
+          return List.of();
+        }
+      };
+
+  private static final WarehouseEventPublisher NO_EVENTS = event -> {};
+
+  // a what-if plan starts from the warehouses it is given, not from live reservations
+  private static final CapacityReservations NO_RESERVATIONS =
+      new CapacityReservations() {
+        @Override
+        public CapacityReservation reserveInWarehouse(
+            CapacityReservation reservation, Duration ttl) {
+          return null;
+        }
+
+        @Override
+        public CapacityReservation reserveAtLocation(
+            CapacityReservation reservation, Duration ttl, int limit) {
+          return null;
+        }
+
+        @Override
+        public boolean release(String reservationId) {
+          return false;
+        }
+
+        @Override
+        public int reservedInWarehouse(String businessUnitCode) {
+          return 0;
+        }
+
+        @Override
+        public int reservedAtLocation(String location) {
+          return 0;
+        }
+      };
+
+  @Inject LocationResolver locationResolver;
+
+  public SimulationReport run(
+      Collection<Warehouse> seed, Iterable<SimulationOperation> operations) {
+    ColumnarWarehouseStore store = new ColumnarWarehouseStore(seed);
+    var create =
+        new CreateWarehouseUseCase(
+            store, locationResolver, NO_ROLLUP, NO_EVENTS, NO_RESERVATIONS);
+    var replace =
+        new ReplaceWarehouseUseCase(
+            store, locationResolver, NO_ROLLUP, NO_EVENTS, NO_RESERVATIONS);
+    var archive = new ArchiveWarehouseUseCase(store, NO_ROLLUP, NO_EVENTS);
+
+    SimulationReport report = new SimulationReport();
+    long started = System.nanoTime();
+    for (SimulationOperation operation : operations) {
+      report.operations++;
+      try {
+        apply(operation, store, create, replace, archive);
+        report.applied++;
+      } catch (RuntimeException e) {
+        // the use cases reject with stackless domain exceptions, so this stays cheap
+        report.rejected++;
+        String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        report.rejections.merge(reason, 1L, Long::sum);
+      }
+    }
+    long elapsedNanos = System.nanoTime() - started;
+
+    report.elapsedMillis = elapsedNanos / 1_000_000;
+    report.operationsPerSecond =
+        elapsedNanos == 0 ? 0 : (long) (report.operations * 1e9 / elapsedNanos);
+    for (LocationOccupancy occupancy : store.occupancyByLocation()) {
+      var summary = new SimulationReport.LocationSummary();
+      summary.location = occupancy.location;
+      summary.activeWarehouses = occupancy.activeWarehouses;
+      summary.totalCapacity = occupancy.totalCapacity;
+      summary.totalStock = occupancy.totalStock;
+      report.locations.add(summary);
+    }
+    return report;
+  }
+
+  private static void apply(
+      SimulationOperation operation,
+      ColumnarWarehouseStore store,
+      CreateWarehouseUseCase create,
+      ReplaceWarehouseUseCase replace,
+      ArchiveWarehouseUseCase archive) {
+    if (operation.type == null) {
+      throw new IllegalArgumentException("Operation type is missing");
+    }
+    switch (operation.type) {
+      case CREATE -> create.create(operation.toWarehouse());
+      case REPLACE -> replace.replace(operation.toWarehouse());
+      case ARCHIVE -> {
+        // as WarehouseResourceImpl does before handing the warehouse to the use case
+        Warehouse warehouse = store.findByBusinessUnitCode(operation.businessUnitCode);
+        if (warehouse == null) {
+          throw new ResourceNotFoundException("Warehouse not found");
+        }
+        archive.archive(warehouse);
+      }
+    }
+  }
+}
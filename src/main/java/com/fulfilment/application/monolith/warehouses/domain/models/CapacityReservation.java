@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+// Capacity held for an inbound shipment until it lands, is released or expires
+public class CapacityReservation {
+
+  public String id;
+
+  // the warehouse whose free capacity is held; null when held against a whole location
+  public String businessUnitCode;
+
+  // the location whose capacity is held; null when held in a warehouse
+  public String location;
+
+  public int quantity;
+
+  public LocalDateTime expiresAt;
+
+  public CapacityReservation() {}
+
+  public CapacityReservation(String businessUnitCode, String location, int quantity) {
+    this.businessUnitCode = businessUnitCode;
+    this.location = location;
+    this.quantity = quantity;
+  }
+}
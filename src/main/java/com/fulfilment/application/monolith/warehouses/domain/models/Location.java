@@ -9,9 +9,39 @@ public class Location {
   // maximum capacity of the location summing all the warehouse capacities
   public int maxCapacity;
 
+  // WGS84 coordinates in degrees, NaN when the location has not been placed on the map
+  public double latitude = Double.NaN;
+
+  public double longitude = Double.NaN;
+
   public Location(String identification, int maxNumberOfWarehouses, int maxCapacity) {
     this.identification = identification;
     this.maxNumberOfWarehouses = maxNumberOfWarehouses;
     this.maxCapacity = maxCapacity;
   }
+
+  public Location(
+      String identification,
+      int maxNumberOfWarehouses,
+      int maxCapacity,
+      double latitude,
+      double longitude) {
+    this(identification, maxNumberOfWarehouses, maxCapacity);
+    this.latitude = latitude;
+    this.longitude = longitude;
+  }
+
+  public boolean hasCoordinates() {
+    return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+  }
+
+  // The region is the identification without its sequence number: ZWOLLE-001 is in ZWOLLE.
+  // V6__warehouse_region_partitions.sql derives it the same way for existing rows.
+  public static String regionOf(String identification) {
+    if (identification == null) {
+      return "";
+    }
+    int separator = identification.lastIndexOf('-');
+    return separator < 0 ? identification : identification.substring(0, separator);
+  }
 }
@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.Collection;
+
+/**
+ * Rolled-up occupancy of the active warehouses in one location (or of all locations when merged).
+ *
+ * <p>Utilisation (stock / capacity) is kept as a histogram of deciles, so percentiles are answered
+ * from at most {@link #BUCKETS} counters regardless of how many warehouses there are.
+ */
+public class LocationOccupancy {
+
+  // buckets 0..9 hold [n*10%, (n+1)*10%), bucket 10 holds full (or over-full) warehouses
+  public static final int BUCKETS = 11;
+
+  public String location;
+
+  public long activeWarehouses;
+
+  public long totalCapacity;
+
+  public long totalStock;
+
+  public final long[] utilisationHistogram = new long[BUCKETS];
+
+  public LocationOccupancy(String location) {
+    this.location = location;
+  }
+
+  public static int utilisationBucket(Integer capacity, Integer stock) {
+    int c = capacity == null ? 0 : capacity;
+    int s = stock == null ? 0 : stock;
+    if (c <= 0) {
+      return s > 0 ? BUCKETS - 1 : 0;
+    }
+    return Math.max(0, Math.min(BUCKETS - 1, (int) ((long) s * 10 / c)));
+  }
+
+  public void addBucket(int bucket, long warehouses, long capacity, long stock) {
+    activeWarehouses += warehouses;
+    totalCapacity += capacity;
+    totalStock += stock;
+    utilisationHistogram[bucket] += warehouses;
+  }
+
+  /**
+   * Upper bound, in percent, of the decile holding the given percentile (0-100) of utilisation;
+   * null when there are no active warehouses.
+   */
+  public Integer utilisationPercentile(double percentile) {
+    if (activeWarehouses <= 0) {
+      return null;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * activeWarehouses));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += utilisationHistogram[bucket];
+      if (seen >= rank) {
+        return Math.min(100, (bucket + 1) * 10);
+      }
+    }
+    return 100;
+  }
+
+  public static LocationOccupancy merge(String location, Collection<LocationOccupancy> parts) {
+    LocationOccupancy merged = new LocationOccupancy(location);
+    for (LocationOccupancy part : parts) {
+      merged.activeWarehouses += part.activeWarehouses;
+      merged.totalCapacity += part.totalCapacity;
+      merged.totalStock += part.totalStock;
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        merged.utilisationHistogram[bucket] += part.utilisationHistogram[bucket];
+      }
+    }
+    return merged;
+  }
+}
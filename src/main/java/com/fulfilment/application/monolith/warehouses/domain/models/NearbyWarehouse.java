@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+// A warehouse found by a nearest-warehouse query, with its great-circle distance to the point
+public class NearbyWarehouse {
+
+  public final Warehouse warehouse;
+
+  public final double distanceKm;
+
+  public NearbyWarehouse(Warehouse warehouse, double distanceKm) {
+    this.warehouse = warehouse;
+    this.distanceKm = distanceKm;
+  }
+}
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+// A warehouse before and after a batch of stock movements was appended to its ledger
+public class StockChange {
+
+  public final Warehouse before;
+
+  public final Warehouse after;
+
+  public StockChange(Warehouse before, Warehouse after) {
+    this.before = before;
+    this.after = after;
+  }
+}
@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+// One entry of a warehouse's stock ledger
+public class StockMovement {
+
+  public enum Type {
+    INBOUND,
+    OUTBOUND,
+    TRANSFER_IN,
+    TRANSFER_OUT;
+
+    public boolean intoWarehouse() {
+      return this == INBOUND || this == TRANSFER_IN;
+    }
+  }
+
+  // ledger position, assigned on append
+  public Long id;
+
+  public String businessUnitCode;
+
+  public Type type;
+
+  // amount moved, always positive; the type tells the direction
+  public int quantity;
+
+  // the other warehouse of a transfer
+  public String counterpartBusinessUnitCode;
+
+  // capacity reservation of this warehouse that the movement lands; it is released on append
+  public String reservationId;
+
+  public LocalDateTime recordedAt;
+
+  public StockMovement() {}
+
+  public StockMovement(String businessUnitCode, Type type, int quantity) {
+    this.businessUnitCode = businessUnitCode;
+    this.type = type;
+    this.quantity = quantity;
+  }
+
+  // change to the warehouse's stock
+  public int delta() {
+    return type.intoWarehouse() ? quantity : -quantity;
+  }
+}
@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+// One leg of a stock transfer: stock leaves one warehouse and arrives in another
+public class StockTransfer {
+
+  public String fromBusinessUnitCode;
+
+  public String toBusinessUnitCode;
+
+  public int quantity;
+
+  public StockTransfer() {}
+
+  public StockTransfer(String fromBusinessUnitCode, String toBusinessUnitCode, int quantity) {
+    this.fromBusinessUnitCode = fromBusinessUnitCode;
+    this.toBusinessUnitCode = toBusinessUnitCode;
+    this.quantity = quantity;
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+// A committed change in a warehouse's lifecycle, as published to downstream systems
+public class WarehouseLifecycleEvent {
+
+  public enum Type {
+    CREATED,
+    REPLACED,
+    UPDATED,
+    ARCHIVED
+  }
+
+  public Type type;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public LocalDateTime occurredAt;
+
+  public WarehouseLifecycleEvent() {}
+
+  public WarehouseLifecycleEvent(Type type, Warehouse warehouse) {
+    this.type = type;
+    this.businessUnitCode = warehouse.businessUnitCode;
+    this.location = warehouse.location;
+    this.capacity = warehouse.capacity;
+    this.stock = warehouse.stock;
+    this.occurredAt = LocalDateTime.now();
+  }
+}
@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+// Fields to change on a warehouse; null leaves the field as it is
+public class WarehousePatch {
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public WarehousePatch() {}
+
+  public WarehousePatch(String location, Integer capacity, Integer stock) {
+    this.location = location;
+    this.capacity = capacity;
+    this.stock = stock;
+  }
+
+  public boolean isEmpty() {
+    return location == null && capacity == null && stock == null;
+  }
+
+  // The warehouse as it is after this patch has been applied to it
+  public Warehouse applyTo(Warehouse warehouse) {
+    Warehouse patched = new Warehouse();
+    patched.businessUnitCode = warehouse.businessUnitCode;
+    patched.location = location != null ? location : warehouse.location;
+    patched.capacity = capacity != null ? capacity : warehouse.capacity;
+    patched.stock = stock != null ? stock : warehouse.stock;
+    patched.createdAt = warehouse.createdAt;
+    patched.archivedAt = warehouse.archivedAt;
+    return patched;
+  }
+}
@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import java.time.Duration;
+
+public interface CapacityReservations {
+
+  // holds the capacity for ttl if it fits the warehouse's capacity next to its current stock and
+  // live reservations, and returns the stored reservation; returns null when it would not fit.
+  // Checked and stored under the warehouse's stock lock, so a concurrent reservation or stock
+  // movement cannot take the same capacity
+  CapacityReservation reserveInWarehouse(CapacityReservation reservation, Duration ttl);
+
+  // holds the capacity for ttl if the live reservations of the location stay within limit, and
+  // returns the stored reservation; returns null when it would not fit
+  CapacityReservation reserveAtLocation(CapacityReservation reservation, Duration ttl, int limit);
+
+  // false when the reservation is unknown or has already expired
+  boolean release(String reservationId);
+
+  int reservedInWarehouse(String businessUnitCode);
+
+  int reservedAtLocation(String location);
+}
@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+
+public interface PatchWarehouseOperation {
+  Warehouse patch(String businessUnitCode, WarehousePatch patch);
+}
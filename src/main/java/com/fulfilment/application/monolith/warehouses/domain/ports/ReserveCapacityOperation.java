@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import java.time.Duration;
+
+public interface ReserveCapacityOperation {
+  CapacityReservation reserveInWarehouse(String businessUnitCode, int quantity, Duration ttl);
+
+  CapacityReservation reserveAtLocation(String location, int quantity, Duration ttl);
+
+  void release(String reservationId);
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import java.util.List;
+
+public interface StockLedger {
+
+  /**
+   * Appends the movements in one batch, all or none. Each warehouse's stock must stay between
+   * zero and its capacity after every movement, and archived warehouses take no movements. Returns
+   * one change per warehouse touched, in order of first appearance.
+   */
+  List<StockChange> append(List<StockMovement> movements);
+
+  // Movements of one warehouse after the given ledger position, oldest first
+  List<StockMovement> movements(String businessUnitCode, long afterId, int limit);
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+
+public interface WarehouseEventPublisher {
+
+  // Delivered to subscribers once the surrounding transaction commits, dropped on rollback
+  void publish(WarehouseLifecycleEvent event);
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
+
+public interface WarehouseOccupancyRollup {
+
+  // counts an active warehouse into its location's rollup, within the caller's transaction
+  void add(Warehouse warehouse);
+
+  // takes an active warehouse back out of its location's rollup
+  void remove(Warehouse warehouse);
+
+  List<LocationOccupancy> byLocation();
+}
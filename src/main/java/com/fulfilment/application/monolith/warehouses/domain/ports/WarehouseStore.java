@@ -1,17 +1,43 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import java.util.Collection;
 import java.util.List;
 
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  // Warehouses in one region (see Location.regionOf), archived ones included
+  List<Warehouse> getAllInRegion(String region);
+
+  // Active warehouses at the location, counted within the location's region only
+  long countActiveByLocation(String location);
+
   void create(Warehouse warehouse);
 
+  // Writes location, capacity and archival; stock only changes through the stock ledger or a patch
   void update(Warehouse warehouse);
 
+  /**
+   * Overwrites the warehouse with the replacement's business unit code in one conditional write,
+   * applied only while the stored stock equals the replacement's and fits its capacity. Returns
+   * the state that was replaced, or null when nothing was written.
+   */
+  Warehouse replaceIfStockMatches(Warehouse replacement);
+
+  /**
+   * Applies the patch to the active warehouse with that business unit code in one conditional
+   * write, applied only while the resulting stock fits the resulting capacity. Returns the state
+   * before the patch, or null when nothing was written.
+   */
+  Warehouse patchActive(String businessUnitCode, WarehousePatch patch);
+
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
+
+  // Warehouses with any of the codes, loaded with one query; codes without one are left out
+  List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes);
 }
@@ -1,7 +1,10 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -10,13 +13,28 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  public ArchiveWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher) {
     this.warehouseStore = warehouseStore;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
   public void archive(Warehouse warehouse) {
+    boolean wasActive = warehouse.archivedAt == null;
     warehouse.archivedAt = java.time.LocalDateTime.now();
     warehouseStore.update(warehouse);
+    if (wasActive) {
+      occupancyRollup.remove(warehouse);
+    }
+    eventPublisher.publish(
+        new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.ARCHIVED, warehouse));
   }
 }
@@ -1,13 +1,18 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.ConflictException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.ws.rs.WebApplicationException;
 
 import java.time.LocalDateTime;
 
@@ -18,42 +23,74 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final LocationResolver locationResolver; // Port injected here
 
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  private final CapacityReservations reservations;
+
   @Inject
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public CreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher,
+      CapacityReservations reservations) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
+    this.reservations = reservations;
   }
 
   @Override
   public void create(Warehouse warehouse) {
     // 1. BU Code Uniqueness
     if (warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode) != null) {
-      throw new WebApplicationException("Business Unit Code already exists", 409);
+      throw new ConflictException("Business Unit Code already exists");
     }
 
     // 2. Location Validation
-    Location location = locationResolver.resolveByIdentifier(warehouse.location);
-    // LocationGateway throws IllegalArgumentException if not found
+    Location location = resolveLocation(locationResolver, warehouse.location);
 
     /// 3. Warehouse Creation Feasibility (Density Check)
-    long currentActiveCount = warehouseStore.getAll().stream()
-            .filter(w -> w.location.equals(warehouse.location) && w.archivedAt == null)
-            .count();
+    // Counted in the location's region partition rather than over every warehouse
+    long currentActiveCount = warehouseStore.countActiveByLocation(warehouse.location);
     if (currentActiveCount >= location.maxNumberOfWarehouses) {
-      throw new WebApplicationException("Maximum number of warehouses reached for this location", 400);
+      throw new BusinessRuleException("Maximum number of warehouses reached for this location");
     }
 
     // 4. Capacity and Stock Validation
     if (warehouse.capacity > location.maxCapacity) {
-      throw new WebApplicationException("Warehouse capacity exceeds the location's maximum capacity", 400);
+      throw new BusinessRuleException("Warehouse capacity exceeds the location's maximum capacity");
+    }
+
+    // Capacity held for inbound shipments at the location is not available to a new warehouse
+    int reserved = reservations.reservedAtLocation(location.identification);
+    if (reserved > 0 && warehouse.capacity > location.maxCapacity - reserved) {
+      throw new BusinessRuleException(
+          "Warehouse capacity exceeds the location's capacity left after reservations");
     }
 
     if (warehouse.stock > warehouse.capacity) {
-      throw new WebApplicationException("Stock informed exceeds the warehouse capacity", 400);
+      throw new BusinessRuleException("Stock informed exceeds the warehouse capacity");
     }
 
     // if all went well, create the warehouse
     warehouse.createdAt = LocalDateTime.now();
     warehouseStore.create(warehouse);
+    occupancyRollup.add(warehouse);
+    eventPublisher.publish(
+        new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.CREATED, warehouse));
+  }
+
+  // The resolver throws IllegalArgumentException for an unknown location; to the client it is an
+  // invalid warehouse, not a server fault
+  static Location resolveLocation(LocationResolver locationResolver, String identifier) {
+    try {
+      return locationResolver.resolveByIdentifier(identifier);
+    } catch (IllegalArgumentException e) {
+      throw new BusinessRuleException("Location not found: " + identifier);
+    }
   }
 }
@@ -0,0 +1,108 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.DomainException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.PatchWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class PatchWarehouseUseCase implements PatchWarehouseOperation {
+
+  private final WarehouseStore warehouseStore;
+
+  private final LocationResolver locationResolver;
+
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  private final CapacityReservations reservations;
+
+  public PatchWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher,
+      CapacityReservations reservations) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
+    this.reservations = reservations;
+  }
+
+  @Override
+  public Warehouse patch(String businessUnitCode, WarehousePatch patch) {
+    if (patch.isEmpty()) {
+      throw new InvalidRequestException("Patch does not change any field.");
+    }
+
+    // The stock-fits-capacity rule, counting capacity reserved for inbound shipments, is part of
+    // the update itself
+    Warehouse previous = warehouseStore.patchActive(businessUnitCode, patch);
+    if (previous == null) {
+      throw rejection(businessUnitCode, patch);
+    }
+    Warehouse patched = patch.applyTo(previous);
+
+    // The location rules need the location's limits; breaking them rolls the update back
+    Location location =
+        CreateWarehouseUseCase.resolveLocation(locationResolver, patched.location);
+    if (patched.capacity > location.maxCapacity) {
+      throw new BusinessRuleException("Warehouse capacity exceeds the location's maximum capacity");
+    }
+    if (!patched.location.equals(previous.location)) {
+      long activeAtLocation = warehouseStore.countActiveByLocation(patched.location);
+      if (activeAtLocation > location.maxNumberOfWarehouses) {
+        throw new BusinessRuleException("Maximum number of warehouses reached for this location");
+      }
+      // As on create, capacity held for inbound shipments at the new location is not available
+      int reserved = reservations.reservedAtLocation(location.identification);
+      if (reserved > 0 && patched.capacity > location.maxCapacity - reserved) {
+        throw new BusinessRuleException(
+            "Warehouse capacity exceeds the location's capacity left after reservations");
+      }
+    }
+
+    occupancyRollup.remove(previous);
+    occupancyRollup.add(patched);
+    eventPublisher.publish(
+        new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.UPDATED, patched));
+    return patched;
+  }
+
+  private DomainException rejection(String businessUnitCode, WarehousePatch patch) {
+    Warehouse current = warehouseStore.findByBusinessUnitCode(businessUnitCode);
+    if (current == null) {
+      return new ResourceNotFoundException("Warehouse not found");
+    }
+    if (current.archivedAt != null) {
+      return new BusinessRuleException("Archived warehouses cannot be changed");
+    }
+    Warehouse patched = patch.applyTo(current);
+    if (patched.stock != null && patched.capacity != null && patched.stock > patched.capacity) {
+      return new BusinessRuleException("Stock informed exceeds the warehouse capacity");
+    }
+    int reserved = reservations.reservedInWarehouse(businessUnitCode);
+    if (patched.stock != null
+        && patched.capacity != null
+        && patched.stock + reserved > patched.capacity) {
+      return new BusinessRuleException(
+          "New capacity cannot accommodate current stock and reserved capacity");
+    }
+    // The row changed between the write and this read; the client can retry against it
+    return new ConflictException("Warehouse was modified concurrently");
+  }
+}
@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.RecordStockMovementsOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+
+@ApplicationScoped
+public class RecordStockMovementsUseCase implements RecordStockMovementsOperation {
+
+  private final StockLedger stockLedger;
+
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  public RecordStockMovementsUseCase(
+      StockLedger stockLedger,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher) {
+    this.stockLedger = stockLedger;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public List<StockChange> record(List<StockMovement> movements) {
+    // Zero and capacity are checked by the ledger under the warehouses' stock locks
+    List<StockChange> changes = stockLedger.append(movements);
+
+    // Movements only reach active warehouses, so each one is in the rollup
+    for (StockChange change : changes) {
+      occupancyRollup.remove(change.before);
+      occupancyRollup.add(change.after);
+      eventPublisher.publish(
+          new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.UPDATED, change.after));
+    }
+    return changes;
+  }
+}
@@ -1,37 +1,102 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.DomainException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.ws.rs.WebApplicationException;
+import java.util.Objects;
 
 @ApplicationScoped
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore) {
+  private final LocationResolver locationResolver;
+
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  private final CapacityReservations reservations;
+
+  public ReplaceWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher,
+      CapacityReservations reservations) {
     this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
+    this.reservations = reservations;
   }
 
   @Override
   public void replace(Warehouse newWarehouse) {
+    // One conditional write under the warehouse's stock lock; it also keeps the capacity reserved
+    // for inbound shipments. The rules are only evaluated in Java to explain a rejection
+    Warehouse previous = warehouseStore.replaceIfStockMatches(newWarehouse);
+    if (previous == null) {
+      throw rejection(newWarehouse);
+    }
+
+    // As on create, capacity held for inbound shipments at a new location is not available to the
+    // replacement; breaking the rule rolls the write back
+    if (!Objects.equals(newWarehouse.location, previous.location)) {
+      int reserved = reservations.reservedAtLocation(newWarehouse.location);
+      if (reserved > 0) {
+        Location location =
+            CreateWarehouseUseCase.resolveLocation(locationResolver, newWarehouse.location);
+        if (newWarehouse.capacity > location.maxCapacity - reserved) {
+          throw new BusinessRuleException(
+              "Warehouse capacity exceeds the location's capacity left after reservations");
+        }
+      }
+    }
+
+    // The replacement takes the previous warehouse's place in the rollup, as an active warehouse
+    if (previous.archivedAt == null) {
+      occupancyRollup.remove(previous);
+    }
+    occupancyRollup.add(newWarehouse);
+    eventPublisher.publish(
+        new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.REPLACED, newWarehouse));
+  }
+
+  private DomainException rejection(Warehouse newWarehouse) {
     Warehouse current = warehouseStore.findByBusinessUnitCode(newWarehouse.businessUnitCode);
     if (current == null) {
-      throw new WebApplicationException("Warehouse not found", 404);
+      return new ResourceNotFoundException("Warehouse not found");
     }
 
     // Capacity Accommodation: New capacity must fit current stock
-    if (newWarehouse.capacity < current.stock) {
-      throw new WebApplicationException("New capacity cannot accommodate current stock", 400);
+    if (newWarehouse.capacity == null
+        || current.stock != null && newWarehouse.capacity < current.stock) {
+      return new BusinessRuleException("New capacity cannot accommodate current stock");
+    }
+    int reserved = reservations.reservedInWarehouse(newWarehouse.businessUnitCode);
+    if (current.stock != null && newWarehouse.capacity < current.stock + reserved) {
+      return new BusinessRuleException(
+          "New capacity cannot accommodate current stock and reserved capacity");
     }
 
     // Stock Matching: Replacement must have identical stock levels
-    if (!newWarehouse.stock.equals(current.stock)) {
-      throw new WebApplicationException("Replacement stock must match current stock", 400);
+    if (!Objects.equals(newWarehouse.stock, current.stock)) {
+      return new BusinessRuleException("Replacement stock must match current stock");
     }
 
-    warehouseStore.update(newWarehouse);
+    // The row changed between the write and this read; the client can retry against it
+    return new ConflictException("Warehouse was modified concurrently");
   }
 }
@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.errors.ResourceNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReserveCapacityOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+
+@ApplicationScoped
+public class ReserveCapacityUseCase implements ReserveCapacityOperation {
+
+  private final WarehouseStore warehouseStore;
+
+  private final LocationResolver locationResolver;
+
+  private final CapacityReservations reservations;
+
+  public ReserveCapacityUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      CapacityReservations reservations) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.reservations = reservations;
+  }
+
+  @Override
+  public CapacityReservation reserveInWarehouse(
+      String businessUnitCode, int quantity, Duration ttl) {
+    validate(quantity, ttl);
+    Warehouse warehouse = warehouseStore.findByBusinessUnitCode(businessUnitCode);
+    if (warehouse == null) {
+      throw new ResourceNotFoundException("Warehouse not found: " + businessUnitCode);
+    }
+    if (warehouse.archivedAt != null) {
+      throw new BusinessRuleException("Archived warehouses cannot take reservations");
+    }
+
+    // The free capacity is checked against the stock and reservations current under the lock
+    CapacityReservation reserved =
+        reservations.reserveInWarehouse(
+            new CapacityReservation(businessUnitCode, null, quantity), ttl);
+    if (reserved == null) {
+      throw new BusinessRuleException("Not enough free capacity left in the warehouse");
+    }
+    return reserved;
+  }
+
+  @Override
+  public CapacityReservation reserveAtLocation(String location, int quantity, Duration ttl) {
+    validate(quantity, ttl);
+    Location resolved;
+    try {
+      resolved = locationResolver.resolveByIdentifier(location);
+    } catch (IllegalArgumentException e) {
+      throw new ResourceNotFoundException("Location not found: " + location);
+    }
+
+    CapacityReservation reserved =
+        reservations.reserveAtLocation(
+            new CapacityReservation(null, resolved.identification, quantity),
+            ttl,
+            resolved.maxCapacity);
+    if (reserved == null) {
+      throw new BusinessRuleException("Not enough capacity left at the location");
+    }
+    return reserved;
+  }
+
+  @Override
+  public void release(String reservationId) {
+    if (!reservations.release(reservationId)) {
+      throw new ResourceNotFoundException("Reservation not found: " + reservationId);
+    }
+  }
+
+  private static void validate(int quantity, Duration ttl) {
+    if (quantity <= 0) {
+      throw new InvalidRequestException("Reservation quantity must be positive.");
+    }
+    if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+      throw new InvalidRequestException("Reservation time to live must be positive.");
+    }
+  }
+}
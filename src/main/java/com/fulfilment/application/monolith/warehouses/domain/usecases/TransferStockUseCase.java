@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves stock between warehouses. Every leg becomes a TRANSFER_OUT of the source and a
+ * TRANSFER_IN of the destination, and all legs of a call go to the ledger as one append: the
+ * ledger locks every warehouse involved in one canonical order before it reads any stock, checks
+ * the legs in the order given and writes all of them or none. Crossing transfers therefore queue
+ * behind each other instead of deadlocking, and the total stock never changes.
+ */
+@ApplicationScoped
+public class TransferStockUseCase implements TransferStockOperation {
+
+  private final StockLedger stockLedger;
+
+  private final WarehouseOccupancyRollup occupancyRollup;
+
+  private final WarehouseEventPublisher eventPublisher;
+
+  public TransferStockUseCase(
+      StockLedger stockLedger,
+      WarehouseOccupancyRollup occupancyRollup,
+      WarehouseEventPublisher eventPublisher) {
+    this.stockLedger = stockLedger;
+    this.occupancyRollup = occupancyRollup;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public List<StockChange> transfer(List<StockTransfer> transfers) {
+    if (transfers == null || transfers.isEmpty()) {
+      throw new InvalidRequestException("Stock transfers were not set on request.");
+    }
+
+    List<StockMovement> movements = new ArrayList<>(transfers.size() * 2);
+    for (StockTransfer transfer : transfers) {
+      validate(transfer);
+      // The source leg comes first, so a warehouse cannot pass on stock it is only receiving
+      StockMovement out =
+          new StockMovement(
+              transfer.fromBusinessUnitCode, StockMovement.Type.TRANSFER_OUT, transfer.quantity);
+      out.counterpartBusinessUnitCode = transfer.toBusinessUnitCode;
+      StockMovement in =
+          new StockMovement(
+              transfer.toBusinessUnitCode, StockMovement.Type.TRANSFER_IN, transfer.quantity);
+      in.counterpartBusinessUnitCode = transfer.fromBusinessUnitCode;
+      movements.add(out);
+      movements.add(in);
+    }
+
+    List<StockChange> changes = stockLedger.append(movements);
+
+    for (StockChange change : changes) {
+      occupancyRollup.remove(change.before);
+      occupancyRollup.add(change.after);
+      eventPublisher.publish(
+          new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.UPDATED, change.after));
+    }
+    return changes;
+  }
+
+  private static void validate(StockTransfer transfer) {
+    if (transfer == null
+        || transfer.fromBusinessUnitCode == null
+        || transfer.toBusinessUnitCode == null) {
+      throw new InvalidRequestException(
+          "Stock transfer source and destination must be set on request.");
+    }
+    if (transfer.fromBusinessUnitCode.equals(transfer.toBusinessUnitCode)) {
+      throw new InvalidRequestException(
+          "Stock transfer source and destination must be different warehouses.");
+    }
+    if (transfer.quantity <= 0) {
+      throw new InvalidRequestException("Stock transfer quantity must be positive.");
+    }
+  }
+}
@@ -0,0 +1,4 @@
+-- A key is claimed by inserting its row before the request runs, so concurrent duplicates on
+-- any node find the claim instead of running the request again (see IdempotencyCache). An
+-- in-progress row holds no response yet; its expiresAt is the end of the owner's lease.
+ALTER TABLE idempotency_record ADD COLUMN inProgress BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,4 @@
+-- The primary key leads with the region, so a lookup by id alone (Hibernate's find by id, or an
+-- update from a path that does not know the region) probed every partition in full. DbWarehouse
+-- marks the region as its partition key for updates and deletes; this covers the rest.
+CREATE INDEX warehouse_id_idx ON warehouse (id);
@@ -0,0 +1,4 @@
+-- Every warehouse write takes the next value under the warehouse's stock lock and hands it to
+-- WarehouseChangedEvent observers, so the revisions of one business unit code increase in commit
+-- order and an in-memory index can tell a late event from a newer one (see WarehouseStockLocks).
+CREATE SEQUENCE warehouse_change_seq;
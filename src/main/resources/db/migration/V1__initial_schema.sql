@@ -0,0 +1,44 @@
+-- Tables as previously generated by Hibernate from the entities. Sequences use the Hibernate
+-- default allocation size of 50.
+
+CREATE SEQUENCE store_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE warehouse_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE store (
+    id BIGINT NOT NULL,
+    name VARCHAR(40),
+    quantityProductsInStock INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT store_name_key UNIQUE (name)
+);
+
+CREATE TABLE product (
+    id BIGINT NOT NULL,
+    name VARCHAR(40),
+    description VARCHAR(255),
+    price NUMERIC(10, 2),
+    stock INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT product_name_key UNIQUE (name)
+);
+
+CREATE TABLE warehouse (
+    id BIGINT NOT NULL,
+    businessUnitCode VARCHAR(255),
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE warehouse_occupancy_rollup (
+    location VARCHAR(255) NOT NULL,
+    utilisationBucket INTEGER NOT NULL,
+    warehouses BIGINT NOT NULL,
+    capacity BIGINT NOT NULL,
+    stock BIGINT NOT NULL,
+    PRIMARY KEY (location, utilisationBucket)
+);
@@ -0,0 +1,10 @@
+-- Every warehouse lookup and write goes through the business unit code
+CREATE UNIQUE INDEX IF NOT EXISTS warehouse_business_unit_code_idx
+    ON warehouse (businessUnitCode);
+
+-- Active warehouses per location (creation checks, rollup recompute, search index rebuild)
+CREATE INDEX IF NOT EXISTS warehouse_location_archived_at_idx
+    ON warehouse (location, archivedAt);
+
+-- Name lookups and the name-ordered list endpoints are served by the indexes behind the unique
+-- constraints on store.name and product.name, so they need no extra index.
@@ -0,0 +1,24 @@
+-- Seed data, formerly import.sql. Safe to run against a database that already holds these rows.
+
+INSERT INTO store(id, name, quantityProductsInStock) VALUES
+    (1, 'TONSTAD', 10),
+    (2, 'KALLAX', 5),
+    (3, 'BESTÅ', 3)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO product(id, name, stock) VALUES
+    (1, 'TONSTAD', 10),
+    (2, 'KALLAX', 5),
+    (3, 'BESTÅ', 3)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) VALUES
+    (1, 'MWH.001', 'ZWOLLE-001', 100, 10, '2024-07-01', null),
+    (2, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null),
+    (3, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null)
+ON CONFLICT DO NOTHING;
+
+-- Only move sequences forward, never back over ids already handed out
+SELECT setval('store_seq', 4, false) WHERE (SELECT last_value FROM store_seq) < 4;
+SELECT setval('product_seq', 4, false) WHERE (SELECT last_value FROM product_seq) < 4;
+SELECT setval('warehouse_seq', 4, false) WHERE (SELECT last_value FROM warehouse_seq) < 4;
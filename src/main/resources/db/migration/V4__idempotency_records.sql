@@ -0,0 +1,13 @@
+-- Responses to POST requests made with an Idempotency-Key (see IdempotencyCache)
+CREATE TABLE idempotency_record (
+    idempotencyKey VARCHAR(320) NOT NULL,
+    fingerprint VARCHAR(64),
+    status INTEGER NOT NULL,
+    mediaType VARCHAR(255),
+    location VARCHAR(255),
+    body BYTEA,
+    expiresAt TIMESTAMP(6),
+    PRIMARY KEY (idempotencyKey)
+);
+
+CREATE INDEX idempotency_record_expires_at_idx ON idempotency_record (expiresAt);
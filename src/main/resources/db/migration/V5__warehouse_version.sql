@@ -0,0 +1,2 @@
+-- Optimistic lock version for DbWarehouse
+ALTER TABLE warehouse ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
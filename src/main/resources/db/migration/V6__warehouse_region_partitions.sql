@@ -0,0 +1,70 @@
+-- Warehouses are partitioned by region, the location identification without its sequence
+-- number (ZWOLLE-001 -> ZWOLLE, see Location.regionOf). Queries that filter on region only scan
+-- that region's partition. A new region gets its partition from a migration before its first
+-- warehouse is created; until then its warehouses land in warehouse_other_regions.
+
+DROP INDEX warehouse_business_unit_code_idx;
+DROP INDEX warehouse_location_archived_at_idx;
+ALTER TABLE warehouse RENAME TO warehouse_unpartitioned;
+ALTER TABLE warehouse_unpartitioned RENAME CONSTRAINT warehouse_pkey TO warehouse_unpartitioned_pkey;
+
+-- Keys of a partitioned table must include the partition key
+CREATE TABLE warehouse (
+    id BIGINT NOT NULL,
+    region VARCHAR(255) NOT NULL,
+    businessUnitCode VARCHAR(255),
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (region, id)
+) PARTITION BY LIST (region);
+
+CREATE TABLE warehouse_zwolle PARTITION OF warehouse FOR VALUES IN ('ZWOLLE');
+CREATE TABLE warehouse_amsterdam PARTITION OF warehouse FOR VALUES IN ('AMSTERDAM');
+CREATE TABLE warehouse_tilburg PARTITION OF warehouse FOR VALUES IN ('TILBURG');
+CREATE TABLE warehouse_helmond PARTITION OF warehouse FOR VALUES IN ('HELMOND');
+CREATE TABLE warehouse_eindhoven PARTITION OF warehouse FOR VALUES IN ('EINDHOVEN');
+CREATE TABLE warehouse_vetsby PARTITION OF warehouse FOR VALUES IN ('VETSBY');
+CREATE TABLE warehouse_other_regions PARTITION OF warehouse DEFAULT;
+
+-- A unique index on a partitioned table must include the region, so business unit codes are
+-- kept unique across regions by claiming them in a table of their own
+CREATE TABLE warehouse_business_unit (
+    businessUnitCode VARCHAR(255) NOT NULL,
+    PRIMARY KEY (businessUnitCode)
+);
+
+-- Moving a warehouse to another region is a delete and an insert, so it releases and reclaims
+-- its code
+CREATE FUNCTION warehouse_business_unit_claim() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO warehouse_business_unit (businessUnitCode) VALUES (NEW.businessUnitCode);
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM warehouse_business_unit WHERE businessUnitCode = OLD.businessUnitCode;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER warehouse_business_unit_claim
+    AFTER INSERT OR DELETE ON warehouse
+    FOR EACH ROW EXECUTE FUNCTION warehouse_business_unit_claim();
+
+INSERT INTO warehouse
+    (id, region, businessUnitCode, location, capacity, stock, createdAt, archivedAt, version)
+SELECT id, COALESCE(regexp_replace(location, '-[^-]*$', ''), ''), businessUnitCode, location,
+       capacity, stock, createdAt, archivedAt, version
+FROM warehouse_unpartitioned;
+
+DROP TABLE warehouse_unpartitioned;
+
+-- Lookups by business unit code alone probe each partition's index
+CREATE INDEX warehouse_business_unit_code_idx ON warehouse (businessUnitCode);
+
+-- Active warehouses per location, within the location's region
+CREATE INDEX warehouse_region_location_archived_at_idx
+    ON warehouse (region, location, archivedAt);
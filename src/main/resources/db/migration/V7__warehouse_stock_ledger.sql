@@ -0,0 +1,25 @@
+-- Append-only ledger of warehouse stock movements (see StockLedgerRepository). The stock column
+-- of a warehouse becomes a snapshot: it includes every movement up to stockLedgerPosition, and
+-- the current stock is the snapshot plus the movements after it. StockLedgerCompactor rolls
+-- snapshots forward, so the tail that reads add up stays short.
+
+ALTER TABLE warehouse ADD COLUMN stockLedgerPosition BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE warehouse_stock_movement (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    businessUnitCode VARCHAR(255) NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    -- signed: positive into the warehouse, negative out of it
+    quantity INTEGER NOT NULL,
+    -- the other warehouse of a transfer
+    counterpartBusinessUnitCode VARCHAR(255),
+    recordedAt TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT warehouse_stock_movement_direction CHECK (
+        (type IN ('INBOUND', 'TRANSFER_IN') AND quantity > 0)
+        OR (type IN ('OUTBOUND', 'TRANSFER_OUT') AND quantity < 0))
+);
+
+-- The tail of one warehouse: movements after its snapshot position
+CREATE INDEX warehouse_stock_movement_business_unit_idx
+    ON warehouse_stock_movement (businessUnitCode, id) INCLUDE (quantity);
@@ -0,0 +1,7 @@
+-- Last write-ahead log segment whose stock deltas are committed, per log (see StockWriteBehind).
+-- Updated in the flush transaction, so segments at or below it are never replayed after a crash.
+CREATE TABLE stock_wal_watermark (
+    logId VARCHAR(64) NOT NULL,
+    segment BIGINT NOT NULL,
+    PRIMARY KEY (logId)
+);
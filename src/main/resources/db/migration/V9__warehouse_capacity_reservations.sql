@@ -0,0 +1,26 @@
+-- Capacity held for inbound shipments, shared by every instance (see
+-- CapacityReservationRepository). A reservation holds capacity until expiresAt; expired rows are
+-- ignored by every check and swept in batches.
+CREATE TABLE warehouse_capacity_reservation (
+    id VARCHAR(36) NOT NULL,
+    -- exactly one of the two is set
+    businessUnitCode VARCHAR(255),
+    location VARCHAR(255),
+    quantity INTEGER NOT NULL,
+    expiresAt TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT warehouse_capacity_reservation_target CHECK (
+        (businessUnitCode IS NULL) <> (location IS NULL)),
+    CONSTRAINT warehouse_capacity_reservation_quantity CHECK (quantity > 0)
+);
+
+-- Live reservations of one warehouse or location, summed by every capacity check
+CREATE INDEX warehouse_capacity_reservation_business_unit_idx
+    ON warehouse_capacity_reservation (businessUnitCode, expiresAt) INCLUDE (quantity)
+    WHERE businessUnitCode IS NOT NULL;
+CREATE INDEX warehouse_capacity_reservation_location_idx
+    ON warehouse_capacity_reservation (location, expiresAt) INCLUDE (quantity)
+    WHERE location IS NOT NULL;
+
+CREATE INDEX warehouse_capacity_reservation_expires_at_idx
+    ON warehouse_capacity_reservation (expiresAt);
@@ -0,0 +1,108 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class CacheInvalidationBusTest {
+
+    @Inject
+    CacheInvalidationBus bus;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    // Stands in for a second instance: a notification from another node id on the shared database
+    private void notifyFromOtherNode(String changes) {
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+                .createNativeQuery("SELECT pg_notify(:channel, :payload)")
+                .setParameter("channel", CacheInvalidationBus.CHANNEL)
+                .setParameter("payload", "other-node|" + changes)
+                .getSingleResult());
+    }
+
+    // Creates a store and loads it once, so it sits in this instance's entity cache
+    private Long cachedStore(String name) {
+        Long id = QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store(name);
+            store.persist();
+            return store.id;
+        });
+        QuarkusTransaction.requiringNew().run(() -> Store.findById(id));
+        assertTrue(entityManagerFactory.getCache().contains(Store.class, id));
+        return id;
+    }
+
+    private void awaitEvicted(Class<?> entityClass, Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (entityManagerFactory.getCache().contains(entityClass, id)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError(entityClass.getSimpleName() + " " + id + " was not evicted");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void testNotificationFromOtherNodeEvictsEntity() throws InterruptedException {
+        Long id = cachedStore("CACHED_REMOTE_EVICT");
+
+        notifyFromOtherNode("Store:" + id);
+
+        awaitEvicted(Store.class, id);
+    }
+
+    @Test
+    public void testOwnNotificationsAreIgnored() {
+        Long id = cachedStore("CACHED_OWN_NOTIFICATION");
+
+        bus.apply(bus.nodeId + "|Store:" + id);
+
+        assertTrue(entityManagerFactory.getCache().contains(Store.class, id));
+        bus.apply("other-node|Store:" + id);
+        assertFalse(entityManagerFactory.getCache().contains(Store.class, id));
+    }
+
+    @Test
+    public void testLargeChangeSetsAreSplitIntoSeveralNotifications() {
+        Set<String> ids = new LinkedHashSet<>();
+        for (long id = 1_000_000; id < 1_002_000; id++) {
+            ids.add(String.valueOf(id));
+        }
+        Map<String, Set<String>> changes = new TreeMap<>();
+        changes.put("Store", ids);
+        changes.put("Product", Set.of("7"));
+
+        List<String> payloads = CacheInvalidationBus.encode("node", changes);
+
+        assertTrue(payloads.size() > 1);
+        int total = 0;
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= CacheInvalidationBus.MAX_PAYLOAD);
+            assertTrue(payload.startsWith("node|"));
+            for (String entry : payload.substring(5).split(";")) {
+                total += entry.split(":")[1].split(",").length;
+            }
+        }
+        assertEquals(2001, total);
+        assertTrue(payloads.get(0).startsWith("node|Product:7;Store:"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static com.fulfilment.application.monolith.cache.ResponseBytesCache.GZIP;
+import static com.fulfilment.application.monolith.cache.ResponseBytesCache.IDENTITY;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseBytesCacheTest {
+
+    private static final String JSON_TYPE = "application/json";
+    private static final String CBOR_TYPE = "application/cbor";
+    private static final byte[] JSON = "[{\"id\":1,\"name\":\"TONSTAD\"}]".getBytes(StandardCharsets.UTF_8);
+
+    private ResponseBytesCache cache;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        cache = new ResponseBytesCache();
+        cache.enabled = true;
+        cache.settleTime = Duration.ofSeconds(1);
+        cache.maxEntryBytes = 1024;
+        cache.compressionMinBytes = 16;
+        cache.nanoClock = () -> now;
+    }
+
+    @Test
+    public void testRenderIsServedFromDirectBuffer() {
+        ResponseBytesCache.Ticket ticket = cache.ticket("store");
+        cache.put("store", JSON_TYPE, IDENTITY, ticket, JSON);
+
+        ResponseBytesCache.Rendered hit = cache.get("store", JSON_TYPE, IDENTITY);
+        assertNotNull(hit);
+        assertTrue(hit.bytes.isDirect());
+        assertTrue(hit.bytes.isReadOnly());
+        assertEquals(IDENTITY, hit.encoding);
+        assertArrayEquals(JSON, bytes(hit.bytes));
+        // Every hit gets its own position, so concurrent writes of the same entry do not interfere
+        assertArrayEquals(JSON, bytes(cache.get("store", JSON_TYPE, IDENTITY).bytes));
+        assertNull(cache.get("product", JSON_TYPE, IDENTITY));
+    }
+
+    @Test
+    public void testMediaTypesAreSeparateVariants() {
+        byte[] cbor = {(byte) 0x81, 0x01};
+        cache.put("store", JSON_TYPE, IDENTITY, cache.ticket("store"), JSON);
+        assertNull(cache.get("store", CBOR_TYPE, IDENTITY));
+
+        cache.put("store", CBOR_TYPE, IDENTITY, cache.ticket("store"), cbor);
+
+        assertArrayEquals(cbor, bytes(cache.get("store", CBOR_TYPE, IDENTITY).bytes));
+        assertArrayEquals(JSON, bytes(cache.get("store", JSON_TYPE, IDENTITY).bytes));
+    }
+
+    @Test
+    public void testWriteDropsTheCollection() {
+        cache.put("store", JSON_TYPE, IDENTITY, cache.ticket("store"), JSON);
+        cache.put("store", CBOR_TYPE, IDENTITY, cache.ticket("store"), JSON);
+        cache.put("product", JSON_TYPE, IDENTITY, cache.ticket("product"), JSON);
+
+        cache.invalidate(Store.class);
+
+        assertNull(cache.get("store", JSON_TYPE, IDENTITY));
+        assertNull(cache.get("store", CBOR_TYPE, IDENTITY));
+        assertNotNull(cache.get("product", JSON_TYPE, IDENTITY));
+    }
+
+    @Test
+    public void testRenderRacingAWriteIsNotStored() {
+        ResponseBytesCache.Ticket ticket = cache.ticket("product");
+        now += Duration.ofSeconds(5).toNanos();
+        cache.invalidate(Product.class);
+
+        ResponseBytesCache.Rendered served = cache.put("product", JSON_TYPE, IDENTITY, ticket, JSON);
+
+        assertArrayEquals(JSON, bytes(served.bytes));
+        assertNull(cache.get("product", JSON_TYPE, IDENTITY));
+    }
+
+    @Test
+    public void testRenderWithinSettleTimeIsNotStored() {
+        now += Duration.ofSeconds(5).toNanos();
+        cache.invalidate(Store.class);
+
+        now += Duration.ofMillis(500).toNanos();
+        cache.put("store", JSON_TYPE, IDENTITY, cache.ticket("store"), JSON);
+        assertNull(cache.get("store", JSON_TYPE, IDENTITY));
+
+        now += Duration.ofMillis(500).toNanos();
+        cache.put("store", JSON_TYPE, IDENTITY, cache.ticket("store"), JSON);
+        assertNotNull(cache.get("store", JSON_TYPE, IDENTITY));
+    }
+
+    @Test
+    public void testGzipRenderStoresBothEncodings() throws IOException {
+        ResponseBytesCache.Rendered served =
+                cache.put("warehouse", JSON_TYPE, GZIP, cache.ticket("warehouse"), JSON);
+
+        assertEquals(GZIP, served.encoding);
+        assertArrayEquals(JSON, gunzip(bytes(served.bytes)));
+        assertArrayEquals(JSON, gunzip(bytes(cache.get("warehouse", JSON_TYPE, GZIP).bytes)));
+        assertArrayEquals(JSON, bytes(cache.get("warehouse", JSON_TYPE, IDENTITY).bytes));
+    }
+
+    @Test
+    public void testRenderBelowCompressionThresholdStaysIdentity() {
+        cache.compressionMinBytes = JSON.length + 1;
+
+        ResponseBytesCache.Rendered served =
+                cache.put("warehouse", JSON_TYPE, GZIP, cache.ticket("warehouse"), JSON);
+
+        assertEquals(IDENTITY, served.encoding);
+        assertArrayEquals(JSON, bytes(served.bytes));
+        ResponseBytesCache.Rendered hit = cache.get("warehouse", JSON_TYPE, GZIP);
+        assertEquals(IDENTITY, hit.encoding);
+        assertArrayEquals(JSON, bytes(hit.bytes));
+    }
+
+    @Test
+    public void testOversizedRenderIsNotStored() {
+        cache.maxEntryBytes = JSON.length - 1;
+
+        cache.put("store", JSON_TYPE, IDENTITY, cache.ticket("store"), JSON);
+
+        assertNull(cache.get("store", JSON_TYPE, IDENTITY));
+    }
+
+    @Test
+    public void testAcceptEncoding() {
+        assertTrue(ResponseBytesFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseBytesFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(ResponseBytesFilter.acceptsGzip("*"));
+        assertFalse(ResponseBytesFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseBytesFilter.acceptsGzip("identity"));
+        assertFalse(ResponseBytesFilter.acceptsGzip(null));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fulfilment.application.monolith.encoding.BinaryFormats;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class ResponseBytesFilterTest {
+
+    @Test
+    public void testCachedListFollowsWrites() throws InterruptedException {
+        // Outside the settle time of earlier writes, so the second read is a hit
+        Thread.sleep(1100);
+        String first = given().when().get("store").then().statusCode(200).extract().asString();
+        given().when().get("store").then().statusCode(200).body(equalTo(first));
+
+        given().contentType(ContentType.JSON)
+                .body("{\"name\":\"RESPONSE-CACHE-STORE\",\"quantityProductsInStock\":3}")
+                .when().post("store")
+                .then().statusCode(201);
+
+        // The write dropped the cached list at commit
+        given().when().get("store")
+                .then().statusCode(200)
+                .body(containsString("RESPONSE-CACHE-STORE"));
+    }
+
+    @Test
+    public void testSmallListIsNotCompressed() {
+        // The seeded product list is below app.compression.min-bytes
+        given().header("Accept-Encoding", "gzip")
+                .when().get("product")
+                .then().statusCode(200)
+                .header("Content-Encoding", not(equalTo("gzip")))
+                .header("Vary", containsString("Accept-Encoding"))
+                .contentType(ContentType.JSON)
+                .body(containsString("KALLAX"));
+    }
+
+    @Test
+    public void testCborVariant() throws IOException {
+        byte[] body = given().accept(BinaryFormats.CBOR)
+                .when().get("product")
+                .then().statusCode(200)
+                .contentType(BinaryFormats.CBOR)
+                .header("Vary", containsString("Accept"))
+                .extract().asByteArray();
+
+        JsonNode products = new CBORMapper().readTree(body);
+        assertTrue(products.isArray());
+        assertTrue(products.findValuesAsText("name").contains("KALLAX"));
+
+        // The JSON variant is cached apart from the CBOR one
+        given().when().get("product")
+                .then().statusCode(200)
+                .contentType(ContentType.JSON)
+                .body(containsString("KALLAX"));
+    }
+
+    @Test
+    public void testQueryVariantIsNotCached() {
+        given().when().get("product?sort=name")
+                .then().statusCode(200)
+                .header("Vary", not(containsString("Accept-Encoding")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.fulfilment.application.monolith.datasource;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.inject.Instance;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.StatelessSessionBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The replica is stood in by a mocked pool, so routing, read-your-writes and fallback can be
+ * checked without a second PostgreSQL.
+ */
+public class ReadReplicaRouterTest {
+
+    private ReadReplicaRouter router;
+    private Session primarySession;
+    private StatelessSession replicaSession;
+    private AgroalDataSource replicaPool;
+    private Connection replicaConnection;
+    private TransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        primarySession = mock(Session.class);
+        replicaSession = mock(StatelessSession.class);
+        replicaPool = mock(AgroalDataSource.class);
+        replicaConnection = mock(Connection.class);
+        transactionManager = mock(TransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        StatelessSessionBuilder builder = mock(StatelessSessionBuilder.class);
+        when(sessionFactory.withStatelessOptions()).thenReturn(builder);
+        when(builder.connection(any())).thenReturn(builder);
+        when(builder.openStatelessSession()).thenReturn(replicaSession);
+        when(replicaPool.getConnection()).thenReturn(replicaConnection);
+        when(transactionManager.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        Instance<AgroalDataSource> replicaInstance = mock(Instance.class);
+        when(replicaInstance.isResolvable()).thenReturn(true);
+        when(replicaInstance.get()).thenReturn(replicaPool);
+
+        router = new ReadReplicaRouter();
+        router.enabled = true;
+        router.session = primarySession;
+        router.sessionFactory = sessionFactory;
+        router.transactionManager = transactionManager;
+        router.meterRegistry = meterRegistry;
+        router.replicaInstance = replicaInstance;
+        router.init();
+    }
+
+    @Test
+    void testReadOutsideTransactionGoesToReplica() throws Exception {
+        String result = router.read(session -> session == replicaSession ? "replica" : "primary");
+
+        assertEquals("replica", result);
+        verify(replicaConnection).setReadOnly(true);
+        verify(replicaConnection).close();
+        assertEquals(1, meterRegistry.counter("datasource.read.routed", "target", "replica").count());
+    }
+
+    @Test
+    void testReplicaSessionsNeverFillTheSecondLevelCache() {
+        router.read(session -> null);
+        router.findById(Object.class, 1L);
+        router.findMultiple(Object.class, java.util.List.of(1L));
+
+        verify(replicaSession, times(3)).setCacheMode(CacheMode.GET);
+    }
+
+    @Test
+    void testReadInsideTransactionStaysOnPrimary() throws Exception {
+        when(transactionManager.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        String result = router.read(session -> session == primarySession ? "primary" : "replica");
+
+        assertEquals("primary", result);
+        verify(replicaPool, never()).getConnection();
+    }
+
+    @Test
+    void testSaturatedReplicaFallsBackToPrimary() throws Exception {
+        when(replicaPool.getConnection()).thenThrow(new SQLException("Acquisition timeout"));
+
+        String result = router.read(session -> session == primarySession ? "primary" : "replica");
+
+        assertEquals("primary", result);
+        assertEquals(1, meterRegistry.counter("datasource.read.fallbacks").count());
+    }
+
+    @Test
+    void testFindByIdOnReplica() {
+        when(replicaSession.get(String.class, 1L)).thenReturn("from-replica");
+
+        assertEquals("from-replica", router.findById(String.class, 1L));
+        verify(primarySession, never()).find(String.class, 1L);
+    }
+
+    @Test
+    void testDisabledRoutingUsesPrimary() {
+        router.enabled = false;
+        router.replica = null;
+        when(primarySession.find(String.class, 1L)).thenReturn("from-primary");
+
+        assertEquals("from-primary", router.findById(String.class, 1L));
+        verifyNoInteractions(replicaPool);
+    }
+}
@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndpointStatisticsTest {
+
+    private static RequestStatistics request(int statements, int entitiesLoaded) {
+        RequestStatistics request = new RequestStatistics();
+        request.statements = statements;
+        request.entitiesLoaded = entitiesLoaded;
+        return request;
+    }
+
+    @Test
+    public void testQueryPerEntityIsFlaggedAsNPlusOne() {
+        EndpointStatistics statistics = new EndpointStatistics();
+        for (int entities = 1; entities <= 10; entities++) {
+            statistics.record(request(1 + entities, entities), 1_000_000);
+        }
+
+        EndpointStatistics.Summary summary = statistics.summary(0.5, 500);
+
+        assertEquals(1.0, summary.statementsPerEntity, 1e-9);
+        assertTrue(summary.flags.contains("N_PLUS_ONE"));
+        assertEquals(11, summary.maxStatements);
+    }
+
+    @Test
+    public void testSingleQueryListIsNotNPlusOneButCanBeUnbounded() {
+        EndpointStatistics statistics = new EndpointStatistics();
+        for (int entities = 100; entities <= 1000; entities += 100) {
+            statistics.record(request(1, entities), 1_000_000);
+        }
+
+        EndpointStatistics.Summary summary = statistics.summary(0.5, 500);
+
+        assertEquals(0.0, summary.statementsPerEntity, 1e-9);
+        assertFalse(summary.flags.contains("N_PLUS_ONE"));
+        assertTrue(summary.flags.contains("UNBOUNDED_RESULT"));
+    }
+
+    @Test
+    public void testNoFitWithoutVariation() {
+        EndpointStatistics statistics = new EndpointStatistics();
+        for (int i = 0; i < 10; i++) {
+            statistics.record(request(2, 1), 1_000_000);
+        }
+
+        EndpointStatistics.Summary summary = statistics.summary(0.5, 500);
+
+        assertNull(summary.statementsPerEntity);
+        assertTrue(summary.flags.isEmpty());
+        assertEquals(2.0, summary.statementsPerRequest, 1e-9);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.encoding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryFormatsTest {
+
+    @Test
+    public void testJsonWithoutAcceptHeader() {
+        assertEquals("application/json", BinaryFormats.negotiate(null));
+        assertEquals("application/json", BinaryFormats.negotiate(""));
+    }
+
+    @Test
+    public void testWildcardsStandForJson() {
+        assertEquals("application/json", BinaryFormats.negotiate("*/*"));
+        assertEquals("application/json", BinaryFormats.negotiate("application/*"));
+    }
+
+    @Test
+    public void testNamedBinaryFormat() {
+        assertEquals(BinaryFormats.CBOR, BinaryFormats.negotiate("application/cbor"));
+        assertEquals(BinaryFormats.SMILE, BinaryFormats.negotiate("application/x-jackson-smile"));
+        // Named beats a wildcard of the same quality
+        assertEquals(BinaryFormats.CBOR, BinaryFormats.negotiate("*/*, application/cbor"));
+    }
+
+    @Test
+    public void testQualityDecides() {
+        assertEquals(BinaryFormats.SMILE,
+                BinaryFormats.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals("application/json",
+                BinaryFormats.negotiate("application/cbor;q=0.2, */*;q=0.8"));
+        // Equal quality: the first named wins
+        assertEquals(BinaryFormats.CBOR,
+                BinaryFormats.negotiate("application/cbor, application/json"));
+    }
+
+    @Test
+    public void testNothingAcceptable() {
+        assertNull(BinaryFormats.negotiate("text/html"));
+        assertNull(BinaryFormats.negotiate("application/cbor;q=0"));
+    }
+}
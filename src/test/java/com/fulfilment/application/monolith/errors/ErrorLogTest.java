@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.errors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorLogTest {
+
+    @Test
+    public void testClientErrorsAreSampled() {
+        ErrorLog log = new ErrorLog(3, 10, System::nanoTime);
+
+        int logged = 0;
+        for (int i = 0; i < 9; i++) {
+            if (log.sampleClientError()) {
+                logged++;
+            }
+        }
+        assertEquals(3, logged);
+    }
+
+    @Test
+    public void testClientErrorLoggingCanBeDisabled() {
+        ErrorLog log = new ErrorLog(0, 10, System::nanoTime);
+
+        assertFalse(log.sampleClientError());
+    }
+
+    @Test
+    public void testServerFaultsAreCappedPerSecondAndReportSuppressed() {
+        AtomicLong now = new AtomicLong();
+        ErrorLog log = new ErrorLog(100, 2, now::get);
+
+        assertEquals(0, log.admitServerFault());
+        assertEquals(0, log.admitServerFault());
+        assertEquals(-1, log.admitServerFault());
+        assertEquals(-1, log.admitServerFault());
+
+        // The first fault of the next second carries the count of the ones dropped before it
+        now.addAndGet(1_000_000_000L);
+        assertEquals(2, log.admitServerFault());
+        assertEquals(0, log.admitServerFault());
+    }
+}
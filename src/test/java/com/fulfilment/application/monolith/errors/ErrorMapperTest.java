@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.errors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class ErrorMapperTest {
+
+    @Inject
+    ErrorMapper errorMapper;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private JsonNode body(Response response) throws Exception {
+        assertEquals(ProblemType.MEDIA_TYPE, response.getMediaType().toString());
+        return objectMapper.readTree((byte[]) response.getEntity());
+    }
+
+    @Test
+    public void testToResponse_DomainException() throws Exception {
+        String errorMessage = "Store with id of 999 does \"not\" exist.";
+
+        Response response = errorMapper.toResponse(new ResourceNotFoundException(errorMessage));
+
+        assertEquals(404, response.getStatus());
+        JsonNode json = body(response);
+        assertEquals("/problems/not-found", json.get("type").asText());
+        assertEquals("Resource not found", json.get("title").asText());
+        assertEquals(404, json.get("status").asInt());
+        assertEquals(errorMessage, json.get("detail").asText());
+        // Members of the error body used before problem details
+        assertEquals(404, json.get("code").asInt());
+        assertEquals(errorMessage, json.get("error").asText());
+    }
+
+    @Test
+    public void testToResponse_WebApplicationException() throws Exception {
+        Response response = errorMapper.toResponse(new WebApplicationException("Bad header", 400));
+
+        assertEquals(400, response.getStatus());
+        JsonNode json = body(response);
+        assertEquals("about:blank", json.get("type").asText());
+        assertEquals("Bad Request", json.get("title").asText());
+        assertEquals("Bad header", json.get("detail").asText());
+    }
+
+    @Test
+    public void testToResponse_GeneralExceptionHidesDetail() throws Exception {
+        Response response =
+                errorMapper.toResponse(new RuntimeException("Unexpected Database Failure"));
+
+        assertEquals(500, response.getStatus());
+        JsonNode json = body(response);
+        assertEquals("Internal Server Error", json.get("title").asText());
+        assertNull(json.get("detail"));
+    }
+
+    @Test
+    public void testToResponse_CountsErrorsByType() {
+        double before = count("conflict");
+
+        errorMapper.toResponse(new ConflictException("Warehouse was modified concurrently"));
+        errorMapper.toResponse(new ConflictException("Warehouse was modified concurrently"));
+
+        assertEquals(before + 2, count("conflict"));
+    }
+
+    @Test
+    public void testDomainExceptionsHaveNoStackTrace() {
+        assertEquals(0, new ConflictException("conflict").getStackTrace().length);
+    }
+
+    private double count(String type) {
+        var counter = meterRegistry.find("http.errors").tag("type", type).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,108 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class IdempotencyCacheTest {
+
+    @Test
+    public void testDuplicateOnAnotherNodeWaitsForTheOwner() throws Exception {
+        // Two caches sharing the table stand in for two replicas
+        IdempotencyCache first = node(Duration.ofSeconds(30));
+        IdempotencyCache second = node(Duration.ofSeconds(30));
+        String key = newKey();
+
+        assertNull(first.begin(key, "fingerprint"));
+        CompletableFuture<IdempotencyRecord> duplicate =
+                CompletableFuture.supplyAsync(() -> second.begin(key, "fingerprint"));
+        Thread.sleep(200);
+        assertFalse(duplicate.isDone(), "The duplicate ran while the key was claimed");
+
+        first.complete(key, response("created"));
+
+        IdempotencyRecord replayed = duplicate.get(10, TimeUnit.SECONDS);
+        assertNotNull(replayed);
+        assertEquals(201, replayed.status);
+        assertEquals("created", new String(replayed.body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDuplicateTimesOutWhileTheOwnerRuns() {
+        IdempotencyCache first = node(Duration.ofSeconds(30));
+        IdempotencyCache second = node(Duration.ofMillis(300));
+        String key = newKey();
+
+        assertNull(first.begin(key, "fingerprint"));
+        assertThrows(ConflictException.class, () -> second.begin(key, "fingerprint"));
+
+        first.complete(key, response("created"));
+        assertNotNull(second.begin(key, "fingerprint"));
+    }
+
+    @Test
+    public void testClaimedKeyRejectsDifferentRequestOnAnotherNode() {
+        IdempotencyCache first = node(Duration.ofSeconds(30));
+        IdempotencyCache second = node(Duration.ofSeconds(30));
+        String key = newKey();
+
+        assertNull(first.begin(key, "fingerprint"));
+        assertThrows(InvalidRequestException.class, () -> second.begin(key, "other"));
+    }
+
+    @Test
+    public void testAbandonedClaimCanBeTakenByAnotherNode() {
+        IdempotencyCache first = node(Duration.ofSeconds(30));
+        IdempotencyCache second = node(Duration.ofSeconds(30));
+        String key = newKey();
+
+        assertNull(first.begin(key, "fingerprint"));
+        first.abandon(key);
+
+        assertNull(second.begin(key, "fingerprint"));
+    }
+
+    @Test
+    public void testLapsedClaimCanBeTakenByAnotherNode() throws Exception {
+        // The owner's node went away without completing or abandoning the key
+        IdempotencyCache first = node(Duration.ofMillis(100));
+        IdempotencyCache second = node(Duration.ofSeconds(30));
+        String key = newKey();
+
+        assertNull(first.begin(key, "fingerprint"));
+        Thread.sleep(200);
+
+        assertNull(second.begin(key, "fingerprint"));
+    }
+
+    private static IdempotencyCache node(Duration waitTimeout) {
+        IdempotencyCache cache = new IdempotencyCache();
+        cache.ttl = Duration.ofHours(1);
+        cache.maxEntries = 100;
+        cache.waitTimeout = waitTimeout;
+        return cache;
+    }
+
+    private static IdempotencyRecord response(String body) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.fingerprint = "fingerprint";
+        record.status = 201;
+        record.mediaType = "application/json";
+        record.body = body.getBytes(StandardCharsets.UTF_8);
+        return record;
+    }
+
+    private static String newKey() {
+        return "test|" + UUID.randomUUID();
+    }
+}
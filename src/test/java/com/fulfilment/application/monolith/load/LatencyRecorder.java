@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records request latencies per scenario for a load run. Samples go into growable arrays per
+ * scenario; a run of a few minutes at a few thousand requests per second stays well within memory,
+ * and exact percentiles are simpler to trust in an SLO assertion than a bucketed estimate.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+    private final AtomicLong unexpected = new AtomicLong();
+
+    void record(String scenario, long nanos, boolean expectedStatus) {
+        samples.computeIfAbsent(scenario, s -> new Samples()).add(nanos);
+        if (!expectedStatus) {
+            unexpected.incrementAndGet();
+        }
+    }
+
+    long unexpectedResponses() {
+        return unexpected.get();
+    }
+
+    Summary overall(double seconds) {
+        Samples all = new Samples();
+        samples.values().forEach(s -> all.addAll(s));
+        return all.summary(seconds);
+    }
+
+    Map<String, Summary> byScenario(double seconds) {
+        Map<String, Summary> summaries = new TreeMap<>();
+        samples.forEach((scenario, s) -> summaries.put(scenario, s.summary(seconds)));
+        return summaries;
+    }
+
+    static class Summary {
+        final long count;
+        final double p50Millis;
+        final double p99Millis;
+        final double maxMillis;
+        final double throughput;
+
+        Summary(long count, double p50Millis, double p99Millis, double maxMillis, double throughput) {
+            this.count = count;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+            this.throughput = throughput;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "count=%d p50=%.1fms p99=%.1fms max=%.1fms throughput=%.1f/s",
+                    count, p50Millis, p99Millis, maxMillis, throughput);
+        }
+    }
+
+    private static class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        synchronized void addAll(Samples other) {
+            synchronized (other) {
+                for (int i = 0; i < other.size; i++) {
+                    add(other.nanos[i]);
+                }
+            }
+        }
+
+        synchronized Summary summary(double seconds) {
+            if (size == 0) {
+                return new Summary(0, 0, 0, 0, 0);
+            }
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new Summary(
+                    size,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.99),
+                    sorted[size - 1] / 1_000_000.0,
+                    size / seconds);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
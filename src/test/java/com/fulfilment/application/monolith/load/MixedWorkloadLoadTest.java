@@ -0,0 +1,199 @@
+package com.fulfilment.application.monolith.load;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mixed production-like workload against the application and its PostgreSQL instance.
+ *
+ * <p>Tagged {@code load}, so it only runs with {@code ./mvnw test -Pload-test}. The virtual users
+ * pick scenarios by weight: mostly warehouse and store listings, store PATCH storms (each one
+ * synced to the legacy system after commit), product CRUD, and occasional bursts of warehouse
+ * creation at one location, archived again so the location's limits are not exhausted.
+ *
+ * <p>Duration, concurrency and SLOs are system properties, e.g. {@code -Dload.duration=60
+ * -Dload.users=32 -Dload.slo.p99-ms=500}.
+ */
+@QuarkusTest
+@Tag("load")
+public class MixedWorkloadLoadTest {
+
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 20);
+    private static final int USERS = Integer.getInteger("load.users", 16);
+    private static final double SLO_P50_MS = Double.parseDouble(System.getProperty("load.slo.p50-ms", "50"));
+    private static final double SLO_P99_MS = Double.parseDouble(System.getProperty("load.slo.p99-ms", "500"));
+    private static final double SLO_MIN_THROUGHPUT =
+            Double.parseDouble(System.getProperty("load.slo.min-throughput", "100"));
+
+    private static final String[] LOCATIONS = {"AMSTERDAM-001", "AMSTERDAM-002", "ZWOLLE-002", "EINDHOVEN-001"};
+
+    @TestHTTPResource("/")
+    URL baseUrl;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    public void testMixedWorkloadMeetsSlos() throws Exception {
+        List<Scenario> scenarios = List.of(
+                new Scenario("list-warehouses", 30, this::listWarehouses),
+                new Scenario("list-stores", 25, this::listStores),
+                new Scenario("get-warehouse", 10, this::getWarehouse),
+                new Scenario("patch-store-storm", 15, this::patchStoreStorm),
+                new Scenario("product-crud", 15, this::productCrud),
+                new Scenario("warehouse-creation-burst", 5, this::warehouseCreationBurst));
+        int totalWeight = scenarios.stream().mapToInt(s -> s.weight).sum();
+
+        // Warm up connection pools, JIT and caches before measuring
+        runFor(scenarios, totalWeight, 3, new LatencyRecorder());
+
+        long start = System.nanoTime();
+        runFor(scenarios, totalWeight, DURATION_SECONDS, recorder);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyRecorder.Summary overall = recorder.overall(seconds);
+        recorder.byScenario(seconds).forEach((name, summary) -> System.out.println(name + ": " + summary));
+        System.out.println("overall: " + overall);
+
+        assertEquals(0, recorder.unexpectedResponses(), "responses with unexpected status");
+        assertTrue(overall.p50Millis <= SLO_P50_MS, "p50 " + overall.p50Millis + "ms exceeds " + SLO_P50_MS + "ms");
+        assertTrue(overall.p99Millis <= SLO_P99_MS, "p99 " + overall.p99Millis + "ms exceeds " + SLO_P99_MS + "ms");
+        assertTrue(overall.throughput >= SLO_MIN_THROUGHPUT,
+                "throughput " + overall.throughput + "/s below " + SLO_MIN_THROUGHPUT + "/s");
+    }
+
+    private void runFor(List<Scenario> scenarios, int totalWeight, int seconds, LatencyRecorder target)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService users = Executors.newFixedThreadPool(USERS);
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.submit(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        pick(scenarios, totalWeight).action.run(target);
+                    }
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        users.shutdown();
+        assertTrue(users.awaitTermination(seconds + 60L, TimeUnit.SECONDS), "virtual users did not finish");
+        assertTrue(failures.isEmpty(), () -> "virtual users failed: " + failures);
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private void listWarehouses(LatencyRecorder target) throws Exception {
+        call(target, "list-warehouses", "GET", "warehouse", null, Set.of(200));
+    }
+
+    private void listStores(LatencyRecorder target) throws Exception {
+        call(target, "list-stores", "GET", "store", null, Set.of(200));
+    }
+
+    private void getWarehouse(LatencyRecorder target) throws Exception {
+        call(target, "get-warehouse", "GET", "warehouse/MWH.001", null, Set.of(200));
+    }
+
+    // Many clients patching the same few seeded stores, as after a stock import upstream
+    private void patchStoreStorm(LatencyRecorder target) throws Exception {
+        long id = 1 + ThreadLocalRandom.current().nextInt(3);
+        String name = id == 1 ? "TONSTAD" : id == 2 ? "KALLAX" : "BESTÅ";
+        int quantity = 1 + ThreadLocalRandom.current().nextInt(100);
+        call(target, "patch-store-storm", "PATCH", "store/" + id,
+                "{\"name\":\"" + name + "\",\"quantityProductsInStock\":" + quantity + "}", Set.of(200));
+    }
+
+    private void productCrud(LatencyRecorder target) throws Exception {
+        String name = "LOAD-" + sequence.incrementAndGet();
+        HttpResponse<String> created = call(target, "product-crud", "POST", "product",
+                "{\"name\":\"" + name + "\",\"stock\":5}", Set.of(201));
+        String id = created.body().replaceAll(".*\"id\":(\\d+).*", "$1");
+        call(target, "product-crud", "GET", "product/" + id, null, Set.of(200));
+        call(target, "product-crud", "PUT", "product/" + id, "{\"name\":\"" + name + "\",\"stock\":7}", Set.of(200));
+        call(target, "product-crud", "DELETE", "product/" + id, null, Set.of(204));
+    }
+
+    // A burst of creations at one location; a full location answers 400, which is expected here
+    private void warehouseCreationBurst(LatencyRecorder target) throws Exception {
+        String location = LOCATIONS[ThreadLocalRandom.current().nextInt(LOCATIONS.length)];
+        for (int i = 0; i < 5; i++) {
+            String buCode = "LOAD." + sequence.incrementAndGet();
+            HttpResponse<String> created = call(target, "warehouse-creation-burst", "POST", "warehouse",
+                    "{\"businessUnitCode\":\"" + buCode + "\",\"location\":\"" + location
+                            + "\",\"capacity\":10,\"stock\":5}",
+                    Set.of(200, 400));
+            if (created.statusCode() == 200) {
+                call(target, "warehouse-creation-burst", "DELETE", "warehouse/" + buCode, null, Set.of(204));
+            }
+        }
+    }
+
+    private HttpResponse<String> call(LatencyRecorder target, String scenario, String method, String path,
+            String body, Set<Integer> expectedStatuses) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        target.record(scenario, System.nanoTime() - start, expectedStatuses.contains(response.statusCode()));
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(LatencyRecorder target) throws Exception;
+    }
+
+    private static class Scenario {
+        final String name;
+        final int weight;
+        final Action action;
+
+        Scenario(String name, int weight, Action action) {
+            this.name = name;
+            this.weight = weight;
+            this.action = action;
+        }
+    }
+}
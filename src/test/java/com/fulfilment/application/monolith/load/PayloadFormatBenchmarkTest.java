@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fulfilment.application.monolith.encoding.BinaryFormats;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.zip.GZIPOutputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload size and serialisation cost of the list endpoints per response format.
+ *
+ * <p>Tagged {@code load}, so it only runs with {@code ./mvnw test -Pload-test}. Each list is
+ * fetched once per format to check the formats carry the same document, then grown to
+ * {@code -Dbench.rows=5000} entries and written and read {@code -Dbench.iterations=200} times per
+ * format. Sizes are reported as sent and gzipped.
+ */
+@QuarkusTest
+@Tag("load")
+public class PayloadFormatBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 5000);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 200);
+    private static final String[] LISTS = {"warehouse", "store", "product"};
+
+    // JSON reads decimals back as doubles, CBOR and Smile as BigDecimal; compare them by value
+    private static final Comparator<JsonNode> NUMERIC = (a, b) -> a.isNumber() && b.isNumber()
+            ? a.decimalValue().compareTo(b.decimalValue())
+            : a.equals(b) ? 0 : 1;
+
+    @Inject
+    BinaryFormats formats;
+
+    @Test
+    public void testReportPayloadSizeAndSerialisationTimePerFormat() throws IOException {
+        System.out.printf("%-10s %-28s %10s %10s %12s %12s%n",
+                "list", "format", "bytes", "gzipped", "write us", "read us");
+        for (String list : LISTS) {
+            JsonNode reference = null;
+            for (String mediaType : BinaryFormats.MEDIA_TYPES) {
+                ObjectMapper mapper = formats.mapperFor(mediaType);
+                byte[] sent = given().accept(mediaType).header("Accept-Encoding", "identity")
+                        .when().get(list)
+                        .then().statusCode(200).contentType(mediaType)
+                        .extract().asByteArray();
+                JsonNode document = mapper.readTree(sent);
+                if (reference == null) {
+                    reference = document;
+                }
+                assertTrue(reference.equals(NUMERIC, document), list + " differs in " + mediaType);
+
+                JsonNode grown = grow(document);
+                byte[] payload = mapper.writeValueAsBytes(grown);
+                for (int i = 0; i < ITERATIONS / 10; i++) {
+                    mapper.readTree(mapper.writeValueAsBytes(grown));
+                }
+
+                long writeNanos = 0;
+                long readNanos = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long start = System.nanoTime();
+                    byte[] written = mapper.writeValueAsBytes(grown);
+                    writeNanos += System.nanoTime() - start;
+                    start = System.nanoTime();
+                    mapper.readTree(written);
+                    readNanos += System.nanoTime() - start;
+                }
+                System.out.printf("%-10s %-28s %10d %10d %12.1f %12.1f%n",
+                        list + "x" + grown.size(), mediaType, payload.length, gzip(payload).length,
+                        writeNanos / 1e3 / ITERATIONS, readNanos / 1e3 / ITERATIONS);
+            }
+        }
+    }
+
+    // The seeded lists are a handful of rows; repeat them up to ROWS so timings are measurable
+    private static JsonNode grow(JsonNode list) {
+        ArrayNode grown = new ObjectMapper().createArrayNode();
+        while (grown.size() < ROWS && !list.isEmpty()) {
+            for (JsonNode row : list) {
+                grown.add(row.deepCopy());
+            }
+        }
+        return grown;
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(payload);
+        }
+        return compressed.toByteArray();
+    }
+}
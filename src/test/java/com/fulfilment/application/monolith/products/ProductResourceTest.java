@@ -1,5 +1,6 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.stock.StockAdjustment;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import jakarta.inject.Inject;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.hasItem;
@@ -28,7 +30,7 @@ public class ProductResourceTest {
         productRepository.deleteAll();
 
         // Re-seed the data needed for this specific test suite
-        // You can also use a Utility class to run the SQL from import.sql
+        // You can also use a Utility class to run the SQL from the seed migration
         Product p1 = new Product("TONSTAD");
         p1.stock = 10;
         productRepository.persist(p1);
@@ -98,6 +100,116 @@ public class ProductResourceTest {
                 .body("stock", is(99));
     }
 
+    @Test
+    public void testMergePatchProduct() {
+        Long id = productRepository.find("name", "TONSTAD").firstResult().id;
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"stock\": 12, \"description\": \"Oak veneer\"}")
+                .when().patch("/product/" + id)
+                .then()
+                .statusCode(200)
+                .body("name", is("TONSTAD"))
+                .body("stock", is(12))
+                .body("description", is("Oak veneer"));
+    }
+
+    @Test
+    public void testMergePatchProduct_NullRequiredField() {
+        Long id = productRepository.find("name", "TONSTAD").firstResult().id;
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"name\": null}")
+                .when().patch("/product/" + id)
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    public void testMergePatchProduct_NotFound() {
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"stock\": 1}")
+                .when().patch("/product/9999")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void testSearchFollowsCommittedWrites() {
+        Product newProduct = new Product("SKUBB");
+        newProduct.description = "Storage case for wardrobes";
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body(newProduct)
+                .when().post("/product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .queryParam("q", "wardr sku")
+                .when().get("/product/search")
+                .then()
+                .statusCode(200)
+                .body("total", is(1))
+                .body("hits[0].id", is(id))
+                .body("hits[0].name", is("SKUBB"));
+
+        given()
+                .when().delete("/product/" + id)
+                .then()
+                .statusCode(204);
+
+        given()
+                .queryParam("q", "skubb")
+                .when().get("/product/search")
+                .then()
+                .statusCode(200)
+                .body("total", is(0));
+    }
+
+    @Test
+    public void testSearch_LimitOutOfRange() {
+        given()
+                .queryParam("q", "kallax")
+                .queryParam("limit", 1000)
+                .when().get("/product/search")
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    public void testLookupProductsInRequestOrder() {
+        Long kallax = productRepository.find("name", "KALLAX").firstResult().id;
+        Long tonstad = productRepository.find("name", "TONSTAD").firstResult().id;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(kallax, 9999L, tonstad))
+                .when().post("/product/lookup")
+                .then()
+                .statusCode(200)
+                .body("found", org.hamcrest.Matchers.contains(true, false, true))
+                .body("[0].value.name", is("KALLAX"))
+                .body("[1].id", is(9999))
+                .body("[2].value.name", is("TONSTAD"));
+    }
+
+    @Test
+    public void testLookupProducts_TooManyIds() {
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 101).boxed().toList();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(ids)
+                .when().post("/product/lookup")
+                .then()
+                .statusCode(422);
+    }
+
     @Test
     public void testUpdateProduct_NotFound() {
         Product updateData = new Product("Ghost Product");
@@ -151,6 +263,40 @@ public class ProductResourceTest {
                 .when().delete("/product/8888")
                 .then()
                 .statusCode(404)
-                .body("exceptionType", is("jakarta.ws.rs.WebApplicationException"));
+                .contentType("application/problem+json")
+                .body("type", is("/problems/not-found"))
+                .body("status", is(404))
+                .body("detail", is("Product with id of 8888 does not exist."));
+    }
+
+    @Test
+    public void testStockAdjustments() {
+        Long id = productRepository.find("name", "KALLAX").firstResult().id;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new StockAdjustment(id, 4), new StockAdjustment(id, -2)))
+                .when().post("/product/stock-adjustments")
+                .then()
+                .statusCode(204);
+
+        given()
+                .when().get("/product/" + id)
+                .then()
+                .statusCode(200)
+                .body("stock", is(7));
+    }
+
+    @Test
+    public void testStockAdjustments_BelowZeroRejected() {
+        Long id = productRepository.find("name", "BESTÅ").firstResult().id;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new StockAdjustment(id, -4)))
+                .when().post("/product/stock-adjustments")
+                .then()
+                .statusCode(409)
+                .body("code", is(409));
     }
-}
\ No newline at end of file
+}
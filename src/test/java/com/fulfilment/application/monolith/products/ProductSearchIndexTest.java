@@ -0,0 +1,93 @@
+package com.fulfilment.application.monolith.products;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(List.of(
+                product(1L, "TONSTAD", "Oak veneer cabinet"),
+                product(2L, "KALLAX", "Shelf unit, white"),
+                product(3L, "BESTÅ", "TV bench with doors"),
+                product(4L, "KALLAX INSERT", "Insert for a Kallax shelf")));
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product(name);
+        product.id = id;
+        product.description = description;
+        return product;
+    }
+
+    private List<String> names(ProductSearchPage page) {
+        return page.hits.stream().map(hit -> hit.name).toList();
+    }
+
+    @Test
+    void testPrefixMatchesForTypeAhead() {
+        ProductSearchPage page = index.search("kal", 0, 10);
+
+        assertEquals(2, page.total);
+        assertEquals(List.of("KALLAX", "KALLAX INSERT"), names(page));
+    }
+
+    @Test
+    void testEveryTokenMustMatch() {
+        assertEquals(List.of("TONSTAD"), names(index.search("oak cab", 0, 10)));
+        assertEquals(0, index.search("oak shelf", 0, 10).total);
+    }
+
+    @Test
+    void testNameMatchesRankAboveDescriptionMatches() {
+        index.put(product(5L, "LACK", "Side table, matches a TONSTAD"));
+
+        assertEquals(List.of("TONSTAD", "LACK"), names(index.search("tonstad", 0, 10)));
+    }
+
+    @Test
+    void testExactTermsRankAbovePrefixes() {
+        index.put(product(5L, "OAKLAND", "Desk"));
+        index.put(product(6L, "OAK", "Desk"));
+
+        assertEquals("OAK", names(index.search("oak", 0, 10)).get(0));
+    }
+
+    @Test
+    void testCaseAndAccentsAreFolded() {
+        assertEquals(List.of("BESTÅ"), names(index.search("Besta", 0, 10)));
+    }
+
+    @Test
+    void testPagination() {
+        ProductSearchPage page = index.search("kallax", 1, 1);
+
+        assertEquals(2, page.total);
+        assertEquals(List.of("KALLAX INSERT"), names(page));
+        assertTrue(index.search("kallax", 2, 1).hits.isEmpty());
+    }
+
+    @Test
+    void testUpdatesAndRemovalsReplaceEntries() {
+        index.put(product(2L, "HEMNES", "Shoe cabinet"));
+        assertEquals(List.of("KALLAX INSERT"), names(index.search("kallax", 0, 10)));
+        assertEquals(List.of("HEMNES"), names(index.search("shoe", 0, 10)));
+
+        index.remove(2L);
+        assertEquals(0, index.search("hemnes", 0, 10).total);
+    }
+
+    @Test
+    void testBlankQueryMatchesNothing() {
+        assertEquals(0, index.search("  ", 0, 10).total);
+        assertEquals(0, index.search(null, 0, 10).total);
+    }
+}
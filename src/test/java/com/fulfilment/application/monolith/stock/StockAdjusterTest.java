@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class StockAdjusterTest {
+    // Below the test pool's 8 connections, so threads contend on the row locks and not the pool
+    private static final int THREADS = 6;
+    private static final int BATCHES_PER_THREAD = 50;
+
+    @Inject
+    StockAdjuster stockAdjuster;
+
+    @Test
+    public void testConcurrentBatchesWithCrossingIdsDoNotDeadlock() throws Exception {
+        long first = createStore();
+        long second = createStore();
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            // Half the threads list the rows one way round, half the other
+            List<StockAdjustment> batch = t % 2 == 0
+                    ? List.of(new StockAdjustment(first, 1), new StockAdjustment(second, 1))
+                    : List.of(new StockAdjustment(second, 1), new StockAdjustment(first, 1));
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < BATCHES_PER_THREAD; i++) {
+                        QuarkusTransaction.requiringNew().run(
+                                () -> stockAdjuster.apply(StockTable.STORE, batch));
+                    }
+                } catch (Throwable e) {
+                    // a deadlock aborts one of the transactions with 40P01
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Adjustments did not finish");
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        Map<Long, Long> stock = QuarkusTransaction.requiringNew().call(
+                () -> stockAdjuster.currentStock(StockTable.STORE, Set.of(first, second)));
+        assertEquals(THREADS * BATCHES_PER_THREAD, stock.get(first));
+        assertEquals(THREADS * BATCHES_PER_THREAD, stock.get(second));
+    }
+
+    @Test
+    public void testUpdateCountsFollowRequestOrder() {
+        long low = createStore();
+        long high = createStore();
+
+        // The rejected adjustment is reported at its position in the request, not in lock order
+        int[] updateCounts = QuarkusTransaction.requiringNew().call(
+                () -> stockAdjuster.executeIncrements(StockTable.STORE, List.of(
+                        new StockAdjustment(high, -1),
+                        new StockAdjustment(low, 1))));
+
+        assertArrayEquals(new int[] {0, 1}, updateCounts);
+    }
+
+    private long createStore() {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("ADJ-" + UUID.randomUUID().toString().substring(0, 8));
+            store.quantityProductsInStock = 0;
+            store.persist();
+            return store.id;
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSealedSegmentsReplayInOrder() {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(1L, 5), new StockAdjustment(2L, -1)));
+            wal.append(StockTable.PRODUCT, List.of(new StockAdjustment(1L, 3)));
+
+            List<Path> sealed = wal.seal();
+            List<StockWriteAheadLog.Entry> entries = StockWriteAheadLog.read(sealed);
+
+            assertEquals(3, entries.size());
+            assertEquals(StockTable.STORE, entries.get(0).stockTable);
+            assertEquals(5, entries.get(0).adjustment.delta);
+            assertEquals(-1, entries.get(1).adjustment.delta);
+            assertEquals(StockTable.PRODUCT, entries.get(2).stockTable);
+        }
+    }
+
+    @Test
+    public void testDeletedSegmentsAreNotReplayed() {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(1L, 5)));
+            wal.delete(wal.seal());
+
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(1L, 7)));
+            List<StockWriteAheadLog.Entry> entries = StockWriteAheadLog.read(wal.seal());
+
+            assertEquals(1, entries.size());
+            assertEquals(7, entries.get(0).adjustment.delta);
+        }
+    }
+
+    @Test
+    public void testReopenedLogKeepsUnflushedSegments() throws Exception {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(4L, 2)));
+        }
+
+        // Simulate a crash in the middle of writing the next line
+        try (var files = Files.list(directory)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.writeString(segment, "STORE,4,1", StandardOpenOption.APPEND);
+        }
+
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            List<StockWriteAheadLog.Entry> entries = StockWriteAheadLog.read(wal.seal());
+
+            assertEquals(1, entries.size(), "The torn last line should be skipped");
+            assertEquals(4L, entries.get(0).adjustment.id);
+            assertEquals(2, entries.get(0).adjustment.delta);
+        }
+    }
+
+    @Test
+    public void testReplaySkipsFlushedSegmentsAndUncommittedCarries() {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(1L, 5)));
+            wal.seal();
+            long flushed = wal.lastSealedSegment();
+            wal.appendCarried(flushed, StockTable.STORE, Map.of(1L, -2L));
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(2L, 1)));
+            List<Path> segments = wal.seal();
+
+            // The flush that carried the delta has not committed: the sealed line still counts
+            List<StockWriteAheadLog.Entry> uncommitted = StockWriteAheadLog.read(segments, flushed - 1);
+            assertEquals(2, uncommitted.size());
+            assertEquals(5, uncommitted.get(0).adjustment.delta);
+
+            // It has: the sealed segment is skipped and the carried delta takes its place
+            List<StockWriteAheadLog.Entry> committed = StockWriteAheadLog.read(segments, flushed);
+            assertEquals(2, committed.size());
+            assertEquals(-2, committed.get(0).adjustment.delta);
+            assertEquals(2L, committed.get(1).adjustment.id);
+        }
+    }
+
+    @Test
+    public void testNewSegmentsAreNumberedAboveTheWatermark() {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory, 10)) {
+            wal.append(StockTable.STORE, List.of(new StockAdjustment(1L, 5)));
+            wal.seal();
+
+            assertEquals(11, wal.lastSealedSegment());
+            assertEquals(1, StockWriteAheadLog.read(wal.seal(), 10).size());
+        }
+    }
+}
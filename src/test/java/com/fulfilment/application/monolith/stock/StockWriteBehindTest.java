@@ -0,0 +1,219 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.cache.ResponseBytesCache;
+import com.fulfilment.application.monolith.errors.ConflictException;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+public class StockWriteBehindTest {
+
+    @Inject
+    StockAdjuster stockAdjuster;
+
+    @Inject
+    StockWalWatermark watermark;
+
+    @Inject
+    ResponseBytesCache responseCache;
+
+    @Inject
+    EntityManager entityManager;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testUnflushedDeltasAreReplayedOnStart() {
+        long id = createStore(10);
+        StockWriteBehind crashed = start(stockAdjuster);
+        enqueue(crashed, id, 4);
+
+        // A new process on the same log, without the first one ever flushing
+        StockWriteBehind restarted = start(stockAdjuster);
+
+        assertEquals(14, stock(id));
+        assertEquals(0, restarted.pending(StockTable.STORE, id));
+    }
+
+    @Test
+    public void testFlushedSegmentsAreNotReplayed() throws Exception {
+        long id = createStore(10);
+        StockWriteBehind crashed = start(stockAdjuster);
+        enqueue(crashed, id, 5);
+        Path backup = Files.createDirectory(directory.resolve("backup"));
+        copySegments(directory, backup);
+
+        crashed.flush();
+        assertEquals(15, stock(id));
+
+        // As if the process died after the commit but before the sealed segments were deleted
+        copySegments(backup, directory);
+        start(stockAdjuster);
+
+        assertEquals(15, stock(id));
+    }
+
+    @Test
+    public void testAdmissionCountsPendingDeltas() {
+        long id = createStore(5);
+        StockWriteBehind writeBehind = start(stockAdjuster);
+        enqueue(writeBehind, id, -3);
+
+        assertThrows(ConflictException.class, () -> enqueue(writeBehind, id, -3));
+        assertEquals(-3, writeBehind.pending(StockTable.STORE, id));
+
+        writeBehind.flush();
+        assertEquals(2, stock(id));
+    }
+
+    @Test
+    public void testAdmissionRejectsStockPastTheColumnMaximum() {
+        long id = createStore(Integer.MAX_VALUE - 1);
+        StockWriteBehind writeBehind = start(stockAdjuster);
+
+        assertThrows(ConflictException.class, () -> enqueue(writeBehind, id, 2));
+        assertEquals(0, writeBehind.pending(StockTable.STORE, id));
+    }
+
+    @Test
+    public void testConcurrentAdmissionsNeverOvercommit() throws Exception {
+        long id = createStore(10);
+        StockWriteBehind writeBehind = start(stockAdjuster);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        for (int i = 0; i < 24; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    enqueue(writeBehind, id, -1);
+                    accepted.incrementAndGet();
+                } catch (ConflictException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(10, accepted.get());
+        assertEquals(14, rejected.get());
+        writeBehind.flush();
+        assertEquals(0, stock(id));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        long id = createStore(10);
+        StockAdjuster failingOnce = mock(StockAdjuster.class);
+        when(failingOnce.currentStock(any(), any())).thenAnswer(
+                invocation -> stockAdjuster.currentStock(invocation.getArgument(0), invocation.getArgument(1)));
+        when(failingOnce.executeIncrements(any(), any()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenAnswer(invocation ->
+                        stockAdjuster.executeIncrements(invocation.getArgument(0), invocation.getArgument(1)));
+        StockWriteBehind writeBehind = start(failingOnce);
+        enqueue(writeBehind, id, 7);
+
+        writeBehind.flush();
+        assertEquals(10, stock(id));
+        assertEquals(7, writeBehind.pending(StockTable.STORE, id));
+
+        writeBehind.flush();
+        assertEquals(17, stock(id));
+        assertEquals(0, writeBehind.pending(StockTable.STORE, id));
+    }
+
+    @Test
+    public void testDeltaRejectedAtFlushIsHeldAndReplayed() {
+        long id = createStore(5);
+        StockWriteBehind crashed = start(stockAdjuster);
+        enqueue(crashed, id, -4);
+
+        // A direct write lowers the stock under the pending delta
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+                .createNativeQuery("UPDATE store SET quantityProductsInStock = 1 WHERE id = :id")
+                .setParameter("id", id)
+                .executeUpdate());
+        crashed.flush();
+
+        assertEquals(1, stock(id));
+        assertEquals(-4, crashed.pending(StockTable.STORE, id));
+
+        // The held delta survives a restart through the carried log lines
+        StockWriteBehind restarted = start(stockAdjuster);
+        assertEquals(-4, restarted.pending(StockTable.STORE, id));
+
+        enqueue(restarted, id, 10);
+        restarted.flush();
+        assertEquals(7, stock(id));
+        assertEquals(0, restarted.pending(StockTable.STORE, id));
+    }
+
+    private StockWriteBehind start(StockAdjuster adjuster) {
+        StockWriteBehind writeBehind = new StockWriteBehind();
+        writeBehind.enabled = true;
+        writeBehind.walDirectory = directory.toString();
+        writeBehind.stockAdjuster = adjuster;
+        writeBehind.watermark = watermark;
+        writeBehind.responseCache = responseCache;
+        writeBehind.onStart(null);
+        return writeBehind;
+    }
+
+    private void enqueue(StockWriteBehind writeBehind, long id, int delta) {
+        QuarkusTransaction.requiringNew().run(
+                () -> writeBehind.enqueue(StockTable.STORE, List.of(new StockAdjustment(id, delta))));
+    }
+
+    private long createStore(int stock) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("WB-" + UUID.randomUUID().toString().substring(0, 8));
+            store.quantityProductsInStock = stock;
+            store.persist();
+            return store.id;
+        });
+    }
+
+    private long stock(long id) {
+        return QuarkusTransaction.requiringNew().call(
+                () -> stockAdjuster.currentStock(StockTable.STORE, Set.of(id)).get(id));
+    }
+
+    private static void copySegments(Path from, Path to) throws Exception {
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".wal")).toList()) {
+                Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
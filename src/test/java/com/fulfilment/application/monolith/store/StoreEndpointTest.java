@@ -1,11 +1,14 @@
 package com.fulfilment.application.monolith.store;
 
+import com.fulfilment.application.monolith.stock.StockAdjustment;
 import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
 import com.fulfilment.application.monolith.stores.Store;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
+
+import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 
 import static io.restassured.RestAssured.given;
@@ -68,7 +71,7 @@ public class StoreEndpointTest {
         Store updateData = new Store("KALLAX_UPDATED");
         updateData.quantityProductsInStock = 20;
 
-        // ID 2 corresponds to KALLAX from import.sql
+        // ID 2 corresponds to KALLAX from the seed migration (renamed by testUpdateStoreCallsLegacy)
         given()
                 .contentType(ContentType.JSON)
                 .body(updateData)
@@ -99,7 +102,7 @@ public class StoreEndpointTest {
         Store patchData = new Store("BESTÅ_PATCHED");
         patchData.quantityProductsInStock = 15;
 
-        // ID 3 corresponds to BESTÅ from import.sql
+        // ID 3 corresponds to BESTÅ from the seed migration
         given()
                 .contentType(ContentType.JSON)
                 .body(patchData)
@@ -111,6 +114,46 @@ public class StoreEndpointTest {
         verify(legacyStoreManagerGateway, timeout(1000)).updateStoreOnLegacySystem(any(Store.class));
     }
 
+    @Test
+    public void testMergePatchStoreKeepsAbsentFields() {
+        Store newStore = new Store("PATCH_PARTIAL");
+        newStore.quantityProductsInStock = 4;
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body(newStore)
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"quantityProductsInStock\": 9}")
+                .when()
+                .patch("/store/" + id)
+                .then()
+                .statusCode(200)
+                .body("name", is("PATCH_PARTIAL"))
+                .body("quantityProductsInStock", is(9));
+
+        // The legacy system gets the committed row, not the patch document
+        verify(legacyStoreManagerGateway, timeout(1000))
+                .updateStoreOnLegacySystem(org.mockito.ArgumentMatchers.argThat(store ->
+                        "PATCH_PARTIAL".equals(store.name) && store.quantityProductsInStock == 9));
+    }
+
+    @Test
+    public void testMergePatchStoreRejectsUnknownField() {
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"colour\": \"blue\"}")
+                .when()
+                .patch("/store/2")
+                .then()
+                .statusCode(422);
+    }
+
     @Test
     public void testDeleteStore() {
         // ID 1 corresponds to TONSTAD
@@ -123,6 +166,35 @@ public class StoreEndpointTest {
         // Note: Legacy gateway is NOT currently called in your delete method
     }
 
+    @Test
+    public void testMultiGetStoresInRequestOrder() {
+        // ID 2 corresponds to KALLAX from the seed migration (renamed by testUpdateStoreCallsLegacy)
+        given()
+                .queryParam("ids", "2,999,2")
+                .when()
+                .get("/store")
+                .then()
+                .statusCode(200)
+                .body("size()", is(3))
+                .body("[0].id", is(2))
+                .body("[0].found", is(true))
+                .body("[0].value.name", org.hamcrest.Matchers.startsWith("KALLAX"))
+                .body("[1].id", is(999))
+                .body("[1].found", is(false))
+                .body("[1].value", org.hamcrest.Matchers.nullValue())
+                .body("[2].value.name", org.hamcrest.Matchers.startsWith("KALLAX"));
+    }
+
+    @Test
+    public void testMultiGetStoresRejectsInvalidId() {
+        given()
+                .queryParam("ids", "2,abc")
+                .when()
+                .get("/store")
+                .then()
+                .statusCode(422);
+    }
+
     @Test
     public void testGetSingleStoreNotFound() {
         given()
@@ -195,4 +267,114 @@ public class StoreEndpointTest {
         // Verify the call was attempted
         verify(legacyStoreManagerGateway, timeout(1000)).createStoreOnLegacySystem(any(Store.class));
     }
+
+    @Test
+    public void testStockAdjustmentsAreAppliedAsIncrements() {
+        Store newStore = new Store("STOCK_ADJUSTED_STORE");
+        newStore.quantityProductsInStock = 10;
+
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body(newStore)
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new StockAdjustment(id.longValue(), 5), new StockAdjustment(id.longValue(), -3)))
+                .when()
+                .post("/store/stock-adjustments")
+                .then()
+                .statusCode(204);
+
+        given()
+                .when()
+                .get("/store/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantityProductsInStock", is(12));
+
+        // Going below zero rejects the whole batch
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new StockAdjustment(id.longValue(), 1), new StockAdjustment(id.longValue(), -100)))
+                .when()
+                .post("/store/stock-adjustments")
+                .then()
+                .statusCode(409);
+
+        given()
+                .when()
+                .get("/store/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantityProductsInStock", is(12));
+    }
+
+    @Test
+    public void testStockAdjustmentsForUnknownStore() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new StockAdjustment(9999L, 1)))
+                .when()
+                .post("/store/stock-adjustments")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void testRetriedCreateWithIdempotencyKeyIsReplayed() {
+        Store newStore = new Store("IDEMPOTENT_STORE");
+
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "store-retry-1")
+                .body(newStore)
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        // The retry gets the original response and does not create or call legacy again
+        given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "store-retry-1")
+                .body(newStore)
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .header("Idempotent-Replayed", "true")
+                .body("id", is(id));
+
+        verify(legacyStoreManagerGateway, after(500).times(1))
+                .createStoreOnLegacySystem(org.mockito.ArgumentMatchers.argThat(store ->
+                        "IDEMPOTENT_STORE".equals(store.name)
+                ));
+    }
+
+    @Test
+    public void testIdempotencyKeyReusedForDifferentBody() {
+        given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "store-retry-2")
+                .body(new Store("IDEMPOTENT_STORE_A"))
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "store-retry-2")
+                .body(new Store("IDEMPOTENT_STORE_B"))
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(422);
+    }
 }
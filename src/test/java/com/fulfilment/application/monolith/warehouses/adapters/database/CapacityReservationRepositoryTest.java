@@ -0,0 +1,193 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fulfilment.application.monolith.warehouses.domain.models.StockMovement.Type.INBOUND;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class CapacityReservationRepositoryTest {
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @Inject
+    CapacityReservationRepository reservations;
+
+    @Inject
+    StockLedgerRepository ledger;
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Test
+    @Transactional
+    public void testReserveWithinFreeCapacity() {
+        create("RESERVE-001", 100, 60);
+
+        CapacityReservation reserved = reservations.reserveInWarehouse(inWarehouse("RESERVE-001", 30), TTL);
+        assertNotNull(reserved.id);
+        assertNotNull(reserved.expiresAt);
+        assertEquals(30, reservations.reservedInWarehouse("RESERVE-001"));
+
+        // 10 left: stock and the first reservation both count
+        assertNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-001", 11), TTL));
+        assertNotNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-001", 10), TTL));
+        assertEquals(40, reservations.reservedInWarehouse("RESERVE-001"));
+    }
+
+    @Test
+    @Transactional
+    public void testReserveCountsLedgerTail() {
+        create("RESERVE-002", 100, 10);
+        ledger.append(List.of(new StockMovement("RESERVE-002", INBOUND, 80)));
+
+        assertNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-002", 11), TTL));
+        assertNotNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-002", 10), TTL));
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverExceedFreeCapacity() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> create("RESERVE-003", 100, 40));
+
+        // Below the test pool's 8 connections, so threads contend on the lock and not the pool
+        int threads = 6;
+        AtomicInteger granted = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 5; i++) {
+                        CapacityReservation reserved = QuarkusTransaction.requiringNew().call(
+                                () -> reservations.reserveInWarehouse(inWarehouse("RESERVE-003", 7), TTL));
+                        if (reserved != null) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Reservations did not finish");
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        // 60 free: eight reservations of 7 fit, a ninth would not
+        assertEquals(8, granted.get());
+        assertEquals(56, QuarkusTransaction.requiringNew().call(
+                () -> reservations.reservedInWarehouse("RESERVE-003")));
+    }
+
+    @Test
+    @Transactional
+    public void testInboundMovementCannotTakeReservedCapacity() {
+        create("RESERVE-004", 100, 50);
+        CapacityReservation reserved = reservations.reserveInWarehouse(inWarehouse("RESERVE-004", 40), TTL);
+
+        assertThrows(BusinessRuleException.class,
+                () -> ledger.append(List.of(new StockMovement("RESERVE-004", INBOUND, 20))));
+
+        // The shipment the reservation was made for lands in the capacity it held
+        StockMovement landed = new StockMovement("RESERVE-004", INBOUND, 40);
+        landed.reservationId = reserved.id;
+        List<StockChange> changes = ledger.append(List.of(landed));
+
+        assertEquals(90, changes.get(0).after.stock);
+        assertEquals(0, reservations.reservedInWarehouse("RESERVE-004"));
+    }
+
+    @Test
+    @Transactional
+    public void testReplaceAndPatchKeepReservedCapacity() {
+        create("RESERVE-005", 100, 50);
+        reservations.reserveInWarehouse(inWarehouse("RESERVE-005", 30), TTL);
+
+        assertNull(repository.patchActive("RESERVE-005", new WarehousePatch(null, 79, null)));
+        assertNull(repository.replaceIfStockMatches(replacement("RESERVE-005", 79, 50)));
+
+        assertNotNull(repository.patchActive("RESERVE-005", new WarehousePatch(null, 80, null)));
+        assertNotNull(repository.replaceIfStockMatches(replacement("RESERVE-005", 80, 50)));
+    }
+
+    @Test
+    @Transactional
+    public void testReleaseFreesCapacity() {
+        create("RESERVE-006", 100, 0);
+        CapacityReservation reserved = reservations.reserveInWarehouse(inWarehouse("RESERVE-006", 100), TTL);
+
+        assertTrue(reservations.release(reserved.id));
+        assertFalse(reservations.release(reserved.id));
+        assertEquals(0, reservations.reservedInWarehouse("RESERVE-006"));
+        assertNotNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-006", 100), TTL));
+    }
+
+    @Test
+    public void testExpiredReservationsStopCounting() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> {
+            create("RESERVE-007", 100, 0);
+            reservations.reserveInWarehouse(inWarehouse("RESERVE-007", 100), Duration.ofMillis(1));
+            reservations.reserveAtLocation(atLocation("RESERVED-LOCATION-002", 40), Duration.ofMillis(1), 40);
+        });
+        Thread.sleep(20);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertEquals(0, reservations.reservedInWarehouse("RESERVE-007"));
+            assertEquals(0, reservations.reservedAtLocation("RESERVED-LOCATION-002"));
+            assertNotNull(reservations.reserveInWarehouse(inWarehouse("RESERVE-007", 100), TTL));
+        });
+        assertTrue(reservations.deleteExpired() >= 2);
+    }
+
+    @Test
+    @Transactional
+    public void testLocationReservationsStayWithinLimit() {
+        // A location no other test creates warehouses at, as the reservations are committed
+        assertNotNull(reservations.reserveAtLocation(atLocation("RESERVED-LOCATION-001", 50), TTL, 70));
+        assertNull(reservations.reserveAtLocation(atLocation("RESERVED-LOCATION-001", 21), TTL, 70));
+        assertNotNull(reservations.reserveAtLocation(atLocation("RESERVED-LOCATION-001", 20), TTL, 70));
+        assertEquals(70, reservations.reservedAtLocation("RESERVED-LOCATION-001"));
+    }
+
+    private void create(String buCode, int capacity, int stock) {
+        repository.create(replacement(buCode, capacity, stock));
+    }
+
+    private static Warehouse replacement(String buCode, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = "AMSTERDAM-001";
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+
+    private static CapacityReservation inWarehouse(String buCode, int quantity) {
+        return new CapacityReservation(buCode, null, quantity);
+    }
+
+    private static CapacityReservation atLocation(String location, int quantity) {
+        return new CapacityReservation(null, location, quantity);
+    }
+}
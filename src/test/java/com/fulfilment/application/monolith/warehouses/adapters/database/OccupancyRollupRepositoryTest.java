@@ -0,0 +1,68 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.fulfilment.application.monolith.warehouses.domain.models.StockMovement.Type.INBOUND;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class OccupancyRollupRepositoryTest {
+    // A location of its own, so the rollup rows checked here belong to this test only
+    private static final String LOCATION = "ROLLUP-001";
+
+    @Inject
+    OccupancyRollupRepository rollup;
+
+    @Inject
+    StockLedgerRepository ledger;
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Test
+    public void testRebuildAfterRestartCountsUncompactedLedgerTail() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "ROLLUP-WH-001";
+        warehouse.location = LOCATION;
+        warehouse.capacity = 100;
+        warehouse.stock = 10;
+        QuarkusTransaction.requiringNew().run(() -> {
+            repository.create(warehouse);
+            rollup.add(warehouse);
+        });
+        // Left in the tail: the compactor has not folded it into warehouse.stock
+        QuarkusTransaction.requiringNew().run(
+                () -> ledger.append(List.of(new StockMovement("ROLLUP-WH-001", INBOUND, 60))));
+
+        // What the boot-time rebuild does after a restart
+        rollup.recompute();
+
+        LocationOccupancy occupancy = occupancyAt(LOCATION);
+        assertEquals(1, occupancy.activeWarehouses);
+        assertEquals(70, occupancy.totalStock);
+        assertEquals(1, occupancy.utilisationHistogram[7]);
+
+        // A later change removes the warehouse with its current stock, from the bucket it is in
+        Warehouse current = QuarkusTransaction.requiringNew().call(
+                () -> repository.findByBusinessUnitCode("ROLLUP-WH-001"));
+        assertEquals(70, current.stock);
+        QuarkusTransaction.requiringNew().run(() -> rollup.remove(current));
+
+        assertNull(occupancyAt(LOCATION));
+    }
+
+    private LocationOccupancy occupancyAt(String location) {
+        return QuarkusTransaction.requiringNew().call(() -> rollup.byLocation().stream()
+                .filter(occupancy -> location.equals(occupancy.location))
+                .findFirst()
+                .orElse(null));
+    }
+}
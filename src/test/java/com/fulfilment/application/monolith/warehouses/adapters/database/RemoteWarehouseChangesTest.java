@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.cache.CacheInvalidationBus;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseSearchIndex;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class RemoteWarehouseChangesTest {
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Inject
+    WarehouseSearchIndex searchIndex;
+
+    @Inject
+    CacheInvalidationBus bus;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    public void testWriteOnAnotherInstanceReachesTheSearchIndex() {
+        create("REMOTE-001", "REMOTE-LOCATION-001");
+        assertEquals(List.of("REMOTE-001"), codesAt("REMOTE-LOCATION-001"));
+
+        // Stands in for another instance: the row changes without an event on this one, then its
+        // notification arrives
+        Long id = QuarkusTransaction.requiringNew().call(() -> ((Number) entityManager
+                .createNativeQuery("UPDATE warehouse SET location = 'REMOTE-LOCATION-002',"
+                        + " version = version + 1 WHERE businessUnitCode = 'REMOTE-001'"
+                        + " RETURNING id")
+                .getSingleResult()).longValue());
+        bus.apply("other-node|DbWarehouse:" + id);
+
+        assertEquals(List.of(), codesAt("REMOTE-LOCATION-001"));
+        assertEquals(List.of("REMOTE-001"), codesAt("REMOTE-LOCATION-002"));
+    }
+
+    @Test
+    public void testRemovalOnAnotherInstanceReachesTheSearchIndex() {
+        create("REMOTE-003", "REMOTE-LOCATION-003");
+
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+                .createNativeQuery("DELETE FROM warehouse WHERE businessUnitCode = 'REMOTE-003'")
+                .executeUpdate());
+        // A removal is reported for the whole entity class
+        bus.apply("other-node|DbWarehouse:*");
+
+        assertEquals(List.of(), codesAt("REMOTE-LOCATION-003"));
+    }
+
+    private void create(String buCode, String location) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = location;
+        warehouse.capacity = 10;
+        warehouse.stock = 0;
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse));
+    }
+
+    private List<String> codesAt(String location) {
+        return searchIndex.search(location, Integer.MIN_VALUE).stream()
+                .map(w -> w.businessUnitCode)
+                .toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.fulfilment.application.monolith.warehouses.domain.models.StockMovement.Type.INBOUND;
+import static com.fulfilment.application.monolith.warehouses.domain.models.StockMovement.Type.OUTBOUND;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class StockLedgerRepositoryTest {
+    @Inject
+    StockLedgerRepository ledger;
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Inject
+    StockLedgerCompactor compactor;
+
+    @Test
+    public void testAppendMovesCurrentStock() {
+        QuarkusTransaction.requiringNew().run(() -> create("LEDGER-001", 100, 10));
+
+        List<StockChange> changes = QuarkusTransaction.requiringNew().call(() -> ledger.append(List.of(
+                new StockMovement("LEDGER-001", INBOUND, 30),
+                new StockMovement("LEDGER-001", OUTBOUND, 5))));
+
+        assertEquals(1, changes.size());
+        assertEquals(10, changes.get(0).before.stock);
+        assertEquals(35, changes.get(0).after.stock);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertEquals(35, repository.findByBusinessUnitCode("LEDGER-001").stock);
+
+            List<StockMovement> history = ledger.movements("LEDGER-001", 0, 10);
+            assertEquals(2, history.size());
+            assertEquals(INBOUND, history.get(0).type);
+            assertEquals(30, history.get(0).quantity);
+            assertEquals(OUTBOUND, history.get(1).type);
+            assertEquals(5, history.get(1).quantity);
+            assertTrue(history.get(0).id < history.get(1).id);
+        });
+    }
+
+    @Test
+    @Transactional
+    public void testAppendRejectsBatchThatBreaksCapacity() {
+        create("LEDGER-002", 50, 40);
+
+        // The first movement alone would fit; the batch is rejected as a whole
+        assertThrows(BusinessRuleException.class, () -> ledger.append(List.of(
+                new StockMovement("LEDGER-002", OUTBOUND, 10),
+                new StockMovement("LEDGER-002", INBOUND, 25))));
+
+        assertTrue(ledger.movements("LEDGER-002", 0, 10).isEmpty());
+        assertEquals(40, repository.findByBusinessUnitCode("LEDGER-002").stock);
+    }
+
+    @Test
+    @Transactional
+    public void testAppendRejectsStockBelowZero() {
+        create("LEDGER-003", 50, 5);
+
+        assertThrows(BusinessRuleException.class,
+                () -> ledger.append(List.of(new StockMovement("LEDGER-003", OUTBOUND, 6))));
+        assertTrue(ledger.movements("LEDGER-003", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testAppendRejectsNonPositiveQuantity() {
+        assertThrows(InvalidRequestException.class,
+                () -> ledger.append(List.of(new StockMovement("LEDGER-004", INBOUND, 0))));
+    }
+
+    @Test
+    public void testCompactionFoldsTailIntoSnapshot() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            create("LEDGER-005", 100, 20);
+            ledger.append(List.of(
+                    new StockMovement("LEDGER-005", INBOUND, 15),
+                    new StockMovement("LEDGER-005", OUTBOUND, 7)));
+        });
+
+        compactor.compact();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DbWarehouse row = repository.find("businessUnitCode", "LEDGER-005").firstResult();
+            assertEquals(28, row.stock);
+            assertEquals(0, row.stockLedgerTail);
+            assertEquals(28, repository.findByBusinessUnitCode("LEDGER-005").stock);
+            // The ledger keeps its history after the snapshot has moved past it
+            assertEquals(2, ledger.movements("LEDGER-005", 0, 10).size());
+        });
+    }
+
+    private void create(String buCode, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = "AMSTERDAM-001";
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        repository.create(warehouse);
+    }
+}
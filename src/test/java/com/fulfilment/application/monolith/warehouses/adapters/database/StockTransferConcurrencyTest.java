@@ -0,0 +1,110 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.errors.BusinessRuleException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class StockTransferConcurrencyTest {
+    private static final String[] CODES = {"XFER-001", "XFER-002", "XFER-003", "XFER-004"};
+    private static final int CAPACITY = 100;
+    private static final int INITIAL_STOCK = 50;
+
+    // Below the test pool's 8 connections, so threads contend on the locks and not the pool
+    private static final int THREADS = 6;
+    private static final int TRANSFERS_PER_THREAD = 40;
+
+    @Inject
+    TransferStockOperation transferStock;
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Test
+    public void testConcurrentCrossingTransfersConserveStock() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (String code : CODES) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.businessUnitCode = code;
+                warehouse.location = "AMSTERDAM-001";
+                warehouse.capacity = CAPACITY;
+                warehouse.stock = INITIAL_STOCK;
+                repository.create(warehouse);
+            }
+        });
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            executor.submit(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        List<StockTransfer> legs = randomLegs(random);
+                        try {
+                            QuarkusTransaction.requiringNew().run(() -> transferStock.transfer(legs));
+                            applied.incrementAndGet();
+                        } catch (BusinessRuleException e) {
+                            // a leg ran a warehouse empty or full: rejected as a whole
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    // deadlocks, lock timeouts and anything else unexpected
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transfers did not finish");
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, applied.get() + rejected.get());
+        assertTrue(applied.get() > 0);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            int total = 0;
+            for (Warehouse warehouse : repository.findByBusinessUnitCodes(List.of(CODES))) {
+                assertTrue(warehouse.stock >= 0 && warehouse.stock <= CAPACITY,
+                        () -> warehouse.businessUnitCode + " ended at " + warehouse.stock);
+                total += warehouse.stock;
+            }
+            assertEquals(CODES.length * INITIAL_STOCK, total);
+        });
+    }
+
+    // One to three legs between distinct warehouses; pairs cross in both directions across threads
+    private static List<StockTransfer> randomLegs(Random random) {
+        int count = 1 + random.nextInt(3);
+        List<StockTransfer> legs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(CODES.length);
+            int to = (from + 1 + random.nextInt(CODES.length - 1)) % CODES.length;
+            legs.add(new StockTransfer(CODES[from], CODES[to], 1 + random.nextInt(30)));
+        }
+        return legs;
+    }
+}
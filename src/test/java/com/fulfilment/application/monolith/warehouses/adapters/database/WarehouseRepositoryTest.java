@@ -16,11 +16,11 @@ public class WarehouseRepositoryTest {
 
     @Test
     public void testFindByBusinessUnitCode_ExistingSeedData() {
-        // We use the data defined in import.sql
+        // We use the data seeded by the V3 migration
         // INSERT INTO warehouse(...) VALUES (1, 'MWH.001', 'ZWOLLE-001', 100, 10, ...);
         Warehouse found = repository.findByBusinessUnitCode("MWH.001");
 
-        assertNotNull(found, "Should find the warehouse seeded by import.sql");
+        assertNotNull(found, "Should find the warehouse seeded by the V3 migration");
         assertEquals("ZWOLLE-001", found.location);
         assertEquals(100, found.capacity);
     }
@@ -64,7 +64,7 @@ public class WarehouseRepositoryTest {
     @Test
     @Transactional
     public void testUpdate_UsingSeedData() {
-        // Arrange: Fetch existing record from import.sql
+        // Arrange: Fetch existing record from the seed migration
         Warehouse existing = repository.findByBusinessUnitCode("MWH.012");
         assertNotNull(existing);
 
@@ -120,7 +120,7 @@ public class WarehouseRepositoryTest {
     public void testGetAll_IncludesSeedData() {
         List<Warehouse> all = repository.getAll();
 
-        // import.sql adds 3 warehouses
+        // the seed migration adds 3 warehouses
         assertTrue(all.size() >= 3, "Should contain at least the 3 seeded warehouses");
     }
 
@@ -140,4 +140,150 @@ public class WarehouseRepositoryTest {
         assertNull(found);
     }
 
+    @Test
+    @Transactional
+    public void testReplaceIfStockMatches() {
+        Warehouse initial = new Warehouse();
+        initial.businessUnitCode = "BU-004";
+        initial.location = "Rotterdam";
+        initial.capacity = 50;
+        initial.stock = 20;
+        repository.create(initial);
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "BU-004";
+        replacement.location = "Utrecht";
+        replacement.capacity = 30;
+        replacement.stock = 20;
+
+        // The previous state is returned from the same statement
+        Warehouse previous = repository.replaceIfStockMatches(replacement);
+        assertNotNull(previous);
+        assertEquals("Rotterdam", previous.location);
+        assertEquals(50, previous.capacity);
+
+        Warehouse replaced = repository.findByBusinessUnitCode("BU-004");
+        assertEquals("Utrecht", replaced.location);
+        assertEquals(30, replaced.capacity);
+    }
+
+    @Test
+    @Transactional
+    public void testReplaceIfStockMatchesRejectsMismatchOrSmallCapacity() {
+        Warehouse initial = new Warehouse();
+        initial.businessUnitCode = "BU-005";
+        initial.location = "Rotterdam";
+        initial.capacity = 50;
+        initial.stock = 20;
+        repository.create(initial);
+
+        Warehouse otherStock = new Warehouse();
+        otherStock.businessUnitCode = "BU-005";
+        otherStock.capacity = 50;
+        otherStock.stock = 21;
+        assertNull(repository.replaceIfStockMatches(otherStock));
+
+        Warehouse tooSmall = new Warehouse();
+        tooSmall.businessUnitCode = "BU-005";
+        tooSmall.capacity = 10;
+        tooSmall.stock = 20;
+        assertNull(repository.replaceIfStockMatches(tooSmall));
+
+        assertEquals(50, repository.findByBusinessUnitCode("BU-005").capacity);
+    }
+
+    @Test
+    @Transactional
+    public void testRegionQueriesStayWithinTheRegion() {
+        Warehouse zwolle = new Warehouse();
+        zwolle.businessUnitCode = "BU-006";
+        zwolle.location = "ZWOLLE-002";
+        zwolle.capacity = 20;
+        zwolle.stock = 5;
+        repository.create(zwolle);
+
+        Warehouse archived = new Warehouse();
+        archived.businessUnitCode = "BU-007";
+        archived.location = "ZWOLLE-002";
+        repository.create(archived);
+        archived.archivedAt = java.time.LocalDateTime.now();
+        repository.update(archived);
+
+        // MWH.012 from the seed migration is outside ZWOLLE
+        List<String> codes = repository.getAllInRegion("ZWOLLE").stream()
+                .map(w -> w.businessUnitCode)
+                .toList();
+        assertTrue(codes.containsAll(List.of("BU-006", "BU-007")));
+        assertFalse(codes.contains("MWH.012"));
+
+        assertEquals(1, repository.countActiveByLocation("ZWOLLE-002"));
+    }
+
+    @Test
+    @Transactional
+    public void testReplaceMovesWarehouseToItsNewRegion() {
+        Warehouse initial = new Warehouse();
+        initial.businessUnitCode = "BU-008";
+        initial.location = "TILBURG-001";
+        initial.capacity = 30;
+        initial.stock = 10;
+        repository.create(initial);
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "BU-008";
+        replacement.location = "HELMOND-001";
+        replacement.capacity = 30;
+        replacement.stock = 10;
+        assertNotNull(repository.replaceIfStockMatches(replacement));
+
+        assertTrue(repository.getAllInRegion("HELMOND").stream()
+                .anyMatch(w -> "BU-008".equals(w.businessUnitCode)));
+        assertTrue(repository.getAllInRegion("TILBURG").stream()
+                .noneMatch(w -> "BU-008".equals(w.businessUnitCode)));
+    }
+
+    @Test
+    @Transactional
+    public void testArchiveAndMoveAmongPopulatedRegions() {
+        // Rows with the same shape in several partitions, so a statement missing the region
+        // would still find the right one only by scanning them all
+        for (String region : List.of("ZWOLLE", "AMSTERDAM", "TILBURG", "HELMOND", "EINDHOVEN")) {
+            for (int i = 1; i <= 3; i++) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.businessUnitCode = "BU-PART-" + region + "-" + i;
+                warehouse.location = region + "-00" + i;
+                warehouse.capacity = 10;
+                warehouse.stock = 1;
+                repository.create(warehouse);
+            }
+        }
+
+        Warehouse archived = repository.findByBusinessUnitCode("BU-PART-TILBURG-2");
+        archived.archivedAt = java.time.LocalDateTime.now();
+        repository.update(archived);
+        Warehouse moved = repository.findByBusinessUnitCode("BU-PART-HELMOND-1");
+        moved.location = "VETSBY-001";
+        repository.update(moved);
+        // Runs the versioned updates now rather than at commit, so a missed row fails the test
+        repository.flush();
+        repository.getEntityManager().clear();
+
+        assertNotNull(repository.findByBusinessUnitCode("BU-PART-TILBURG-2").archivedAt);
+        assertEquals(2, repository.getAllInRegion("TILBURG").stream()
+                .filter(w -> w.businessUnitCode.startsWith("BU-PART-") && w.archivedAt == null)
+                .count());
+        assertTrue(repository.getAllInRegion("VETSBY").stream()
+                .anyMatch(w -> "BU-PART-HELMOND-1".equals(w.businessUnitCode)));
+        assertTrue(repository.getAllInRegion("HELMOND").stream()
+                .noneMatch(w -> "BU-PART-HELMOND-1".equals(w.businessUnitCode)));
+    }
+
+    @Test
+    public void testFindByBusinessUnitCodes() {
+        // MWH.012 is seeded by the V3 migration
+        List<Warehouse> found = repository.findByBusinessUnitCodes(List.of("MWH.012", "MISSING"));
+
+        assertEquals(1, found.size());
+        assertEquals("MWH.012", found.get(0).businessUnitCode);
+    }
 }
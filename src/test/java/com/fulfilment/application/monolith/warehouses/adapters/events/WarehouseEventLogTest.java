@@ -0,0 +1,87 @@
+package com.fulfilment.application.monolith.warehouses.adapters.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class WarehouseEventLogTest {
+
+    private static WarehouseLifecycleEvent event(String businessUnitCode) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = businessUnitCode;
+        return new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.CREATED, warehouse);
+    }
+
+    @Test
+    public void testSubscriberResumesFromOffsetThenReceivesLiveEvents() {
+        WarehouseEventLog log = new WarehouseEventLog(8);
+        log.append(event("MWH.001"));
+        log.append(event("MWH.002"));
+        log.append(event("MWH.003"));
+
+        List<Long> received = new ArrayList<>();
+        long first = log.subscribe(1, entry -> received.add(entry.offset));
+        log.append(event("MWH.004"));
+
+        assertEquals(1, first);
+        assertEquals(List.of(1L, 2L, 3L), received);
+    }
+
+    @Test
+    public void testEventsAreFannedOutToEverySubscriber() {
+        WarehouseEventLog log = new WarehouseEventLog(8);
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        log.subscribe(log.nextOffset(), entry -> first.add(entry.event.businessUnitCode));
+        log.subscribe(log.nextOffset(), entry -> second.add(entry.event.businessUnitCode));
+
+        log.append(event("MWH.001"));
+
+        assertEquals(List.of("MWH.001"), first);
+        assertEquals(List.of("MWH.001"), second);
+    }
+
+    @Test
+    public void testResumeFromOverwrittenOffsetStartsAtOldestRetained() {
+        WarehouseEventLog log = new WarehouseEventLog(2);
+        for (int i = 0; i < 5; i++) {
+            log.append(event("MWH.00" + i));
+        }
+
+        List<Long> received = new ArrayList<>();
+        long first = log.subscribe(0, entry -> received.add(entry.offset));
+
+        assertEquals(3, first);
+        assertEquals(List.of(3L, 4L), received);
+    }
+
+    @Test
+    public void testUnsubscribedConsumerReceivesNothing() {
+        WarehouseEventLog log = new WarehouseEventLog(4);
+        List<Long> received = new ArrayList<>();
+        Consumer<WarehouseEventLog.Offset> subscriber = entry -> received.add(entry.offset);
+        log.subscribe(0, subscriber);
+        log.unsubscribe(subscriber);
+
+        log.append(event("MWH.001"));
+
+        assertEquals(List.of(), received);
+    }
+
+    @Test
+    public void testEachLogHasItsOwnEpoch() {
+        // A restarted process starts its offsets at 0 again, so only the epoch tells them apart
+        WarehouseEventLog before = new WarehouseEventLog(4);
+        WarehouseEventLog after = new WarehouseEventLog(4);
+
+        assertEquals(before.epoch(), before.epoch());
+        assertNotEquals(before.epoch(), after.epoch());
+    }
+}
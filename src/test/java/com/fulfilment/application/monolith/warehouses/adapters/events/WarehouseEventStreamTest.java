@@ -0,0 +1,118 @@
+package com.fulfilment.application.monolith.warehouses.adapters.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WarehouseEventStreamTest {
+
+    @Test
+    public void testEventWithoutTransactionIsAppendedAtOnce() {
+        FakeRegistry registry = new FakeRegistry(Status.STATUS_NO_TRANSACTION);
+        WarehouseEventStream stream = stream(registry);
+
+        stream.publish(event());
+
+        assertEquals(1, stream.log().nextOffset());
+    }
+
+    @Test
+    public void testEventIsAppendedOnlyAfterCommit() {
+        FakeRegistry registry = new FakeRegistry(Status.STATUS_ACTIVE);
+        WarehouseEventStream stream = stream(registry);
+
+        stream.publish(event());
+        assertEquals(0, stream.log().nextOffset());
+
+        registry.complete(Status.STATUS_COMMITTED);
+        assertEquals(1, stream.log().nextOffset());
+    }
+
+    @Test
+    public void testEventOfRolledBackTransactionIsDropped() {
+        FakeRegistry registry = new FakeRegistry(Status.STATUS_ACTIVE);
+        WarehouseEventStream stream = stream(registry);
+
+        stream.publish(event());
+        registry.complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(0, stream.log().nextOffset());
+    }
+
+    @Test
+    public void testEventOfTransactionMarkedForRollbackIsDropped() {
+        FakeRegistry registry = new FakeRegistry(Status.STATUS_MARKED_ROLLBACK);
+        WarehouseEventStream stream = stream(registry);
+
+        stream.publish(event());
+        registry.complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(0, stream.log().nextOffset());
+    }
+
+    private static WarehouseEventStream stream(TransactionSynchronizationRegistry registry) {
+        WarehouseEventStream stream = new WarehouseEventStream();
+        stream.bufferSize = 8;
+        stream.txRegistry = registry;
+        stream.init();
+        return stream;
+    }
+
+    private static WarehouseLifecycleEvent event() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "MWH.001";
+        return new WarehouseLifecycleEvent(WarehouseLifecycleEvent.Type.CREATED, warehouse);
+    }
+
+    private static class FakeRegistry implements TransactionSynchronizationRegistry {
+        private final int status;
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+
+        FakeRegistry(int status) {
+            this.status = status;
+        }
+
+        void complete(int outcome) {
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return status == Status.STATUS_NO_TRANSACTION ? null : this;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {}
+
+        @Override
+        public Object getResource(Object key) {
+            return null;
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+            synchronizations.add(sync);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return status;
+        }
+
+        @Override
+        public void setRollbackOnly() {}
+
+        @Override
+        public boolean getRollbackOnly() {
+            return status == Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+}
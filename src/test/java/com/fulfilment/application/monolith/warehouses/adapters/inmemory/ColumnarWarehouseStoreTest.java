@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarWarehouseStoreTest {
+
+    private ColumnarWarehouseStore store;
+
+    @BeforeEach
+    void setUp() {
+        Warehouse archived = warehouse("MWH.002", "ZWOLLE-001", 40, 5);
+        archived.archivedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        store = new ColumnarWarehouseStore(List.of(
+                warehouse("MWH.001", "ZWOLLE-001", 100, 10),
+                archived,
+                warehouse("MWH.012", "AMSTERDAM-001", 50, 5)));
+    }
+
+    @Test
+    void testFindRoundTripsFields() {
+        Warehouse found = store.findByBusinessUnitCode("MWH.002");
+
+        assertEquals("ZWOLLE-001", found.location);
+        assertEquals(40, found.capacity);
+        assertEquals(5, found.stock);
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), found.archivedAt);
+        assertNull(store.findByBusinessUnitCode("MWH.999"));
+    }
+
+    @Test
+    void testActiveCountsFollowWrites() {
+        assertEquals(1, store.countActiveByLocation("ZWOLLE-001"));
+
+        store.create(warehouse("MWH.003", "ZWOLLE-001", 20, 0));
+        assertEquals(2, store.countActiveByLocation("ZWOLLE-001"));
+
+        Warehouse archived = store.findByBusinessUnitCode("MWH.001");
+        archived.archivedAt = LocalDateTime.now();
+        store.update(archived);
+        assertEquals(1, store.countActiveByLocation("ZWOLLE-001"));
+
+        store.patchActive("MWH.003", new WarehousePatch("AMSTERDAM-001", null, null));
+        assertEquals(0, store.countActiveByLocation("ZWOLLE-001"));
+        assertEquals(2, store.countActiveByLocation("AMSTERDAM-001"));
+    }
+
+    @Test
+    void testReplaceOnlyWhenStockMatches() {
+        assertNull(store.replaceIfStockMatches(warehouse("MWH.001", "ZWOLLE-001", 100, 11)));
+        assertNull(store.replaceIfStockMatches(warehouse("MWH.001", "ZWOLLE-001", 9, 10)));
+
+        Warehouse previous =
+                store.replaceIfStockMatches(warehouse("MWH.002", "AMSTERDAM-001", 30, 5));
+
+        assertEquals(40, previous.capacity);
+        assertNotNull(previous.archivedAt);
+        Warehouse replaced = store.findByBusinessUnitCode("MWH.002");
+        assertNull(replaced.archivedAt);
+        assertEquals(30, replaced.capacity);
+        assertEquals(2, store.countActiveByLocation("AMSTERDAM-001"));
+    }
+
+    @Test
+    void testPatchSkipsArchivedAndOverfullResults() {
+        assertNull(store.patchActive("MWH.002", new WarehousePatch(null, 50, null)));
+        assertNull(store.patchActive("MWH.001", new WarehousePatch(null, 5, null)));
+
+        Warehouse previous = store.patchActive("MWH.001", new WarehousePatch(null, null, 20));
+
+        assertEquals(10, previous.stock);
+        assertEquals(20, store.findByBusinessUnitCode("MWH.001").stock);
+    }
+
+    @Test
+    void testRegionAndOccupancy() {
+        assertEquals(List.of("MWH.001", "MWH.002"),
+                store.getAllInRegion("ZWOLLE").stream().map(w -> w.businessUnitCode).sorted().toList());
+
+        List<LocationOccupancy> occupancy = store.occupancyByLocation();
+
+        assertEquals(List.of("AMSTERDAM-001", "ZWOLLE-001"),
+                occupancy.stream().map(o -> o.location).toList());
+        assertEquals(1, occupancy.get(1).activeWarehouses);
+        assertEquals(100, occupancy.get(1).totalCapacity);
+    }
+
+    @Test
+    void testMatchesMapUnderRandomCreatesAndRemoves() {
+        ColumnarWarehouseStore columns = new ColumnarWarehouseStore();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 50_000; i++) {
+            String code = "MWH." + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                if (!expected.containsKey(code)) {
+                    int capacity = random.nextInt(100);
+                    columns.create(warehouse(code, "TILBURG-001", capacity, 0));
+                    expected.put(code, capacity);
+                }
+            } else {
+                columns.remove(warehouse(code, null, 0, 0));
+                expected.remove(code);
+            }
+        }
+
+        assertEquals(expected.size(), columns.size());
+        assertEquals(expected.size(), columns.countActiveByLocation("TILBURG-001"));
+        for (int i = 0; i < 2_000; i++) {
+            String code = "MWH." + i;
+            Warehouse found = columns.findByBusinessUnitCode(code);
+            assertEquals(expected.get(code), found == null ? null : found.capacity);
+        }
+    }
+
+    private static Warehouse warehouse(String buCode, String location, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = location;
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+}
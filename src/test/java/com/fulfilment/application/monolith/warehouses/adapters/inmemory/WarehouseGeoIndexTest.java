@@ -0,0 +1,166 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehousesReloadedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseGeoIndexTest {
+
+    private final Map<String, Location> locations = new HashMap<>();
+
+    private WarehouseGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        locations.put("ZWOLLE-001", new Location("ZWOLLE-001", 1, 40, 52.5168, 6.0830));
+        locations.put("AMSTERDAM-001", new Location("AMSTERDAM-001", 5, 100, 52.3676, 4.9041));
+        locations.put("TILBURG-001", new Location("TILBURG-001", 1, 40, 51.5555, 5.0913));
+        locations.put("UNMAPPED-001", new Location("UNMAPPED-001", 1, 40));
+
+        index = new WarehouseGeoIndex();
+        index.locationResolver = identifier -> {
+            Location location = locations.get(identifier);
+            if (location == null) {
+                throw new IllegalArgumentException("Location not found: " + identifier);
+            }
+            return location;
+        };
+        index.rebuild(List.of(
+                warehouse("MWH.001", "ZWOLLE-001", 100, 10),
+                warehouse("MWH.012", "AMSTERDAM-001", 50, 5),
+                warehouse("MWH.023", "TILBURG-001", 30, 27),
+                warehouse("MWH.099", "UNMAPPED-001", 30, 0),
+                warehouse("MWH.100", "UNKNOWN-001", 30, 0)));
+    }
+
+    @Test
+    void testNearestOrderedByDistance() {
+        // Utrecht
+        List<NearbyWarehouse> found = index.nearest(52.0907, 5.1214, 5, Integer.MIN_VALUE);
+
+        assertEquals(List.of("MWH.012", "MWH.023", "MWH.001"), codes(found));
+        assertEquals(34.9, found.get(0).distanceKm, 1.0);
+    }
+
+    @Test
+    void testNearestFiltersOnFreeCapacity() {
+        List<NearbyWarehouse> found = index.nearest(51.5555, 5.0913, 1, 40);
+
+        assertEquals(List.of("MWH.012"), codes(found));
+    }
+
+    @Test
+    void testArchivedWarehouseIsDropped() {
+        Warehouse archived = warehouse("MWH.023", "TILBURG-001", 30, 27);
+        archived.archivedAt = LocalDateTime.now();
+
+        index.put(archived);
+
+        assertEquals(List.of("MWH.012", "MWH.001"), codes(index.nearest(51.5555, 5.0913, 5, 0)));
+    }
+
+    @Test
+    void testLateEventOfEarlierWriteIsIgnored() {
+        // MWH.023 moved to ZWOLLE; the event of its earlier write in TILBURG arrives last
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.023", "ZWOLLE-001", 30, 27), false, 8));
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.023", "TILBURG-001", 30, 27), false, 7));
+
+        assertEquals(List.of("MWH.012", "MWH.001"), codes(index.nearest(51.5555, 5.0913, 2, 0)));
+    }
+
+    @Test
+    void testReloadDropsWarehousesRemovedElsewhere() {
+        index.onWarehousesReloaded(new WarehousesReloadedEvent(Set.of("MWH.001", "MWH.012"), 10));
+
+        assertEquals(List.of("MWH.012", "MWH.001"),
+                codes(index.nearest(51.5555, 5.0913, 5, Integer.MIN_VALUE)));
+    }
+
+    @Test
+    void testReplaceMovesWarehouse() {
+        index.put(warehouse("MWH.023", "ZWOLLE-001", 30, 27));
+
+        List<NearbyWarehouse> found = index.nearest(52.5168, 6.0830, 2, Integer.MIN_VALUE);
+
+        assertEquals(0.0, found.get(0).distanceKm, 1e-9);
+        assertEquals(0.0, found.get(1).distanceKm, 1e-9);
+    }
+
+    @Test
+    void testMatchesBruteForceOverManyWarehouses() {
+        Random random = new Random(42);
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String location = "RANDOM-" + i;
+            locations.put(location, new Location(location, 10, 1000,
+                    50.5 + random.nextDouble() * 3, 3 + random.nextDouble() * 4));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            warehouses.add(warehouse(
+                    "RWH." + i, "RANDOM-" + random.nextInt(500), 100, random.nextInt(100)));
+        }
+        index.rebuild(warehouses);
+
+        for (int query = 0; query < 200; query++) {
+            // every tenth query is far away from all warehouses
+            double latitude = query % 10 == 0 ? -35 : 50 + random.nextDouble() * 4;
+            double longitude = query % 10 == 0 ? 150 : 2.5 + random.nextDouble() * 5;
+            int minFreeCapacity = random.nextInt(100);
+            int limit = 1 + random.nextInt(10);
+
+            List<Double> expected = warehouses.stream()
+                    .filter(w -> w.capacity - w.stock >= minFreeCapacity)
+                    .map(w -> distanceKm(latitude, longitude, locations.get(w.location)))
+                    .sorted(Comparator.naturalOrder())
+                    .limit(limit)
+                    .toList();
+            List<Double> actual = index.nearest(latitude, longitude, limit, minFreeCapacity)
+                    .stream().map(n -> n.distanceKm).toList();
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i), 1e-6);
+            }
+        }
+    }
+
+    private static double distanceKm(double latitude, double longitude, Location location) {
+        double lat1 = Math.toRadians(latitude);
+        double lat2 = Math.toRadians(location.latitude);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(location.longitude - longitude);
+        double h = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * WarehouseGeoIndex.EARTH_RADIUS_KM * Math.asin(Math.sqrt(h));
+    }
+
+    private static List<String> codes(List<NearbyWarehouse> found) {
+        return found.stream().map(n -> n.warehouse.businessUnitCode).toList();
+    }
+
+    private static Warehouse warehouse(String buCode, String location, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = location;
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+}
@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehousesReloadedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseSearchIndexTest {
+
+    private WarehouseSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new WarehouseSearchIndex();
+        index.rebuild(List.of(
+                warehouse("MWH.001", "ZWOLLE-001", 100, 10),
+                warehouse("MWH.012", "AMSTERDAM-001", 50, 5),
+                warehouse("MWH.013", "AMSTERDAM-002", 30, 25),
+                warehouse("MWH.023", "TILBURG-001", 30, 27)));
+    }
+
+    @Test
+    void testSearchByPrefixAndFreeCapacity() {
+        List<Warehouse> found = index.search("AMSTERDAM-", 20);
+
+        assertEquals(1, found.size());
+        assertEquals("MWH.012", found.get(0).businessUnitCode);
+    }
+
+    @Test
+    void testSearchWithoutFilters() {
+        List<Warehouse> found = index.search(null, Integer.MIN_VALUE);
+
+        // Ordered by location, then by free capacity
+        assertEquals(List.of("MWH.012", "MWH.013", "MWH.023", "MWH.001"),
+                found.stream().map(w -> w.businessUnitCode).toList());
+    }
+
+    @Test
+    void testLateEventOfEarlierWriteIsIgnored() {
+        // Two writes of MWH.012 whose after-commit observers ran in the wrong order
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.012", "AMSTERDAM-001", 50, 40), false, 8));
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.012", "AMSTERDAM-001", 50, 5), false, 7));
+
+        assertTrue(index.search("AMSTERDAM-001", 20).isEmpty());
+    }
+
+    @Test
+    void testLateEventDoesNotResurrectRemovedWarehouse() {
+        Warehouse removed = new Warehouse();
+        removed.businessUnitCode = "MWH.023";
+        index.onWarehouseChanged(new WarehouseChangedEvent(removed, true, 5));
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.023", "TILBURG-001", 30, 20), false, 4));
+
+        assertTrue(index.search("TILBURG-", Integer.MIN_VALUE).isEmpty());
+    }
+
+    @Test
+    void testReloadDropsWarehousesRemovedElsewhere() {
+        // MWH.013 was written here after the reload read the codes, so it stays
+        index.onWarehouseChanged(new WarehouseChangedEvent(
+                warehouse("MWH.013", "AMSTERDAM-002", 30, 25), false, 11));
+
+        index.onWarehousesReloaded(new WarehousesReloadedEvent(Set.of("MWH.001", "MWH.012"), 10));
+
+        assertEquals(List.of("MWH.012", "MWH.013", "MWH.001"),
+                index.search(null, Integer.MIN_VALUE).stream()
+                        .map(w -> w.businessUnitCode).toList());
+    }
+
+    @Test
+    void testReplaceMovesWarehouse() {
+        index.put(warehouse("MWH.023", "AMSTERDAM-002", 80, 27));
+
+        assertTrue(index.search("TILBURG-", 0).isEmpty());
+        assertEquals(List.of("MWH.013", "MWH.023"),
+                index.search("AMSTERDAM-002", 0).stream().map(w -> w.businessUnitCode).toList());
+    }
+
+    @Test
+    void testArchivedWarehouseIsDropped() {
+        Warehouse archived = warehouse("MWH.001", "ZWOLLE-001", 100, 10);
+        archived.archivedAt = LocalDateTime.now();
+
+        index.put(archived);
+
+        assertTrue(index.search("ZWOLLE-", 0).isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        index.remove("MWH.012");
+
+        assertTrue(index.search("AMSTERDAM-001", 0).isEmpty());
+        assertEquals(1, index.search("AMSTERDAM-", 0).size());
+    }
+
+    private static Warehouse warehouse(String buCode, String location, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = location;
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+}
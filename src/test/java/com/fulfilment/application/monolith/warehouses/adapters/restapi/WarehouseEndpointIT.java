@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.not;
 
 import io.quarkus.test.junit.QuarkusIntegrationTest;
@@ -59,4 +61,40 @@ public class WarehouseEndpointIT {
              containsString("AMSTERDAM-001"),
              containsString("TILBURG-001"));
   }
+
+  @Test
+  public void testLookUpWarehouseUnitsInRequestOrder() {
+    given()
+        .contentType("application/json")
+        .body("[\"UNKNOWN\", \"MWH.023\"]")
+        .when()
+        .post("warehouse/lookup")
+        .then()
+        .statusCode(200)
+        .body("id", contains("UNKNOWN", "MWH.023"))
+        .body("found", contains(false, true))
+        .body("[1].warehouse.location", is("TILBURG-001"));
+  }
+
+  @Test
+  public void testNearestWarehouses() {
+    // Breda lies between Tilburg and Amsterdam, closest to the Tilburg warehouse
+    given()
+        .queryParam("latitude", 51.5719)
+        .queryParam("longitude", 4.7683)
+        .queryParam("limit", 1)
+        .when()
+        .get("warehouse/nearest")
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", contains("MWH.023"));
+
+    given()
+        .queryParam("latitude", 91)
+        .queryParam("longitude", 4.7683)
+        .when()
+        .get("warehouse/nearest")
+        .then()
+        .statusCode(422);
+  }
 }
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class WarehouseResourceTest {
+
+  @Test
+  public void testCreateAtUnknownLocationIsRejected() {
+    given()
+        .contentType("application/json")
+        .body(
+            "{\"businessUnitCode\":\"MWH.UNKNOWN-LOCATION\",\"location\":\"NOWHERE-001\","
+                + "\"capacity\":10,\"stock\":0}")
+        .when()
+        .post("warehouse")
+        .then()
+        .statusCode(400)
+        .body(containsString("Location not found: NOWHERE-001"));
+
+    given().when().get("warehouse/MWH.UNKNOWN-LOCATION").then().statusCode(404);
+  }
+
+  @Test
+  public void testPatchToUnknownLocationIsRejected() {
+    String location =
+        given().when().get("warehouse/MWH.012").then().statusCode(200).extract().path("location");
+
+    given()
+        .contentType("application/merge-patch+json")
+        .body("{\"location\":\"NOWHERE-001\"}")
+        .when()
+        .patch("warehouse/MWH.012")
+        .then()
+        .statusCode(400)
+        .body(containsString("Location not found: NOWHERE-001"));
+
+    // The patch was rolled back with the rejection
+    given()
+        .when()
+        .get("warehouse/MWH.012")
+        .then()
+        .statusCode(200)
+        .body("location", is(location));
+  }
+}
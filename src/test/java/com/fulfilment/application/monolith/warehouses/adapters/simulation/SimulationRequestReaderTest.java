@@ -0,0 +1,102 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.errors.InvalidRequestException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRequestReaderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void testReadsOperationsThenGenerators() throws IOException {
+        String body = "{\"generators\":[{\"type\":\"ARCHIVE\",\"businessUnitCodePrefix\":\"GEN.\","
+                + "\"count\":2}],"
+                + "\"startFromCurrentWarehouses\":false,"
+                + "\"operations\":[{\"type\":\"CREATE\",\"businessUnitCode\":\"MWH.001\","
+                + "\"location\":\"ZWOLLE-001\",\"capacity\":10,\"stock\":0}],"
+                + "\"ignored\":{\"nested\":[1,2]}}";
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            SimulationRequestReader reader = new SimulationRequestReader(MAPPER, parser, 10);
+            SimulationRequest request = reader.readHead();
+            assertFalse(request.startFromCurrentWarehouses);
+
+            List<String> codes = new ArrayList<>();
+            for (SimulationOperation operation : reader) {
+                codes.add(operation.type + " " + operation.businessUnitCode);
+            }
+            assertEquals(List.of("CREATE MWH.001", "ARCHIVE GEN.1", "ARCHIVE GEN.2"), codes);
+        }
+    }
+
+    @Test
+    void testRejectsStartFlagAfterOperations() throws IOException {
+        String body = "{\"operations\":[],\"startFromCurrentWarehouses\":false}";
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            SimulationRequestReader reader = new SimulationRequestReader(MAPPER, parser, 10);
+            reader.readHead();
+            assertThrows(InvalidRequestException.class, () -> reader.iterator().hasNext());
+        }
+    }
+
+    @Test
+    void testRejectsGeneratorsOverTheLimitBeforeRunning() throws IOException {
+        String body = "{\"generators\":[{\"type\":\"CREATE\",\"businessUnitCodePrefix\":\"GEN.\","
+                + "\"location\":\"ZWOLLE-001\",\"count\":11}]}";
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            SimulationRequestReader reader = new SimulationRequestReader(MAPPER, parser, 10);
+            assertThrows(InvalidRequestException.class, reader::readHead);
+        }
+    }
+
+    @Test
+    void testStopsOperationsOverTheLimitAsTheyArrive() throws IOException {
+        StringBuilder body = new StringBuilder("{\"operations\":[");
+        for (int i = 0; i < 11; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"type\":\"ARCHIVE\",\"businessUnitCode\":\"X\"}");
+        }
+        body.append("]}");
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(body.toString())) {
+            SimulationRequestReader reader = new SimulationRequestReader(MAPPER, parser, 10);
+            reader.readHead();
+            var operations = reader.iterator();
+            for (int i = 0; i < 10; i++) {
+                operations.next();
+            }
+            assertThrows(InvalidRequestException.class, operations::next);
+        }
+    }
+
+    @Test
+    void testGeneratorsReplayMillionsOfOperations() throws IOException {
+        String body = "{\"startFromCurrentWarehouses\":false,\"generators\":["
+                + "{\"type\":\"CREATE\",\"businessUnitCodePrefix\":\"GEN.\","
+                + "\"location\":\"AMSTERDAM-001\",\"capacity\":10,\"stock\":0,\"count\":1000000},"
+                + "{\"type\":\"ARCHIVE\",\"businessUnitCodePrefix\":\"GEN.\",\"count\":1000000}]}";
+        WarehouseSimulator simulator = new WarehouseSimulator();
+        simulator.locationResolver = identifier -> new Location(identifier, 5, 100);
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            SimulationRequestReader reader = new SimulationRequestReader(MAPPER, parser, 5_000_000);
+            reader.readHead();
+            SimulationReport report = simulator.run(List.of(), reader);
+
+            assertEquals(2_000_000, report.operations);
+            // five warehouses fit at the location, and only those five can be archived
+            assertEquals(10, report.applied);
+        }
+    }
+}
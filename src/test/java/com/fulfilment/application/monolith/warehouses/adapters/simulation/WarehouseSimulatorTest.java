@@ -0,0 +1,83 @@
+package com.fulfilment.application.monolith.warehouses.adapters.simulation;
+
+import com.fulfilment.application.monolith.warehouses.adapters.simulation.SimulationOperation.Type;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseSimulatorTest {
+
+    private static final Map<String, Location> LOCATIONS = Map.of(
+            "ZWOLLE-001", new Location("ZWOLLE-001", 1, 40),
+            "AMSTERDAM-001", new Location("AMSTERDAM-001", 5, 100));
+
+    private WarehouseSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        simulator = new WarehouseSimulator();
+        simulator.locationResolver = identifier -> {
+            Location location = LOCATIONS.get(identifier);
+            if (location == null) {
+                throw new IllegalArgumentException("Location not found: " + identifier);
+            }
+            return location;
+        };
+    }
+
+    @Test
+    void testAppliesTheUseCaseRules() {
+        Warehouse seeded = new Warehouse();
+        seeded.businessUnitCode = "MWH.001";
+        seeded.location = "ZWOLLE-001";
+        seeded.capacity = 30;
+        seeded.stock = 10;
+
+        SimulationReport report = simulator.run(List.of(seeded), List.of(
+                new SimulationOperation(Type.CREATE, "MWH.002", "ZWOLLE-001", 20, 0),
+                new SimulationOperation(Type.CREATE, "MWH.003", "AMSTERDAM-001", 80, 20),
+                new SimulationOperation(Type.REPLACE, "MWH.003", "AMSTERDAM-001", 90, 21),
+                new SimulationOperation(Type.ARCHIVE, "MWH.001", null, null, null),
+                new SimulationOperation(Type.CREATE, "MWH.002", "ZWOLLE-001", 20, 0),
+                new SimulationOperation(Type.CREATE, "MWH.004", "UNKNOWN-001", 20, 0)));
+
+        assertEquals(6, report.operations);
+        assertEquals(3, report.applied);
+        assertEquals(Map.of(
+                        "Maximum number of warehouses reached for this location", 1L,
+                        "Replacement stock must match current stock", 1L,
+                        "Location not found: UNKNOWN-001", 1L),
+                report.rejections);
+
+        assertEquals(List.of("AMSTERDAM-001", "ZWOLLE-001"),
+                report.locations.stream().map(l -> l.location).toList());
+        assertEquals(80, report.locations.get(0).totalCapacity);
+        assertEquals(1, report.locations.get(1).activeWarehouses);
+    }
+
+    @Test
+    void testReplaysManyOperations() {
+        List<SimulationOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String code = "SIM." + (i % 1_000);
+            operations.add(switch (i % 3) {
+                case 0 -> new SimulationOperation(Type.CREATE, code, "AMSTERDAM-001", 50, 10);
+                case 1 -> new SimulationOperation(Type.REPLACE, code, "AMSTERDAM-001", 60, 10);
+                default -> new SimulationOperation(Type.ARCHIVE, code, null, null, null);
+            });
+        }
+
+        SimulationReport report = simulator.run(List.of(), operations);
+
+        assertEquals(100_000, report.operations);
+        assertEquals(report.operations, report.applied + report.rejected);
+        assertTrue(report.applied > 0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationOccupancyTest {
+
+    @Test
+    void testUtilisationBucket() {
+        assertEquals(0, LocationOccupancy.utilisationBucket(100, 5));
+        assertEquals(2, LocationOccupancy.utilisationBucket(50, 10));
+        assertEquals(9, LocationOccupancy.utilisationBucket(30, 27));
+        assertEquals(10, LocationOccupancy.utilisationBucket(30, 30));
+        // Over-full and capacity-less warehouses are clamped to the last bucket
+        assertEquals(10, LocationOccupancy.utilisationBucket(10, 50));
+        assertEquals(10, LocationOccupancy.utilisationBucket(0, 1));
+        assertEquals(0, LocationOccupancy.utilisationBucket(null, null));
+    }
+
+    @Test
+    void testPercentilesFromHistogram() {
+        LocationOccupancy occupancy = new LocationOccupancy("AMSTERDAM-001");
+        occupancy.addBucket(1, 3, 300, 45);
+        occupancy.addBucket(7, 1, 100, 75);
+
+        assertEquals(4, occupancy.activeWarehouses);
+        assertEquals(400, occupancy.totalCapacity);
+        assertEquals(120, occupancy.totalStock);
+        assertEquals(20, occupancy.utilisationPercentile(50));
+        assertEquals(80, occupancy.utilisationPercentile(90));
+    }
+
+    @Test
+    void testPercentileOfEmptyLocation() {
+        assertNull(new LocationOccupancy("ZWOLLE-001").utilisationPercentile(50));
+    }
+
+    @Test
+    void testMerge() {
+        LocationOccupancy zwolle = new LocationOccupancy("ZWOLLE-001");
+        zwolle.addBucket(1, 1, 100, 10);
+        LocationOccupancy tilburg = new LocationOccupancy("TILBURG-001");
+        tilburg.addBucket(9, 1, 30, 27);
+
+        LocationOccupancy global = LocationOccupancy.merge(null, List.of(zwolle, tilburg));
+
+        assertNull(global.location);
+        assertEquals(2, global.activeWarehouses);
+        assertEquals(130, global.totalCapacity);
+        assertEquals(37, global.totalStock);
+        assertEquals(1, global.utilisationHistogram[1]);
+        assertEquals(1, global.utilisationHistogram[9]);
+    }
+}
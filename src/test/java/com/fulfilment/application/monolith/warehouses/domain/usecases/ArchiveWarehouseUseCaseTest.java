@@ -1,6 +1,9 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,17 +13,22 @@ import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
 public class ArchiveWarehouseUseCaseTest {
     private WarehouseStore warehouseStore;
+    private WarehouseOccupancyRollup occupancyRollup;
+    private WarehouseEventPublisher eventPublisher;
     private ArchiveWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         warehouseStore = mock(WarehouseStore.class);
-        useCase = new ArchiveWarehouseUseCase(warehouseStore);
+        occupancyRollup = mock(WarehouseOccupancyRollup.class);
+        eventPublisher = mock(WarehouseEventPublisher.class);
+        useCase = new ArchiveWarehouseUseCase(warehouseStore, occupancyRollup, eventPublisher);
     }
 
     @Test
@@ -40,5 +48,22 @@ public class ArchiveWarehouseUseCaseTest {
 
         // 2. Verify the changes were persisted to the store
         verify(warehouseStore, times(1)).update(warehouse);
+
+        // 3. Verify the warehouse no longer counts towards its location's occupancy
+        verify(occupancyRollup, times(1)).remove(warehouse);
+        verify(eventPublisher, times(1)).publish(argThat(event ->
+                event.type == WarehouseLifecycleEvent.Type.ARCHIVED));
+    }
+
+    @Test
+    void testArchive_AlreadyArchivedIsNotRemovedTwice() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "MWH.001";
+        warehouse.archivedAt = LocalDateTime.now().minusDays(1);
+
+        useCase.archive(warehouse);
+
+        verify(warehouseStore, times(1)).update(warehouse);
+        verifyNoInteractions(occupancyRollup);
     }
 }
@@ -2,29 +2,40 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.ws.rs.WebApplicationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
-
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
 public class CreateWarehouseUseCaseTest {
     private WarehouseStore warehouseStore;
     private LocationResolver locationResolver;
+    private WarehouseOccupancyRollup occupancyRollup;
+    private WarehouseEventPublisher eventPublisher;
+    private CapacityReservations reservations;
     private CreateWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         warehouseStore = mock(WarehouseStore.class);
         locationResolver = mock(LocationResolver.class);
-        useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver);
+        occupancyRollup = mock(WarehouseOccupancyRollup.class);
+        eventPublisher = mock(WarehouseEventPublisher.class);
+        reservations = mock(CapacityReservations.class);
+        useCase = new CreateWarehouseUseCase(
+                warehouseStore, locationResolver, occupancyRollup, eventPublisher, reservations);
     }
 
     @Test
@@ -38,10 +49,13 @@ public class CreateWarehouseUseCaseTest {
         // Mocking a valid location that has space for 1 warehouse and 40 units
         when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
                 .thenReturn(new Location("ZWOLLE-001", 1, 40));
-        when(warehouseStore.getAll()).thenReturn(List.of());
+        when(warehouseStore.countActiveByLocation("ZWOLLE-001")).thenReturn(0L);
 
         assertDoesNotThrow(() -> useCase.create(w));
         verify(warehouseStore, times(1)).create(w);
+        verify(occupancyRollup, times(1)).add(w);
+        verify(eventPublisher, times(1)).publish(argThat(event ->
+                event.type == WarehouseLifecycleEvent.Type.CREATED));
     }
 
     @Test
@@ -54,6 +68,8 @@ public class CreateWarehouseUseCaseTest {
 
         WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.create(w));
         assertEquals(409, ex.getResponse().getStatus());
+        verifyNoInteractions(occupancyRollup);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -66,9 +82,7 @@ public class CreateWarehouseUseCaseTest {
                 .thenReturn(new Location("ZWOLLE-001", 1, 100));
 
         // Simulate one already exists at that location
-        Warehouse existing = new Warehouse();
-        existing.location = "ZWOLLE-001";
-        when(warehouseStore.getAll()).thenReturn(List.of(existing));
+        when(warehouseStore.countActiveByLocation("ZWOLLE-001")).thenReturn(1L);
 
         WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.create(w));
         assertEquals(400, ex.getResponse().getStatus());
@@ -89,4 +103,23 @@ public class CreateWarehouseUseCaseTest {
         assertEquals(400, ex.getResponse().getStatus());
         assertTrue(ex.getMessage().contains("capacity"));
     }
+
+    @Test
+    void testCreateWarehouse_CapacityExceedsLocationCapacityLeftAfterReservations() {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = "NEW.002";
+        w.location = "ZWOLLE-001";
+        w.capacity = 30;
+        w.stock = 0;
+
+        // 30 fits the location's 40 on its own, but 15 of it is held for an inbound shipment
+        when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+                .thenReturn(new Location("ZWOLLE-001", 1, 40));
+        when(reservations.reservedAtLocation("ZWOLLE-001")).thenReturn(15);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.create(w));
+        assertEquals(400, ex.getResponse().getStatus());
+        assertTrue(ex.getMessage().contains("reservations"));
+        verify(warehouseStore, never()).create(any());
+    }
 }
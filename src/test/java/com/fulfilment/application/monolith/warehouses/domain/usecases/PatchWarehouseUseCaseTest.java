@@ -0,0 +1,180 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePatch;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+public class PatchWarehouseUseCaseTest {
+    private WarehouseStore warehouseStore;
+    private LocationResolver locationResolver;
+    private WarehouseOccupancyRollup occupancyRollup;
+    private WarehouseEventPublisher eventPublisher;
+    private CapacityReservations reservations;
+    private PatchWarehouseUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        warehouseStore = mock(WarehouseStore.class);
+        locationResolver = mock(LocationResolver.class);
+        occupancyRollup = mock(WarehouseOccupancyRollup.class);
+        eventPublisher = mock(WarehouseEventPublisher.class);
+        reservations = mock(CapacityReservations.class);
+        useCase = new PatchWarehouseUseCase(
+                warehouseStore, locationResolver, occupancyRollup, eventPublisher, reservations);
+    }
+
+    private Warehouse warehouse(String location, int capacity, int stock) {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = "MWH.001";
+        w.location = location;
+        w.capacity = capacity;
+        w.stock = stock;
+        return w;
+    }
+
+    @Test
+    void testPatch_OnlyChangesSuppliedFields() {
+        Warehouse previous = warehouse("ZWOLLE-001", 100, 10);
+        WarehousePatch patch = new WarehousePatch(null, null, 25);
+
+        when(warehouseStore.patchActive("MWH.001", patch)).thenReturn(previous);
+        when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+                .thenReturn(new Location("ZWOLLE-001", 1, 100));
+
+        Warehouse patched = useCase.patch("MWH.001", patch);
+
+        assertEquals("ZWOLLE-001", patched.location);
+        assertEquals(100, patched.capacity);
+        assertEquals(25, patched.stock);
+        // The location is unchanged, so there is no need to count its warehouses
+        verify(warehouseStore, never()).countActiveByLocation(any());
+        verify(occupancyRollup, times(1)).remove(previous);
+        verify(occupancyRollup, times(1)).add(patched);
+        verify(eventPublisher, times(1)).publish(argThat(event ->
+                event.type == WarehouseLifecycleEvent.Type.UPDATED));
+    }
+
+    @Test
+    void testPatch_EmptyPatchRejected() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", new WarehousePatch()));
+        assertEquals(422, ex.getResponse().getStatus());
+        verify(warehouseStore, never()).patchActive(any(), any());
+    }
+
+    @Test
+    void testPatch_NotFound() {
+        WarehousePatch patch = new WarehousePatch(null, null, 5);
+        when(warehouseStore.patchActive("NON-EXISTENT", patch)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("NON-EXISTENT")).thenReturn(null);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("NON-EXISTENT", patch));
+        assertEquals(404, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testPatch_StockExceedsCapacity() {
+        WarehousePatch patch = new WarehousePatch(null, 20, null);
+        when(warehouseStore.patchActive("MWH.001", patch)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("MWH.001"))
+                .thenReturn(warehouse("ZWOLLE-001", 100, 50));
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(400, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testPatch_CapacityTooSmallForStockAndReservations() {
+        // 60 fits the stock of 50, but not the 20 reserved on top of it
+        WarehousePatch patch = new WarehousePatch(null, 60, null);
+        when(warehouseStore.patchActive("MWH.001", patch)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("MWH.001"))
+                .thenReturn(warehouse("ZWOLLE-001", 100, 50));
+        when(reservations.reservedInWarehouse("MWH.001")).thenReturn(20);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(400, ex.getResponse().getStatus());
+        assertTrue(ex.getMessage().contains("reserved"));
+    }
+
+    @Test
+    void testPatch_ConcurrentModification() {
+        // The write matched nothing, yet the current row would accept the patch
+        WarehousePatch patch = new WarehousePatch(null, 80, null);
+        when(warehouseStore.patchActive("MWH.001", patch)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("MWH.001"))
+                .thenReturn(warehouse("ZWOLLE-001", 100, 50));
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(409, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testPatch_CapacityExceedsLocationMaximum() {
+        WarehousePatch patch = new WarehousePatch(null, 60, null);
+        when(warehouseStore.patchActive("MWH.001", patch))
+                .thenReturn(warehouse("ZWOLLE-001", 40, 10));
+        when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+                .thenReturn(new Location("ZWOLLE-001", 1, 40));
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(400, ex.getResponse().getStatus());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void testPatch_MoveToFullLocation() {
+        WarehousePatch patch = new WarehousePatch("AMSTERDAM-001", null, null);
+
+        when(warehouseStore.patchActive("MWH.001", patch))
+                .thenReturn(warehouse("ZWOLLE-001", 40, 10));
+        when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+                .thenReturn(new Location("AMSTERDAM-001", 1, 100));
+        // The patched row is already written, so it counts towards its new location
+        when(warehouseStore.countActiveByLocation("AMSTERDAM-001")).thenReturn(2L);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(400, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testPatch_MoveToLocationWithReservations() {
+        WarehousePatch patch = new WarehousePatch("AMSTERDAM-001", null, null);
+
+        when(warehouseStore.patchActive("MWH.001", patch))
+                .thenReturn(warehouse("ZWOLLE-001", 40, 10));
+        when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+                .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+        when(warehouseStore.countActiveByLocation("AMSTERDAM-001")).thenReturn(1L);
+        // Only 30 of the location's 100 are left for the moved warehouse's 40
+        when(reservations.reservedAtLocation("AMSTERDAM-001")).thenReturn(70);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.patch("MWH.001", patch));
+        assertEquals(400, ex.getResponse().getStatus());
+        assertTrue(ex.getMessage().contains("reservations"));
+        verify(eventPublisher, never()).publish(any());
+    }
+}
@@ -1,6 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.ws.rs.WebApplicationException;
@@ -8,17 +14,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
 public class ReplaceWarehouseUseCaseTest {
     private WarehouseStore warehouseStore;
+    private LocationResolver locationResolver;
+    private WarehouseOccupancyRollup occupancyRollup;
+    private WarehouseEventPublisher eventPublisher;
+    private CapacityReservations reservations;
     private ReplaceWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         warehouseStore = mock(WarehouseStore.class);
-        useCase = new ReplaceWarehouseUseCase(warehouseStore);
+        locationResolver = mock(LocationResolver.class);
+        occupancyRollup = mock(WarehouseOccupancyRollup.class);
+        eventPublisher = mock(WarehouseEventPublisher.class);
+        reservations = mock(CapacityReservations.class);
+        useCase = new ReplaceWarehouseUseCase(
+                warehouseStore, locationResolver, occupancyRollup, eventPublisher, reservations);
     }
 
     @Test
@@ -35,10 +52,18 @@ public class ReplaceWarehouseUseCaseTest {
         replacement.stock = 50;
         replacement.capacity = 80;
 
-        when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+        when(warehouseStore.replaceIfStockMatches(replacement)).thenReturn(current);
 
         assertDoesNotThrow(() -> useCase.replace(replacement));
-        verify(warehouseStore, times(1)).update(replacement);
+        verify(warehouseStore, times(1)).replaceIfStockMatches(replacement);
+        // A successful replace is a single write, without reading the current warehouse first
+        verify(warehouseStore, never()).findByBusinessUnitCode(anyString());
+
+        // The replacement takes over the current warehouse's share of the occupancy rollup
+        verify(occupancyRollup, times(1)).remove(current);
+        verify(occupancyRollup, times(1)).add(replacement);
+        verify(eventPublisher, times(1)).publish(argThat(event ->
+                event.type == WarehouseLifecycleEvent.Type.REPLACED));
     }
 
     @Test
@@ -87,4 +112,72 @@ public class ReplaceWarehouseUseCaseTest {
         assertEquals(400, ex.getResponse().getStatus());
         assertTrue(ex.getMessage().contains("match"));
     }
+
+    @Test
+    void testReplace_ConcurrentModification() {
+        // The write matched nothing, yet the follow-up read shows a warehouse that satisfies the rules
+        Warehouse current = new Warehouse();
+        current.businessUnitCode = "MWH.001";
+        current.stock = 50;
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "MWH.001";
+        replacement.capacity = 100;
+        replacement.stock = 50;
+
+        when(warehouseStore.replaceIfStockMatches(replacement)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.replace(replacement));
+        assertEquals(409, ex.getResponse().getStatus());
+        verifyNoInteractions(occupancyRollup);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testReplace_CapacityTooSmallForStockAndReservations() {
+        Warehouse current = new Warehouse();
+        current.businessUnitCode = "MWH.001";
+        current.stock = 50;
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "MWH.001";
+        replacement.stock = 50;
+        replacement.capacity = 60; // fits the stock, but not the 20 reserved on top of it
+
+        // The conditional write counts the reservations and matches nothing
+        when(warehouseStore.replaceIfStockMatches(replacement)).thenReturn(null);
+        when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+        when(reservations.reservedInWarehouse("MWH.001")).thenReturn(20);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.replace(replacement));
+        assertEquals(400, ex.getResponse().getStatus());
+        assertTrue(ex.getMessage().contains("reserved"));
+        verifyNoInteractions(occupancyRollup);
+    }
+
+    @Test
+    void testReplace_MoveToLocationWithReservations() {
+        Warehouse current = new Warehouse();
+        current.businessUnitCode = "MWH.001";
+        current.location = "ZWOLLE-001";
+        current.stock = 50;
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "MWH.001";
+        replacement.location = "AMSTERDAM-001";
+        replacement.stock = 50;
+        replacement.capacity = 60;
+
+        when(warehouseStore.replaceIfStockMatches(replacement)).thenReturn(current);
+        when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+                .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+        // Only 30 of the location's 100 are left for the replacement's 60
+        when(reservations.reservedAtLocation("AMSTERDAM-001")).thenReturn(70);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class, () -> useCase.replace(replacement));
+        assertEquals(400, ex.getResponse().getStatus());
+        assertTrue(ex.getMessage().contains("reservations"));
+        verifyNoInteractions(occupancyRollup, eventPublisher);
+    }
 }
@@ -0,0 +1,115 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.CapacityReservation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CapacityReservations;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+public class ReserveCapacityUseCaseTest {
+    private WarehouseStore warehouseStore;
+    private LocationResolver locationResolver;
+    private CapacityReservations reservations;
+    private ReserveCapacityUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        warehouseStore = mock(WarehouseStore.class);
+        locationResolver = mock(LocationResolver.class);
+        reservations = mock(CapacityReservations.class);
+        useCase = new ReserveCapacityUseCase(warehouseStore, locationResolver, reservations);
+    }
+
+    @Test
+    void testReserveInWarehouse_StoreChecksFreeCapacity() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "MWH.001";
+        warehouse.capacity = 100;
+        warehouse.stock = 10;
+        when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(warehouse);
+        CapacityReservation stored = new CapacityReservation("MWH.001", null, 20);
+        when(reservations.reserveInWarehouse(any(), any())).thenReturn(stored);
+
+        assertSame(stored, useCase.reserveInWarehouse("MWH.001", 20, Duration.ofHours(1)));
+        verify(reservations).reserveInWarehouse(
+                argThat(r -> "MWH.001".equals(r.businessUnitCode) && r.quantity == 20),
+                eq(Duration.ofHours(1)));
+    }
+
+    @Test
+    void testReserveInWarehouse_NotEnoughFreeCapacity() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "MWH.001";
+        warehouse.capacity = 100;
+        warehouse.stock = 95;
+        when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(warehouse);
+        when(reservations.reserveInWarehouse(any(), any())).thenReturn(null);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.reserveInWarehouse("MWH.001", 20, Duration.ofHours(1)));
+        assertEquals(400, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testReserveInWarehouse_NotFound() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.reserveInWarehouse("NON-EXISTENT", 20, Duration.ofHours(1)));
+        assertEquals(404, ex.getResponse().getStatus());
+        verifyNoInteractions(reservations);
+    }
+
+    @Test
+    void testReserveAtLocation_LimitIsMaxCapacity() {
+        when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+                .thenReturn(new Location("ZWOLLE-001", 1, 40));
+        when(reservations.reserveAtLocation(any(), any(), anyInt()))
+                .thenReturn(new CapacityReservation(null, "ZWOLLE-001", 15));
+
+        useCase.reserveAtLocation("ZWOLLE-001", 15, Duration.ofMinutes(30));
+        verify(reservations).reserveAtLocation(
+                argThat(r -> r.businessUnitCode == null && "ZWOLLE-001".equals(r.location)),
+                eq(Duration.ofMinutes(30)),
+                eq(40));
+    }
+
+    @Test
+    void testReserveAtLocation_UnknownLocation() {
+        when(locationResolver.resolveByIdentifier("NOWHERE-001"))
+                .thenThrow(new IllegalArgumentException("Location not found: NOWHERE-001"));
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.reserveAtLocation("NOWHERE-001", 15, Duration.ofMinutes(30)));
+        assertEquals(404, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testReserve_NonPositiveQuantityRejected() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.reserveInWarehouse("MWH.001", 0, Duration.ofHours(1)));
+        assertEquals(422, ex.getResponse().getStatus());
+    }
+
+    @Test
+    void testRelease_UnknownReservation() {
+        when(reservations.release("missing")).thenReturn(false);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.release("missing"));
+        assertEquals(404, ex.getResponse().getStatus());
+    }
+}
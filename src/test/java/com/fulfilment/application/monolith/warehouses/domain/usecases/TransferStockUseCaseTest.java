@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockChange;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseLifecycleEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseEventPublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseOccupancyRollup;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+public class TransferStockUseCaseTest {
+    private StockLedger stockLedger;
+    private WarehouseOccupancyRollup occupancyRollup;
+    private WarehouseEventPublisher eventPublisher;
+    private TransferStockUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        stockLedger = mock(StockLedger.class);
+        occupancyRollup = mock(WarehouseOccupancyRollup.class);
+        eventPublisher = mock(WarehouseEventPublisher.class);
+        useCase = new TransferStockUseCase(stockLedger, occupancyRollup, eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransfer_AppendsPairedLegsInOneBatch() {
+        StockChange source = new StockChange(warehouse("MWH.001", 50), warehouse("MWH.001", 40));
+        StockChange destination = new StockChange(warehouse("MWH.012", 5), warehouse("MWH.012", 15));
+        when(stockLedger.append(any())).thenReturn(List.of(source, destination));
+
+        List<StockChange> changes = useCase.transfer(List.of(new StockTransfer("MWH.001", "MWH.012", 10)));
+
+        ArgumentCaptor<List<StockMovement>> appended = ArgumentCaptor.forClass(List.class);
+        verify(stockLedger, times(1)).append(appended.capture());
+        List<StockMovement> movements = appended.getValue();
+        assertEquals(2, movements.size());
+
+        // The source is debited before the destination is credited, each naming the other side
+        assertEquals("MWH.001", movements.get(0).businessUnitCode);
+        assertEquals(StockMovement.Type.TRANSFER_OUT, movements.get(0).type);
+        assertEquals("MWH.012", movements.get(0).counterpartBusinessUnitCode);
+        assertEquals(-10, movements.get(0).delta());
+        assertEquals("MWH.012", movements.get(1).businessUnitCode);
+        assertEquals(StockMovement.Type.TRANSFER_IN, movements.get(1).type);
+        assertEquals("MWH.001", movements.get(1).counterpartBusinessUnitCode);
+        assertEquals(10, movements.get(1).delta());
+
+        assertEquals(2, changes.size());
+        verify(occupancyRollup, times(1)).remove(source.before);
+        verify(occupancyRollup, times(1)).add(source.after);
+        verify(occupancyRollup, times(1)).remove(destination.before);
+        verify(occupancyRollup, times(1)).add(destination.after);
+        verify(eventPublisher, times(2)).publish(argThat(event ->
+                event.type == WarehouseLifecycleEvent.Type.UPDATED));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransfer_MultiLegBatchKeepsLegOrder() {
+        when(stockLedger.append(any())).thenReturn(List.of());
+
+        useCase.transfer(List.of(
+                new StockTransfer("A", "B", 5),
+                new StockTransfer("B", "C", 5)));
+
+        ArgumentCaptor<List<StockMovement>> appended = ArgumentCaptor.forClass(List.class);
+        verify(stockLedger).append(appended.capture());
+        List<String> order = appended.getValue().stream()
+                .map(movement -> movement.businessUnitCode + ":" + movement.type)
+                .toList();
+        assertEquals(List.of("A:TRANSFER_OUT", "B:TRANSFER_IN", "B:TRANSFER_OUT", "C:TRANSFER_IN"), order);
+    }
+
+    @Test
+    void testTransfer_SameWarehouseRejected() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.transfer(List.of(new StockTransfer("MWH.001", "MWH.001", 5))));
+        assertEquals(422, ex.getResponse().getStatus());
+        verifyNoInteractions(stockLedger, occupancyRollup, eventPublisher);
+    }
+
+    @Test
+    void testTransfer_NonPositiveQuantityRejected() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.transfer(List.of(new StockTransfer("MWH.001", "MWH.012", 0))));
+        assertEquals(422, ex.getResponse().getStatus());
+        verifyNoInteractions(stockLedger);
+    }
+
+    @Test
+    void testTransfer_EmptyBatchRejected() {
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.transfer(List.of()));
+        assertEquals(422, ex.getResponse().getStatus());
+    }
+
+    private static Warehouse warehouse(String buCode, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.capacity = 100;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+}